@@ -0,0 +1,53 @@
+package org.grobid.core.analyzers;
+
+import org.grobid.core.utilities.BenchmarkCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenisation of the paragraphs of the sample corpus, an operation is a pass over the corpus
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class QuantityAnalyzerBenchmark {
+
+    private QuantityAnalyzer analyzer;
+    private List<String> texts;
+
+    @Setup
+    public void setUp() {
+        analyzer = QuantityAnalyzer.getInstance();
+        texts = BenchmarkCorpus.texts();
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(analyzer.tokenize(text));
+        }
+    }
+
+    @Benchmark
+    public void tokenizeWithLayoutToken(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(analyzer.tokenizeWithLayoutToken(text));
+        }
+    }
+
+    @Benchmark
+    public void tokenizeWithLayoutTokenByCharacter(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(analyzer.tokenizeWithLayoutTokenByCharacter(text));
+        }
+    }
+}
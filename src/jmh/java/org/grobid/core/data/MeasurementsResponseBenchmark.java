@@ -0,0 +1,45 @@
+package org.grobid.core.data;
+
+import org.grobid.core.engines.QuantityParser;
+import org.grobid.core.main.LibraryLoader;
+import org.grobid.core.utilities.BenchmarkCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * JSON serialisation of the measurements of the paragraphs of the sample corpus, an operation is a pass over
+ * the responses. The measurements are extracted once, with the models, at the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MeasurementsResponseBenchmark {
+
+    private List<MeasurementsResponse> responses;
+
+    @Setup
+    public void setUp() {
+        LibraryLoader.load();
+        QuantityParser parser = QuantityParser.getInstance(true);
+        responses = BenchmarkCorpus.texts().stream()
+            .map(text -> new MeasurementsResponse(parser.process(text)))
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void toJson(Blackhole blackhole) {
+        for (MeasurementsResponse response : responses) {
+            blackhole.consume(response.toJson());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.grobid.core.data.normalization;
+
+import org.grobid.core.data.Quantity;
+import org.grobid.core.main.LibraryLoader;
+import org.grobid.core.utilities.BenchmarkCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normalisation of the quantities of the fixture to the SI units, including the unit parsing, an operation is
+ * a pass over the quantities
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class QuantityNormalizerBenchmark {
+
+    private QuantityNormalizer normalizer;
+    private List<Quantity> quantities;
+
+    @Setup
+    public void setUp() {
+        LibraryLoader.load();
+        normalizer = new QuantityNormalizer();
+        quantities = BenchmarkCorpus.quantities();
+    }
+
+    @Benchmark
+    public void normalizeQuantity(Blackhole blackhole) throws NormalizationException {
+        for (Quantity quantity : quantities) {
+            blackhole.consume(normalizer.normalizeQuantity(quantity));
+        }
+    }
+}
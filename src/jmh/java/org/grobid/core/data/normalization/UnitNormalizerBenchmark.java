@@ -0,0 +1,43 @@
+package org.grobid.core.data.normalization;
+
+import org.grobid.core.data.Unit;
+import org.grobid.core.main.LibraryLoader;
+import org.grobid.core.utilities.BenchmarkCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the raw units of the fixture, with the lexicon and the units model, an operation is a pass over
+ * the units
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UnitNormalizerBenchmark {
+
+    private UnitNormalizer normalizer;
+    private List<Unit> units;
+
+    @Setup
+    public void setUp() {
+        LibraryLoader.load();
+        normalizer = new UnitNormalizer();
+        units = BenchmarkCorpus.units();
+    }
+
+    @Benchmark
+    public void parseUnit(Blackhole blackhole) throws NormalizationException {
+        for (Unit unit : units) {
+            blackhole.consume(normalizer.parseUnit(unit));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.GrobidModels;
+import org.grobid.core.data.ValueBlock;
+import org.grobid.core.utilities.BenchmarkCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the labeled value blocks of the fixture, an operation is a pass over the blocks
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ValueParserBenchmark {
+
+    private ValueParser parser;
+    private List<ValueBlock> blocks;
+
+    @Setup
+    public void setUp() {
+        // the blocks are already labeled, the model is not used
+        parser = new ValueParser(GrobidModels.DUMMY);
+        blocks = BenchmarkCorpus.valueBlocks();
+    }
+
+    @Benchmark
+    public void parseValueBlock(Blackhole blackhole) {
+        for (ValueBlock block : blocks) {
+            blackhole.consume(parser.parseValueBlock(block, Locale.ENGLISH));
+        }
+    }
+}
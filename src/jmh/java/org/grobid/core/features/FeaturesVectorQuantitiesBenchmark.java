@@ -0,0 +1,67 @@
+package org.grobid.core.features;
+
+import org.grobid.core.analyzers.QuantityAnalyzer;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.core.utilities.BenchmarkCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feature lines of the tokens of the sample corpus, an operation is a pass over the tokens.
+ * The features computed for each token are compared to the cached lines of printVector().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FeaturesVectorQuantitiesBenchmark {
+
+    private String[] words;
+    private boolean[] unitTokens;
+    private boolean[] numberTokens;
+
+    @Setup
+    public void setUp() {
+        QuantityLexicon lexicon = QuantityLexicon.getInstance();
+        List<String> tokens = new ArrayList<>();
+        for (String text : BenchmarkCorpus.texts()) {
+            for (LayoutToken token : QuantityAnalyzer.getInstance().tokenizeWithLayoutToken(text)) {
+                if (!token.getText().trim().isEmpty()) {
+                    tokens.add(token.getText());
+                }
+            }
+        }
+        words = tokens.toArray(new String[0]);
+        unitTokens = new boolean[words.length];
+        numberTokens = new boolean[words.length];
+        for (int i = 0; i < words.length; i++) {
+            unitTokens[i] = lexicon.inUnitDictionary(words[i]);
+            numberTokens[i] = lexicon.isNumberToken(words[i]);
+        }
+    }
+
+    @Benchmark
+    public void addFeaturesQuantities(Blackhole blackhole) {
+        for (int i = 0; i < words.length; i++) {
+            blackhole.consume(FeaturesVectorQuantities.addFeaturesQuantities(words[i], null,
+                unitTokens[i], false, numberTokens[i]).printVector());
+        }
+    }
+
+    @Benchmark
+    public void printVector(Blackhole blackhole) {
+        for (int i = 0; i < words.length; i++) {
+            blackhole.consume(FeaturesVectorQuantities.printVector(words[i], unitTokens[i], false, numberTokens[i]));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.grobid.core.lexicon;
+
+import org.grobid.core.analyzers.QuantityAnalyzer;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.utilities.BenchmarkCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Matching of the unit names in the paragraphs of the sample corpus, an operation is a pass over the corpus
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class QuantityLexiconBenchmark {
+
+    private QuantityLexicon lexicon;
+    private List<String> texts;
+    private List<List<LayoutToken>> tokens;
+
+    @Setup
+    public void setUp() {
+        lexicon = QuantityLexicon.getInstance();
+        texts = BenchmarkCorpus.texts();
+        tokens = texts.stream()
+            .map(text -> QuantityAnalyzer.getInstance().tokenizeWithLayoutToken(text))
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void inUnitNames(Blackhole blackhole) {
+        for (List<LayoutToken> textTokens : tokens) {
+            blackhole.consume(lexicon.inUnitNames(textTokens));
+        }
+    }
+
+    /**
+     * Including the tokenisation of the text
+     */
+    @Benchmark
+    public void inUnitNamesText(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(lexicon.inUnitNames(text));
+        }
+    }
+}
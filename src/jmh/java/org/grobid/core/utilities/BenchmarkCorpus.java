@@ -0,0 +1,110 @@
+package org.grobid.core.utilities;
+
+import org.apache.commons.io.IOUtils;
+import org.grobid.core.data.Quantity;
+import org.grobid.core.data.Unit;
+import org.grobid.core.data.Value;
+import org.grobid.core.data.ValueBlock;
+import org.grobid.core.engines.QuantitiesWarmup;
+import org.grobid.core.exceptions.GrobidResourceException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Fixtures of the benchmarks: the paragraphs of the bundled sample corpus, and the value blocks, raw units and
+ * quantities of the files under benchmark/.
+ */
+public class BenchmarkCorpus {
+
+    public static final String FIXTURES_PATH = "benchmark/";
+
+    /**
+     * The paragraphs of the sample corpus of the warm-up
+     */
+    public static List<String> texts() {
+        return QuantitiesWarmup.loadCorpus(null);
+    }
+
+    /**
+     * The lines of a fixture file, without the blank lines and the comments
+     */
+    public static List<String> lines(String name) {
+        try (InputStream is = BenchmarkCorpus.class.getClassLoader().getResourceAsStream(FIXTURES_PATH + name)) {
+            if (is == null) {
+                throw new GrobidResourceException("Cannot find the benchmark fixture " + FIXTURES_PATH + name);
+            }
+            return IOUtils.readLines(is, UTF_8).stream()
+                .filter(line -> !isBlank(line) && !line.startsWith("#"))
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new GrobidResourceException("Cannot read the benchmark fixture " + FIXTURES_PATH + name, e);
+        }
+    }
+
+    /**
+     * The value blocks of values.txt, written as field=value separated by |, e.g. number=20|base=10|pow=-1
+     */
+    public static List<ValueBlock> valueBlocks() {
+        List<ValueBlock> blocks = new ArrayList<>();
+        for (String line : lines("values.txt")) {
+            ValueBlock block = new ValueBlock();
+            for (String field : line.split("\\|")) {
+                String[] pair = field.split("=", 2);
+                switch (pair[0]) {
+                    case "number":
+                        block.setNumber(pair[1]);
+                        break;
+                    case "base":
+                        block.setBase(pair[1]);
+                        break;
+                    case "pow":
+                        block.setPow(pair[1]);
+                        break;
+                    case "exp":
+                        block.setExp(pair[1]);
+                        break;
+                    case "alpha":
+                        block.setAlpha(pair[1]);
+                        break;
+                    default:
+                        throw new GrobidResourceException("Unknown value block field in " + line);
+                }
+            }
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    /**
+     * The raw units of units.txt
+     */
+    public static List<Unit> units() {
+        return lines("units.txt").stream()
+            .map(Unit::new)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * The quantities of quantities.txt, with their value parsed and their raw unit
+     */
+    public static List<Quantity> quantities() {
+        List<Quantity> quantities = new ArrayList<>();
+        for (String line : lines("quantities.txt")) {
+            String[] pair = line.split("\t", 2);
+            Quantity quantity = new Quantity();
+            quantity.setRawValue(pair[0]);
+            quantity.setParsedValue(new Value(new BigDecimal(pair[0])));
+            quantity.setRawUnit(new Unit(pair[1]));
+            quantities.add(quantity);
+        }
+        return quantities;
+    }
+}
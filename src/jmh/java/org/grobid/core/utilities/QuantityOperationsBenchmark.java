@@ -0,0 +1,52 @@
+package org.grobid.core.utilities;
+
+import org.grobid.core.analyzers.QuantityAnalyzer;
+import org.grobid.core.layout.LayoutToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of the tokens of a span in the paragraphs of the sample corpus, an operation is a pass over the
+ * paragraphs. The span is the middle third of each paragraph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class QuantityOperationsBenchmark {
+
+    private List<List<LayoutToken>> tokens;
+    private int[] startOffsets;
+    private int[] endOffsets;
+
+    @Setup
+    public void setUp() {
+        tokens = new ArrayList<>();
+        for (String text : BenchmarkCorpus.texts()) {
+            tokens.add(QuantityAnalyzer.getInstance().tokenizeWithLayoutToken(text));
+        }
+        startOffsets = new int[tokens.size()];
+        endOffsets = new int[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            List<LayoutToken> textTokens = tokens.get(i);
+            startOffsets[i] = textTokens.get(textTokens.size() / 3).getOffset();
+            endOffsets[i] = textTokens.get(2 * textTokens.size() / 3).getOffset();
+        }
+    }
+
+    @Benchmark
+    public void getExtremitiesAsIndex(Blackhole blackhole) {
+        for (int i = 0; i < tokens.size(); i++) {
+            blackhole.consume(QuantityOperations.getExtremitiesAsIndex(tokens.get(i), startOffsets[i], endOffsets[i]));
+        }
+    }
+}
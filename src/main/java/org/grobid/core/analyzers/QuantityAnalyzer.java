@@ -1,14 +1,13 @@
 package org.grobid.core.analyzers;
 
-import org.apache.commons.lang3.StringUtils;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.grobid.core.lang.Language;
 import org.grobid.core.layout.LayoutToken;
-import org.grobid.core.utilities.OffsetPosition;
 import org.grobid.core.utilities.UnicodeUtil;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.StringTokenizer;
 
 /**
  * Quantity tokenizer adequate for all Indo-European languages and special characters.
@@ -52,25 +51,86 @@ public class QuantityAnalyzer implements Analyzer {
     }
 
     public static final String DELIMITERS = " \n\r\t([^%‰°,:;?.!/)-–−=≈<>+±\"“”‘’'`$]*\u2666\u2665\u2663\u2660\u00A0";
-    private static final String REGEX = "(?<=[a-zA-Z])(?=\\d)|(?<=\\d)(?=\\D)";
+
+    private static final byte OTHER = 0;
+    private static final byte DELIMITER = 1;
+    private static final byte LETTER = 2;
+    private static final byte DIGIT = 3;
+
+    /**
+     * Class of each character: the delimiters are single tokens, and in addition a token is split between an
+     * ASCII letter and a digit and between a digit and a non digit (e.g. 1m74 -> 1, m, 74)
+     */
+    private static final byte[] CHARACTER_CLASSES = new byte[Character.MAX_VALUE + 1];
+
+    // normalised form of each character, filled the first time the character is seen
+    private static final String[] NORMALISED_CHARACTERS = new String[Character.MAX_VALUE + 1];
+
+    // printable ASCII characters left unchanged by the normalisation, a token made only of them is returned as it is
+    private static final boolean[] UNCHANGED_ASCII = new boolean[128];
+
+    // longer strings are normalised without being cached, they are rarely repeated
+    private static final int MAX_CACHED_TOKEN_LENGTH = 32;
+
+    private static final Cache<String, String> NORMALISED_TOKENS = CacheBuilder.newBuilder()
+        .maximumSize(10000)
+        .build();
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            CHARACTER_CLASSES[c] = LETTER;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            CHARACTER_CLASSES[c] = LETTER;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            CHARACTER_CLASSES[c] = DIGIT;
+        }
+        for (char c : DELIMITERS.toCharArray()) {
+            CHARACTER_CLASSES[c] = DELIMITER;
+        }
+        // spaces and control characters are excluded, as sequences of them might not be normalised character by character
+        for (char c = '!'; c <= '~'; c++) {
+            UNCHANGED_ASCII[c] = String.valueOf(c).equals(UnicodeUtil.normaliseText(String.valueOf(c)));
+        }
+    }
 
     public String getName() {
         return "QuantityAnalyzer";
     }
 
-    public List<String> tokenize(String text) {
-        List<String> result = new ArrayList<>();
-        StringTokenizer st = new StringTokenizer(text, DELIMITERS, true);
-        while (st.hasMoreTokens()) {
-            String token = st.nextToken();
-            // in addition we split "letter" characters and digits
-            String[] subtokens = token.split(REGEX);
-            for (int i = 0; i < subtokens.length; i++) {
-                result.add(subtokens[i]);
+    /**
+     * Tokenize the text in a single pass, returning the token boundaries as offsets into the text.
+     */
+    public TokenOffsets scan(CharSequence text) {
+        TokenOffsets tokens = new TokenOffsets(text);
+        int length = text.length();
+        int start = 0;
+        byte previous = DELIMITER;
+        for (int i = 0; i < length; i++) {
+            byte current = CHARACTER_CLASSES[text.charAt(i)];
+            if (current == DELIMITER) {
+                if (start < i) {
+                    tokens.add(start, i);
+                }
+                tokens.add(i, i + 1);
+                start = i + 1;
+            } else if ((previous == LETTER && current == DIGIT) || (previous == DIGIT && current != DIGIT)) {
+                // in addition we split "letter" characters and digits
+                tokens.add(start, i);
+                start = i;
             }
+            previous = current;
+        }
+        if (start < length) {
+            tokens.add(start, length);
         }
 
-        return result;
+        return tokens;
+    }
+
+    public List<String> tokenize(String text) {
+        return scan(text).getTokens();
     }
 
     public List<String> tokenize(String text, Language lang) {
@@ -78,23 +138,7 @@ public class QuantityAnalyzer implements Analyzer {
     }
 
     public List<LayoutToken> tokenizeWithLayoutToken(String text) {
-        List<LayoutToken> result = new ArrayList<>();
-        StringTokenizer st = new StringTokenizer(text, DELIMITERS, true);
-        int offset = 0;
-        while (st.hasMoreTokens()) {
-            String token = st.nextToken();
-            // in addition we split "letter" characters and digits
-            String[] subtokens = token.split(REGEX);
-            for (int i = 0; i < subtokens.length; i++) {
-                LayoutToken layoutToken = new LayoutToken();
-                layoutToken.setText(subtokens[i]);
-                layoutToken.setOffset(offset);
-                offset += subtokens[i].length();
-                result.add(layoutToken);
-            }
-        }
-
-        return result;
+        return scan(text).getLayoutTokens();
     }
 
     public List<String> retokenize(List<String> chunks) {
@@ -114,20 +158,13 @@ public class QuantityAnalyzer implements Analyzer {
     }
 
     public List<LayoutToken> tokenize(LayoutToken chunk, int startingIndex) {
-        List<LayoutToken> result = new ArrayList<>();
-        String text = chunk.getText();
-        StringTokenizer st = new StringTokenizer(text, DELIMITERS, true);
-        while (st.hasMoreTokens()) {
-            String token = st.nextToken();
-            // in addition we split "letter" characters and digits
-            String[] subtokens = token.split(REGEX);
-            for (int i = 0; i < subtokens.length; i++) {
-                LayoutToken theChunk = new LayoutToken(chunk); // deep copy
-                theChunk.setText(subtokens[i]);
-                result.add(theChunk);
-                theChunk.setOffset(startingIndex);
-                startingIndex += StringUtils.length(theChunk.getText());
-            }
+        TokenOffsets tokens = scan(chunk.getText());
+        List<LayoutToken> result = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            LayoutToken theChunk = new LayoutToken(chunk); // deep copy
+            theChunk.setText(tokens.getToken(i));
+            theChunk.setOffset(startingIndex + tokens.getStart(i));
+            result.add(theChunk);
         }
         return result;
     }
@@ -143,15 +180,65 @@ public class QuantityAnalyzer implements Analyzer {
 
 
     public List<LayoutToken> tokenizeWithLayoutTokenByCharacter(String text) {
-        List<LayoutToken> layoutTokens = new ArrayList<>();
+        List<LayoutToken> layoutTokens = new ArrayList<>(text.length());
 
-        for (char character : text.toCharArray()) {
-            OffsetPosition position = new OffsetPosition();
-            position.start = text.indexOf(character);
-            position.end = text.indexOf(character) + 1;
-            LayoutToken lt = new LayoutToken(UnicodeUtil.normaliseText(String.valueOf(character)));
+        for (int i = 0; i < text.length(); i++) {
+            LayoutToken lt = new LayoutToken(normaliseCharacter(text.charAt(i)));
+            lt.setOffset(i);
             layoutTokens.add(lt);
         }
         return layoutTokens;
     }
-}
\ No newline at end of file
+
+    /**
+     * Return the normalised form of a single character, as UnicodeUtil.normaliseText would. The result is
+     * computed once per character and then reused.
+     */
+    public static String normaliseCharacter(char character) {
+        String normalised = NORMALISED_CHARACTERS[character];
+        if (normalised == null) {
+            normalised = UnicodeUtil.normaliseText(String.valueOf(character));
+            // Strings are immutable, a concurrent computation of the same character is harmless
+            NORMALISED_CHARACTERS[character] = normalised;
+        }
+        return normalised;
+    }
+
+    /**
+     * Return the normalised form of a token, as UnicodeUtil.normaliseText would. A token needing no
+     * normalisation, like most of the ASCII tokens, is returned without any allocation, and the
+     * normalised form of the other short tokens (e.g. µm, °C) is cached.
+     */
+    public static String normaliseToken(String token) {
+        if (token == null) {
+            return null;
+        }
+        int length = token.length();
+        if (length == 1) {
+            return normaliseCharacter(token.charAt(0));
+        }
+        if (isUnchangedByNormalisation(token)) {
+            return token;
+        }
+        if (length > MAX_CACHED_TOKEN_LENGTH) {
+            return UnicodeUtil.normaliseText(token);
+        }
+
+        String normalised = NORMALISED_TOKENS.getIfPresent(token);
+        if (normalised == null) {
+            normalised = UnicodeUtil.normaliseText(token);
+            NORMALISED_TOKENS.put(token, normalised);
+        }
+        return normalised;
+    }
+
+    private static boolean isUnchangedByNormalisation(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= UNCHANGED_ASCII.length || !UNCHANGED_ASCII[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,76 @@
+package org.grobid.core.analyzers;
+
+import org.grobid.core.layout.LayoutToken;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Result of the tokenization of a text, as (start, end) offset pairs into the source text. The token strings
+ * and the layout tokens are created only when requested.
+ */
+public class TokenOffsets {
+
+    private final CharSequence text;
+    private int[] offsets;
+    private int size = 0;
+
+    TokenOffsets(CharSequence text) {
+        this.text = text;
+        // two offsets per token, about one token every three characters
+        this.offsets = new int[2 * Math.max(4, text.length() / 3)];
+    }
+
+    void add(int start, int end) {
+        if (size * 2 + 1 >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[size * 2] = start;
+        offsets[size * 2 + 1] = end;
+        size++;
+    }
+
+    public CharSequence getText() {
+        return text;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getStart(int index) {
+        return offsets[index * 2];
+    }
+
+    public int getEnd(int index) {
+        return offsets[index * 2 + 1];
+    }
+
+    public String getToken(int index) {
+        return text.subSequence(getStart(index), getEnd(index)).toString();
+    }
+
+    public List<String> getTokens() {
+        List<String> tokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tokens.add(getToken(i));
+        }
+        return tokens;
+    }
+
+    public LayoutToken getLayoutToken(int index) {
+        LayoutToken layoutToken = new LayoutToken();
+        layoutToken.setText(getToken(index));
+        layoutToken.setOffset(getStart(index));
+        return layoutToken;
+    }
+
+    public List<LayoutToken> getLayoutTokens() {
+        List<LayoutToken> layoutTokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            layoutTokens.add(getLayoutToken(i));
+        }
+        return layoutTokens;
+    }
+}
@@ -1,6 +1,8 @@
 package org.grobid.core.data;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import org.grobid.core.engines.metrics.RequestProfile;
+import org.grobid.core.engines.metrics.StageMetrics;
 import org.grobid.core.layout.Page;
 
 import java.util.ArrayList;
@@ -28,6 +30,16 @@ public class MeasurementsResponse {
         this.pages = pages;
     }
 
+    /**
+     * Copy of the response, with its own lists, runtime and profile. The measurements are shared.
+     */
+    public MeasurementsResponse(MeasurementsResponse other) {
+        this.runtime = other.runtime;
+        this.measurements = other.measurements == null ? null : new ArrayList<>(other.measurements);
+        this.pages = other.pages == null ? null : new ArrayList<>(other.pages);
+        this.profile = other.profile;
+    }
+
     public MeasurementsResponse extendEntities(MeasurementsResponse other) {
         this.measurements.addAll(other.getMeasurements());
 
@@ -36,6 +48,8 @@ public class MeasurementsResponse {
 
     private List<Page> pages;
 
+    private RequestProfile profile;
+
     public List<Measurement> getMeasurements() {
         return measurements;
     }
@@ -60,7 +74,24 @@ public class MeasurementsResponse {
         this.pages = pages;
     }
 
+    public RequestProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * @param profile the profile of the processing added to the JSON response, null for none
+     */
+    public void setProfile(RequestProfile profile) {
+        this.profile = profile;
+    }
+
     public String toJson() {
+        try (StageMetrics.Timing ignored = StageMetrics.getInstance().time(StageMetrics.Stage.JSON_SERIALISATION)) {
+            return buildJson();
+        }
+    }
+
+    private String buildJson() {
         StringBuilder jsonBuilder = new StringBuilder();
 
         jsonBuilder.append("{ ");
@@ -94,6 +125,10 @@ public class MeasurementsResponse {
             jsonBuilder.append("]");
         }
 
+        if (profile != null) {
+            jsonBuilder.append(", \"profile\": ").append(profile.toJson());
+        }
+
         jsonBuilder.append("}");
 
         return jsonBuilder.toString();
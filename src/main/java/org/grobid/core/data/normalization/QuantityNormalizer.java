@@ -30,25 +30,49 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 public class QuantityNormalizer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(QuantityNormalizer.class);
-    private final String UOM_DEFAULT_PROVIDER = "tec.uom.se.spi.DefaultServiceProvider";
-    private final String UCUM_PROVIDER = "systems.uom.ucum.internal.UCUMServiceProvider";
-    private final String UNICODE_PROVIDER = "systems.uom.unicode.internal.UnicodeServiceProvider";
-    private final String SI_PROVIDER = "si.uom.impl.SIServiceProvider";
-    private final String COMMON_PROVIDER = "systems.uom.common.internal.CommonServiceProvider";
-    private final String INDYRIA_PROVIDER = "tech.units.indriya.internal.DefaultServiceProvider";
-    private final String SESHAT_PROVIDER = "tech.uom.seshat.UnitServices";
+    private static final String UOM_DEFAULT_PROVIDER = "tec.uom.se.spi.DefaultServiceProvider";
+    private static final String UCUM_PROVIDER = "systems.uom.ucum.internal.UCUMServiceProvider";
+    private static final String UNICODE_PROVIDER = "systems.uom.unicode.internal.UnicodeServiceProvider";
+    private static final String SI_PROVIDER = "si.uom.impl.SIServiceProvider";
+    private static final String COMMON_PROVIDER = "systems.uom.common.internal.CommonServiceProvider";
+    private static final String INDYRIA_PROVIDER = "tech.units.indriya.internal.DefaultServiceProvider";
+    private static final String SESHAT_PROVIDER = "tech.uom.seshat.UnitServices";
 
-    Map<String, UnitFormat> unitFormats = new HashMap<>();
+    // the unit formats of the uom providers, shared by the normalizers as the provider scan is slow
+    private static volatile Map<String, UnitFormat> availableUnitFormats;
+
+    Map<String, UnitFormat> unitFormats;
 
     private MeasurementOperations measurementOperations;
     private UnitNormalizer unitNormalizer;
 
     public QuantityNormalizer() {
+        unitFormats = loadUnitFormats();
+
+        unitNormalizer = new UnitNormalizer();
+        measurementOperations = new MeasurementOperations(unitNormalizer);
+    }
+
+    /**
+     * Scan the uom service providers for their unit formats, the scan is made once
+     */
+    public static Map<String, UnitFormat> loadUnitFormats() {
+        if (availableUnitFormats == null) {
+            scanUnitFormats();
+        }
+        return availableUnitFormats;
+    }
+
+    private static synchronized void scanUnitFormats() {
+        if (availableUnitFormats != null) {
+            return;
+        }
+        Map<String, UnitFormat> formats = new HashMap<>();
         for (ServiceProvider provider : ServiceProvider.available()) {
             UnitFormatService formatService = provider.getUnitFormatService();
 
             final String providerName = provider.getClass().getName();
-            unitFormats.put(providerName, formatService.getUnitFormat());
+            formats.put(providerName, formatService.getUnitFormat());
 
             if (providerName.equals(COMMON_PROVIDER)) {
                 SimpleUnitFormat.getInstance().alias(USCustomary.MILE, "mile");
@@ -56,9 +80,7 @@ public class QuantityNormalizer {
                 SimpleUnitFormat.getInstance().alias(USCustomary.MILE, "miles");
             }
         }
-
-        unitNormalizer = new UnitNormalizer();
-        measurementOperations = new MeasurementOperations(unitNormalizer);
+        availableUnitFormats = Collections.unmodifiableMap(formats);
     }
 
     public Quantity.Normalized normalizeQuantity(Quantity quantity) throws NormalizationException {
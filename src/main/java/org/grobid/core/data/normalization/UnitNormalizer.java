@@ -19,16 +19,20 @@ import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 public class UnitNormalizer {
 
     private UnitParser unitParser;
+    // null for the current lexicon, which can be reloaded
     private QuantityLexicon quantityLexicon;
 
     public UnitNormalizer() {
         unitParser = UnitParser.getInstance();
-        quantityLexicon = QuantityLexicon.getInstance();
+    }
+
+    private QuantityLexicon lexicon() {
+        return quantityLexicon != null ? quantityLexicon : QuantityLexicon.getInstance();
     }
 
 
     public List<UnitBlock> parseToProduct(String rawUnit, boolean isUnitLeft) {
-        String unitName = quantityLexicon.getNameByInflection(rawUnit);
+        String unitName = lexicon().getNameByInflection(rawUnit);
 
         List<UnitBlock> unitBlockList = new ArrayList<>();
         if (unitName == null) {
@@ -58,9 +62,10 @@ public class UnitNormalizer {
         parsedUnit.setRawName(reformatted);
         parsedUnit.setUnitRightAttachment(rawUnit.hasUnitRightAttachment());
 
-        UnitDefinition def = quantityLexicon.getUnitByNotation(reformatted);
+        QuantityLexicon lexicon = lexicon();
+        UnitDefinition def = lexicon.getUnitByNotation(reformatted);
         if (def == null) {
-            def = quantityLexicon.getUnitbyName(reformatted);
+            def = lexicon.getUnitbyName(reformatted);
         }
         parsedUnit.setUnitDefinition(def);
         return parsedUnit;
@@ -71,10 +76,11 @@ public class UnitNormalizer {
      */
     public List<UnitBlock> decomposeBlocks(List<UnitBlock> blocks) {
         // Try to lookup the single element in the blocks
+        QuantityLexicon lexicon = lexicon();
 
         return blocks.stream().map(b -> {
             if (isNotEmpty(b.getBase()) && isEmpty(b.getPrefix())) {
-                String newName = quantityLexicon.getNameByInflection(b.getBase());
+                String newName = lexicon.getNameByInflection(b.getBase());
 
                 if (isNotEmpty(newName)) {
                     return new UnitBlock(b.getPrefix(), newName, b.getPow());
@@ -86,7 +92,7 @@ public class UnitNormalizer {
     }
 
     public UnitDefinition findDefinition(Unit unit) {
-        return quantityLexicon.lookup(unit);
+        return lexicon().lookup(unit);
     }
 
     public Unit findDefinitionAndUpdate(Unit unit) {
@@ -3,10 +3,7 @@ package org.grobid.core.engines;
 import org.grobid.core.GrobidModels;
 import org.grobid.core.data.*;
 import org.grobid.core.features.FeatureFactory;
-import org.grobid.core.layout.LayoutToken;
-import org.grobid.core.utilities.LayoutTokensUtil;
 import org.grobid.core.utilities.OffsetPosition;
-import org.grobid.core.utilities.TextParser;
 import org.grobid.core.utilities.UnitUtilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,13 +25,11 @@ public class DefaultQuantifiedObjectParser extends QuantifiedObjectParser {
     }
 
     @Override
-    public List<Measurement> process(List<LayoutToken> tokens, List<Measurement> measurements) {
+    public List<Measurement> process(PreparedDocument document, List<Measurement> measurements) {
         if (isEmpty(measurements))
             return null;
         try {
-            String text = LayoutTokensUtil.toText(tokens);
-            TextParser textParser = TextParser.getInstance();
-            List<Sentence> parsedSentences = textParser.parseText(text);
+            List<Sentence> parsedSentences = document.getSentences();
             int indexMeasurement = 0;
             int offset = 0;
 
@@ -0,0 +1,161 @@
+package org.grobid.core.engines;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Initialisation in parallel of the components (lexicons, models, parsers), with the load time of each component.
+ * <p>
+ * The components are started in the order they are added: a component depending on another one (e.g. a parser
+ * using the lexicon) should be added after it, it then waits for its singleton to be loaded.
+ */
+public class ParallelInitialiser {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelInitialiser.class);
+
+    private final Map<String, Callable<?>> components = new LinkedHashMap<>();
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> loadTimes = new ConcurrentHashMap<>();
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+    private final AtomicInteger nbRunning = new AtomicInteger();
+
+    private volatile CountDownLatch remaining;
+    private volatile long startTime;
+    private volatile long totalTime = -1;
+
+    public ParallelInitialiser add(String name, Callable<?> component) {
+        if (remaining != null) {
+            throw new IllegalStateException("The initialisation is already started.");
+        }
+        components.put(name, component);
+        return this;
+    }
+
+    /**
+     * Start the initialisation of the components in the background
+     *
+     * @param nbThreads maximum number of components loaded at the same time
+     */
+    public synchronized void start(int nbThreads) {
+        if (remaining != null) {
+            return;
+        }
+        pending.addAll(components.keySet());
+        startTime = System.nanoTime();
+        nbRunning.set(components.size());
+        remaining = new CountDownLatch(components.size());
+        if (components.isEmpty()) {
+            totalTime = 0;
+            return;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(nbThreads, components.size())),
+            r -> {
+                Thread thread = new Thread(r, "initialiser-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        components.forEach((name, component) -> executor.execute(() -> load(name, component)));
+        executor.shutdown();
+    }
+
+    private void load(String name, Callable<?> component) {
+        long start = System.nanoTime();
+        try {
+            component.call();
+            long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            loadTimes.put(name, time);
+            LOGGER.info("Initialised " + name + " in " + time + " ms");
+        } catch (Throwable e) {
+            failures.put(name, String.valueOf(e.getMessage()));
+            LOGGER.error("Cannot initialise " + name, e);
+        } finally {
+            pending.remove(name);
+            if (nbRunning.decrementAndGet() == 0) {
+                totalTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+                LOGGER.info("Initialised " + loadTimes.size() + "/" + components.size() + " components in "
+                    + totalTime + " ms");
+            }
+            remaining.countDown();
+        }
+    }
+
+    /**
+     * @return true when all the components are initialised without failure
+     */
+    public boolean isReady() {
+        return isDone() && failures.isEmpty();
+    }
+
+    /**
+     * @return true when the initialisation of all the components is finished, successfully or not
+     */
+    public boolean isDone() {
+        return remaining != null && remaining.getCount() == 0;
+    }
+
+    /**
+     * Wait for the end of the initialisation
+     *
+     * @return false if the initialisation is not finished after the timeout
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        if (remaining == null) {
+            throw new IllegalStateException("The initialisation is not started.");
+        }
+        return remaining.await(timeout, unit);
+    }
+
+    /**
+     * @return the components not initialised yet, in the order they were added
+     */
+    public Set<String> getPending() {
+        Set<String> result = new LinkedHashSet<>(components.keySet());
+        if (remaining != null) {
+            result.retainAll(pending);
+        }
+        return result;
+    }
+
+    /**
+     * @return the load time in ms of the initialised components, in the order they were added
+     */
+    public Map<String, Long> getLoadTimes() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (String name : components.keySet()) {
+            Long time = loadTimes.get(name);
+            if (time != null) {
+                result.put(name, time);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the error message of the components which failed to initialise
+     */
+    public Map<String, String> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return the time in ms to initialise all the components, -1 while the initialisation is not finished
+     */
+    public long getTotalTime() {
+        return totalTime;
+    }
+}
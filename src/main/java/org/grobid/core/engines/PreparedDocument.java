@@ -0,0 +1,128 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.analyzers.QuantityAnalyzer;
+import org.grobid.core.data.Sentence;
+import org.grobid.core.engines.metrics.StageMetrics;
+import org.grobid.core.engines.metrics.StageMetrics.Stage;
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.core.utilities.OffsetPosition;
+import org.grobid.core.utilities.TextParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Segment of text prepared once for all the stages of the measurement extraction: the tokens
+ * retokenized with the quantity analyzer and normalised, their text, the positions of the unit
+ * names matched in the lexicon, the lexicon itself and, computed on demand, the parsed sentences.
+ * <p>
+ * The tokens are copies of the ones provided by the caller, which are never modified. The stages
+ * receiving a prepared document must not modify its tokens either.
+ */
+public final class PreparedDocument {
+
+    private final List<LayoutToken> tokens;
+    private final String text;
+    private final List<OffsetPosition> unitPositions;
+    private final QuantityLexicon lexicon;
+
+    private volatile List<Sentence> sentences;
+
+    PreparedDocument(List<LayoutToken> tokens, String text, List<OffsetPosition> unitPositions,
+                     QuantityLexicon lexicon) {
+        this.tokens = Collections.unmodifiableList(tokens);
+        this.lexicon = lexicon;
+        this.text = text;
+        this.unitPositions = unitPositions == null
+            ? Collections.emptyList() : Collections.unmodifiableList(unitPositions);
+    }
+
+    public static PreparedDocument prepare(List<LayoutToken> layoutTokens) {
+        return prepare(layoutTokens, QuantityLexicon.getInstance());
+    }
+
+    public static PreparedDocument prepare(List<LayoutToken> layoutTokens, QuantityLexicon quantityLexicon) {
+        StageMetrics metrics = StageMetrics.getInstance();
+        List<LayoutToken> tokens;
+        StringBuilder text = new StringBuilder();
+        try (StageMetrics.Timing ignored = metrics.time(Stage.TOKENISATION)) {
+            // the retokenization creates new tokens, so that the normalisation can be applied in place
+            tokens = QuantityAnalyzer.getInstance().retokenizeLayoutTokens(layoutTokens);
+            for (LayoutToken token : tokens) {
+                token.setText(QuantityAnalyzer.normaliseToken(token.getText()));
+                text.append(token.getText());
+            }
+        }
+        metrics.count(StageMetrics.Count.TOKENS, tokens.size());
+
+        List<OffsetPosition> unitPositions = new ArrayList<>();
+        if (!tokens.isEmpty()) {
+            unitPositions = metrics.time(Stage.UNIT_MATCHING, () -> quantityLexicon.inUnitNames(tokens));
+        }
+
+        return new PreparedDocument(tokens, text.toString(), unitPositions, quantityLexicon);
+    }
+
+    /**
+     * The retokenized and normalised tokens, with the offsets of the original tokens
+     */
+    public List<LayoutToken> getTokens() {
+        return tokens;
+    }
+
+    /**
+     * The lexicon the unit names have been matched with, to be used by all the stages processing the document
+     */
+    public QuantityLexicon getLexicon() {
+        return lexicon;
+    }
+
+    /**
+     * The concatenation of the normalised tokens
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Positions, in number of tokens, of the unit names matched in the lexicon
+     */
+    public List<OffsetPosition> getUnitPositions() {
+        return unitPositions;
+    }
+
+    public boolean isEmpty() {
+        return tokens.isEmpty();
+    }
+
+    /**
+     * The sentences of the text parsed with ClearNLP, the parsing is done at the first call only.
+     */
+    public List<Sentence> getSentences() {
+        List<Sentence> result = sentences;
+        if (result == null) {
+            synchronized (this) {
+                result = sentences;
+                if (result == null) {
+                    try {
+                        try (StageMetrics.Timing ignored = StageMetrics.getInstance().time(Stage.SENTENCE_PARSING)) {
+                            result = TextParser.getInstance().parseText(text);
+                        }
+                    } catch (GrobidException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new GrobidException("Cannot parse the sentences of the text.", e);
+                    }
+                    if (result == null) {
+                        result = Collections.emptyList();
+                    }
+                    sentences = result;
+                }
+            }
+        }
+        return result;
+    }
+}
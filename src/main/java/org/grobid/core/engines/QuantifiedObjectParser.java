@@ -5,16 +5,17 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.grobid.core.GrobidModel;
-import org.grobid.core.analyzers.QuantityAnalyzer;
 import org.grobid.core.data.Measurement;
 import org.grobid.core.data.QuantifiedObject;
+import org.grobid.core.engines.label.LabeledTokenSequence;
 import org.grobid.core.engines.label.TaggingLabel;
+import org.grobid.core.engines.metrics.StageMetrics;
+import org.grobid.core.engines.metrics.StageMetrics.Stage;
+import org.grobid.core.engines.tagging.LabelingBatchers;
 import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.features.FeaturesVectorQuantifiedObjects;
 import org.grobid.core.layout.BoundingBox;
 import org.grobid.core.layout.LayoutToken;
-import org.grobid.core.tokenization.TaggingTokenCluster;
-import org.grobid.core.tokenization.TaggingTokenClusteror;
 import org.grobid.core.utilities.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,7 +24,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.stream.Collectors;
 
 import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 import static org.apache.commons.lang3.StringUtils.length;
@@ -46,45 +46,52 @@ public class QuantifiedObjectParser extends AbstractParser {
     }
 
     private static synchronized void getNewInstance() {
-        instance = new DefaultQuantifiedObjectParser();
+        if (instance == null) {
+            instance = new DefaultQuantifiedObjectParser();
+        }
     }
 
+    private final GrobidModel model;
+
     protected QuantifiedObjectParser() {
-        super(QuantitiesModels.QUANTIFIED_OBJECT);
+        this(QuantitiesModels.QUANTIFIED_OBJECT);
     }
 
     /** Workaround to maintain the compatibility for the time being **/
     protected QuantifiedObjectParser(GrobidModel model) {
         super(model);
+        this.model = model;
+    }
+
+    @Override
+    public String label(String data) {
+        return LabelingBatchers.getInstance().label(model, data, super::label);
     }
 
     public List<Measurement> process(List<LayoutToken> layoutTokens, List<Measurement> measurements) {
+        return process(PreparedDocument.prepare(layoutTokens), measurements);
+    }
+
+    /**
+     * Identify and attach the quantified objects of the measurements extracted from a prepared document.
+     */
+    public List<Measurement> process(PreparedDocument document, List<Measurement> measurements) {
 
         List<Measurement> newMeasurements = new ArrayList<>();
         Collections.copy(measurements, newMeasurements);
 
-        // List<LayoutToken> for the selected segment
-        List<LayoutToken> retokenizeLayoutTokens = QuantityAnalyzer.getInstance().retokenizeLayoutTokens(layoutTokens);
-
-        //Normalisation
-        List<LayoutToken> layoutTokenNormalised = retokenizeLayoutTokens
-                .stream()
-                .map(layoutToken -> {
-                            layoutToken.setText(UnicodeUtil.normaliseText(layoutToken.getText()));
-
-                            return layoutToken;
-                        }
-                ).collect(Collectors.toList());
-
-        if (isEmpty(layoutTokenNormalised))
+        if (document.isEmpty())
             return measurements;
 
+        List<LayoutToken> layoutTokenNormalised = document.getTokens();
+
         try {
             List<OffsetPosition> offsetList = QuantityOperations.getOffset(measurements);
 
             List<Boolean> measurementFlags = synchroniseLayoutTokensWithOffsets(layoutTokenNormalised, offsetList);
 
-            String ress = addFeatures(layoutTokenNormalised, measurementFlags);
+            String ress = StageMetrics.getInstance().time(Stage.FEATURES,
+                    () -> addFeatures(layoutTokenNormalised, measurementFlags));
 
             if (StringUtils.isEmpty(ress))
                 return newMeasurements;
@@ -154,10 +161,9 @@ public class QuantifiedObjectParser extends AbstractParser {
     protected List<QuantifiedObject> extractOutput(String result, List<LayoutToken> tokens) {
         List<QuantifiedObject> quantifiedObjects = new ArrayList<>();
 
-        TaggingTokenClusteror clusteror = new TaggingTokenClusteror(QuantitiesModels.QUANTIFIED_OBJECT, result, tokens);
-        List<TaggingTokenCluster> clusters = clusteror.cluster();
+        List<LabeledTokenSequence.Cluster> clusters = LabeledTokenSequence.parse(QuantitiesModels.QUANTIFIED_OBJECT, result, tokens).cluster();
 
-        for (TaggingTokenCluster cluster : clusters) {
+        for (LabeledTokenSequence.Cluster cluster : clusters) {
             if (cluster == null) {
                 continue;
             }
@@ -168,7 +174,8 @@ public class QuantifiedObjectParser extends AbstractParser {
             List<BoundingBox> boundingBoxes = null;
 
             if (!clusterLabel.equals(QUANTIFIED_OBJECT_OTHER))
-                boundingBoxes = BoundingBoxCalculator.calculate(theTokens);
+                boundingBoxes = StageMetrics.getInstance().time(Stage.BOUNDING_BOXES,
+                        () -> BoundingBoxCalculator.calculate(theTokens));
 
             int offsetStart = theTokens.get(0).getOffset();
             int offsetEnd = offsetStart + clusterContent.length();
@@ -1,45 +1,77 @@
 package org.grobid.core.engines;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.codahale.metrics.MetricRegistry;
+import com.ctc.wstx.stax.WstxInputFactory;
 import com.google.common.collect.Iterables;
+import com.google.common.hash.Hashing;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.NotImplementedException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.codehaus.stax2.XMLStreamReader2;
 import org.grobid.core.GrobidModels;
 import org.grobid.core.analyzers.GrobidAnalyzer;
 import org.grobid.core.data.*;
 import org.grobid.core.document.Document;
 import org.grobid.core.document.DocumentPiece;
 import org.grobid.core.document.DocumentSource;
+import org.grobid.core.engines.batch.BatchProcessor;
+import org.grobid.core.engines.cache.InFlightRequests;
+import org.grobid.core.engines.cache.PdfResultStore;
 import org.grobid.core.engines.config.GrobidAnalysisConfig;
+import org.grobid.core.engines.crf.JavaCrfModels;
 import org.grobid.core.engines.label.SegmentationLabels;
 import org.grobid.core.engines.label.TaggingLabels;
+import org.grobid.core.engines.metrics.RequestProfile;
+import org.grobid.core.engines.metrics.StageMetrics;
+import org.grobid.core.engines.tagging.LabelingBatchers;
+import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.layout.LayoutToken;
 import org.grobid.core.layout.LayoutTokenization;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.core.sax.RawXmlReader;
+import org.grobid.core.sax.TeiChunkStaxHandler;
+import org.grobid.core.sax.TextChunkStaxHandler;
 import org.grobid.core.tokenization.LabeledTokensContainer;
 import org.grobid.core.tokenization.TaggingTokenCluster;
 import org.grobid.core.tokenization.TaggingTokenClusteror;
 import org.grobid.core.utilities.GrobidProperties;
 import org.grobid.core.utilities.IOUtilities;
+import org.grobid.core.utilities.QuantityOperations;
 import org.grobid.core.utilities.UnitUtilities;
+import org.grobid.service.configuration.GrobidQuantitiesConfiguration;
+import org.grobid.service.configuration.LabelingBatchConfiguration;
+import org.grobid.service.configuration.PdfResultStoreConfiguration;
 import org.grobid.service.exceptions.GrobidServiceException;
+import org.grobid.trainer.stax.StaxUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.SortedSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -53,21 +85,113 @@ public class QuantitiesEngine {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(QuantitiesEngine.class);
 
-    private QuantityParser quantityParser;
-    private UnitParser unitParser;
+    // options used for the PDF processing, they are part of the PDF result store fingerprint
+    private static final String PDF_PROCESSING_OPTIONS = "consolidateHeader=0;consolidateCitations=0";
+
+    // name of the PDF result store in the request profiles
+    private static final String PDF_RESULT_STORE = "pdfResultStore";
+
+    // keeps the numbers of the stored responses as they are written
+    private static final ObjectMapper STORED_RESPONSE_MAPPER = new ObjectMapper()
+        .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+        .setNodeFactory(JsonNodeFactory.withExactBigDecimals(true));
+
     private EngineParsers parsers;
+    private PdfResultStore pdfResultStore;
+
+    // identical requests processed at the same time share a single computation, each one getting its own response
+    private final InFlightRequests<String, MeasurementsResponse> textRequests =
+            new InFlightRequests<>(MeasurementsResponse::new);
+    private final InFlightRequests<String, MeasurementsResponse> pdfRequests =
+            new InFlightRequests<>(MeasurementsResponse::new);
 
     private static QuantitiesEngine instance;
 
-    @Inject
+    private WstxInputFactory xmlInputFactory = new WstxInputFactory();
+
     public QuantitiesEngine() {
+        this(true);
+    }
+
+    /**
+     * @param loadParsers false when the parsers are loaded separately (in parallel at the service startup), they
+     *                    are then obtained at their first use
+     */
+    private QuantitiesEngine(boolean loadParsers) {
         GrobidProperties.getInstance();
-        this.quantityParser = QuantityParser.getInstance();
-        this.unitParser = UnitParser.getInstance();
+        if (loadParsers) {
+            QuantityParser.getInstance();
+            UnitParser.getInstance();
+        }
         this.parsers = new EngineParsers();
+        // the DTDs (e.g. of the patent documents) are not fetched and external entities are not resolved
+        this.xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
         instance = this;
     }
 
+    @Inject
+    public QuantitiesEngine(GrobidQuantitiesConfiguration configuration, MetricRegistry metricRegistry) {
+        this(false);
+        StageMetrics.getInstance().setMetricRegistry(metricRegistry);
+        PdfResultStoreConfiguration storeConfiguration = configuration.getPdfResultStore();
+        if (storeConfiguration != null && storeConfiguration.isEnabled()) {
+            this.pdfResultStore = createPdfResultStore(storeConfiguration);
+        }
+        if (configuration.getJavaCrfModels() != null) {
+            configuration.getJavaCrfModels().forEach(QuantitiesEngine::enableJavaCrf);
+        }
+        LabelingBatchConfiguration batchConfiguration = configuration.getLabelingBatch();
+        if (batchConfiguration != null && batchConfiguration.isEnabled()) {
+            LabelingBatchers.getInstance().enable(batchConfiguration.getModels(), batchConfiguration.getMaxBatchSize(),
+                    batchConfiguration.getMaxDelayMs(), batchConfiguration.getWorkers(), metricRegistry);
+        }
+
+        metricRegistry.gauge(MetricRegistry.name(QuantitiesEngine.class, "coalescedRequests"),
+                () -> () -> textRequests.getCoalescedCount() + pdfRequests.getCoalescedCount());
+    }
+
+    private static void enableJavaCrf(String modelName) {
+        if (QuantitiesModels.VALUES.getModelName().equals(modelName)) {
+            JavaCrfModels.getInstance().enable(QuantitiesModels.VALUES);
+        } else if (QuantitiesModels.UNITS.getModelName().equals(modelName)) {
+            JavaCrfModels.getInstance().enable(QuantitiesModels.UNITS);
+        } else {
+            LOGGER.warn("The Java CRF decoder is not supported for the model " + modelName + ", it is decoded with Wapiti.");
+        }
+    }
+
+    private static PdfResultStore createPdfResultStore(PdfResultStoreConfiguration storeConfiguration) {
+        PdfResultStore store = new PdfResultStore(Paths.get(storeConfiguration.getDirectory()),
+                pdfResultStoreVersion(QuantityLexicon.fingerprintResources()),
+                storeConfiguration.getMaxEntries(), storeConfiguration.getMaxSizeMb() * 1024 * 1024,
+                storeConfiguration.getMaxAgeHours());
+
+        // the results of the previous lexicon are no longer served after a reload
+        QuantityLexicon.addReloadListener(lexicon -> {
+            if (QuantityLexicon.DEFAULT_LANGUAGE.equals(lexicon.getLanguage())) {
+                store.setVersion(pdfResultStoreVersion(lexicon.getFingerprint()));
+            }
+        });
+        return store;
+    }
+
+    private static String pdfResultStoreVersion(String lexiconFingerprint) {
+        return PdfResultStore.fingerprint(
+                Arrays.asList(QuantitiesModels.QUANTITIES, QuantitiesModels.UNITS, QuantitiesModels.VALUES,
+                        QuantitiesModels.QUANTIFIED_OBJECT, GrobidModels.SEGMENTATION, GrobidModels.HEADER,
+                        GrobidModels.FULLTEXT, GrobidModels.FIGURE, GrobidModels.TABLE),
+                lexiconFingerprint, PDF_PROCESSING_OPTIONS);
+    }
+
+    private static QuantityParser quantityParser() {
+        return QuantityParser.getInstance();
+    }
+
+    private static UnitParser unitParser() {
+        return UnitParser.getInstance();
+    }
+
     public static QuantitiesEngine getInstance() {
         if (instance == null) {
             instance = getNewInstance();
@@ -80,30 +204,180 @@ public class QuantitiesEngine {
     }
 
     public List<UnitBlock> parseUnits(String text) {
-        return unitParser.tagUnit(text);
+        return unitParser().tagUnit(text);
     }
 
     public MeasurementsResponse processPdf(InputStream inputStream) {
+        File originFile = null;
+        try {
+            originFile = writeInputFile(inputStream);
+            return processPdfOnce(originFile, contentHash(originFile), null);
+        } finally {
+            IOUtilities.removeTempFile(originFile);
+        }
+    }
+
+    public StreamingOutput processPdfAsJson(InputStream inputStream) {
+        return processPdfAsJson(inputStream, false);
+    }
+
+    /**
+     * Process a PDF and return the JSON response. When the PDF result store is enabled, it is consulted
+     * before any GROBID parsing: on a hit the stored response is sent back, on a miss the response
+     * is computed and stored.
+     *
+     * @param profile add the profile of the processing to the response, the PDF is then processed even if an
+     *                identical PDF is being processed at the same time
+     */
+    public StreamingOutput processPdfAsJson(InputStream inputStream, boolean profile) {
+        File originFile = null;
+        try {
+            originFile = writeInputFile(inputStream);
+
+            String contentHash = contentHash(originFile);
+            RequestProfile requestProfile = profile ? new RequestProfile() : null;
+            if (pdfResultStore == null) {
+                final byte[] json = processPdfOnce(originFile, contentHash, requestProfile).toJson().getBytes(UTF_8);
+                return output -> output.write(json);
+            }
+
+            String key = pdfResultStore.keyFor(contentHash);
+            Path stored = pdfResultStore.lookup(key);
+            if (requestProfile != null) {
+                requestProfile.addCacheLookup(PDF_RESULT_STORE, stored != null);
+            }
+            if (stored != null && requestProfile != null) {
+                try {
+                    long start = System.currentTimeMillis();
+                    String storedResponse = new String(Files.readAllBytes(stored), UTF_8);
+                    final byte[] json = withProfile(storedResponse, requestProfile, System.currentTimeMillis() - start)
+                        .getBytes(UTF_8);
+                    return output -> output.write(json);
+                } catch (IOException e) {
+                    LOGGER.warn("Cannot read the stored entry " + key + ", processing the PDF again. ", e);
+                }
+            } else if (stored != null) {
+                try {
+                    // the entry is read now, as it can be evicted before the response is written
+                    final byte[] json = Files.readAllBytes(stored);
+                    LOGGER.debug("PDF result store hit: " + key);
+                    return output -> output.write(json);
+                } catch (IOException e) {
+                    LOGGER.warn("Cannot read the stored entry " + key + ", processing the PDF again. ", e);
+                }
+            }
+
+            final byte[] json = processPdfOnce(originFile, contentHash, requestProfile).toJson().getBytes(UTF_8);
+            return output -> output.write(json);
+        } finally {
+            IOUtilities.removeTempFile(originFile);
+        }
+    }
+
+    /**
+     * Add the profile to a stored JSON response, whose runtime is replaced by the time spent serving it
+     */
+    static String withProfile(String json, RequestProfile profile, long runtime) throws IOException {
+        JsonNode response = STORED_RESPONSE_MAPPER.readTree(json);
+        if (!(response instanceof ObjectNode)) {
+            throw new IOException("The stored response is not a JSON object.");
+        }
+        ((ObjectNode) response).put("runtime", runtime);
+        ((ObjectNode) response).set("profile", STORED_RESPONSE_MAPPER.readTree(profile.toJson()));
+        return STORED_RESPONSE_MAPPER.writeValueAsString(response);
+    }
+
+    /**
+     * Fill the PDF result store by processing all the PDF files of a directory which are not yet stored.
+     */
+    public void warmPdfResultStore(String inputDirectory, boolean isRecursive) {
+        if (pdfResultStore == null) {
+            throw new GrobidException("The PDF result store is not configured.");
+        }
+
+        List<Path> pdfFiles = BatchProcessor.listFiles(Paths.get(inputDirectory), isRecursive, ".pdf");
+
+        LOGGER.info(pdfFiles.size() + " files");
+
+        int processed = 0;
+        for (Path pdfFile : pdfFiles) {
+            String key = pdfResultStore.keyFor(pdfFile.toFile());
+            if (pdfResultStore.contains(key)) {
+                continue;
+            }
+            try {
+                pdfResultStore.put(key, processPdf(pdfFile.toFile()).toJson());
+                processed++;
+            } catch (Exception e) {
+                LOGGER.warn("Cannot process " + pdfFile + ", skipping it. ", e);
+            }
+        }
+
+        LOGGER.info(processed + " files processed and stored, " + pdfResultStore.size() + " entries in the store.");
+    }
+
+    /**
+     * Process the PDF, sharing the computation with the identical PDFs being processed at the same time,
+     * unless it is profiled. The result is added to the PDF result store, when enabled.
+     */
+    private MeasurementsResponse processPdfOnce(File originFile, String contentHash, RequestProfile profile) {
+        if (profile != null) {
+            MeasurementsResponse response = profile.record(() -> processAndStorePdf(originFile, contentHash));
+            response.setProfile(profile);
+            return response;
+        }
+        return pdfRequests.execute(contentHash, () -> processAndStorePdf(originFile, contentHash));
+    }
+
+    private MeasurementsResponse processAndStorePdf(File originFile, String contentHash) {
+        MeasurementsResponse response = processPdf(originFile);
+        if (pdfResultStore != null) {
+            pdfResultStore.put(pdfResultStore.keyFor(contentHash), response.toJson());
+        }
+        return response;
+    }
+
+    private static String contentHash(File file) {
+        try {
+            return com.google.common.io.Files.asByteSource(file).hash(Hashing.sha256()).toString();
+        } catch (IOException e) {
+            throw new GrobidServiceException("Cannot read the input file. ", e, Response.Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private File writeInputFile(InputStream inputStream) {
+        File originFile = IOUtilities.writeInputFile(inputStream);
+        if (originFile == null) {
+            throw new GrobidServiceException("Input file is empty or null", Response.Status.BAD_REQUEST);
+        }
+        return originFile;
+    }
+
+    /**
+     * Process a PDF file without the PDF result store and without sharing the computation with the identical
+     * PDFs being processed at the same time, e.g. to measure the processing itself
+     */
+    public MeasurementsResponse processPdf(File originFile) {
         long start = System.currentTimeMillis();
 
         List<Measurement> measurements = new ArrayList<>();
         Document doc;
-        File originFile = null;
         try {
-            originFile = IOUtilities.writeInputFile(inputStream);
-            if (originFile == null) {
-                throw new GrobidServiceException("Input file is empty or null", Response.Status.BAD_REQUEST);
-            }
             GrobidAnalysisConfig config =
                     new GrobidAnalysisConfig.GrobidAnalysisConfigBuilder()
                             .analyzer(GrobidAnalyzer.getInstance())
                             .consolidateHeader(0)
                             .consolidateCitations(0)
                             .build();
-            DocumentSource documentSource =
-                    DocumentSource.fromPdf(originFile);
+            StageMetrics stageMetrics = StageMetrics.getInstance();
+            DocumentSource documentSource;
+            try (StageMetrics.Timing ignored = stageMetrics.time(StageMetrics.Stage.PDF_PARSING)) {
+                documentSource = DocumentSource.fromPdf(originFile);
+            }
 
-            doc = parsers.getSegmentationParser().processing(documentSource, config);
+            try (StageMetrics.Timing ignored = stageMetrics.time(StageMetrics.Stage.SEGMENTATION)) {
+                doc = parsers.getSegmentationParser().processing(documentSource, config);
+            }
 
             // In the following, we process the relevant textual content of the document
 
@@ -114,33 +388,37 @@ public class QuantitiesEngine {
             // from the header, we are interested in title, abstract and keywords
             SortedSet<DocumentPiece> documentParts = doc.getDocumentPart(SegmentationLabels.HEADER);
             if (documentParts != null) {
-                Pair<String, List<LayoutToken>> headerStruct = parsers.getHeaderParser().getSectionHeaderFeatured(doc, documentParts);
-                List<LayoutToken> tokenizationHeader = headerStruct.getRight();//doc.getTokenizationParts(documentParts, doc.getTokenizations());
-                String header = headerStruct.getLeft();
-                String labeledResult = null;
-                if ((header != null) && (header.trim().length() > 0)) {
-                    labeledResult = parsers.getHeaderParser().label(header);
-
-                    BiblioItem resHeader = new BiblioItem();
-                    //parsers.getHeaderParser().processingHeaderSection(false, doc, resHeader);
-                    resHeader.generalResultMapping(doc, labeledResult, tokenizationHeader);
+                BiblioItem resHeader = null;
+                try (StageMetrics.Timing ignored = stageMetrics.time(StageMetrics.Stage.HEADER)) {
+                    Pair<String, List<LayoutToken>> headerStruct = parsers.getHeaderParser().getSectionHeaderFeatured(doc, documentParts);
+                    List<LayoutToken> tokenizationHeader = headerStruct.getRight();//doc.getTokenizationParts(documentParts, doc.getTokenizations());
+                    String header = headerStruct.getLeft();
+                    if ((header != null) && (header.trim().length() > 0)) {
+                        String labeledResult = parsers.getHeaderParser().label(header);
+
+                        resHeader = new BiblioItem();
+                        //parsers.getHeaderParser().processingHeaderSection(false, doc, resHeader);
+                        resHeader.generalResultMapping(doc, labeledResult, tokenizationHeader);
+                    }
+                }
 
+                if (resHeader != null) {
                     // title
                     List<LayoutToken> titleTokens = resHeader.getLayoutTokens(TaggingLabels.HEADER_TITLE);
                     if (titleTokens != null) {
-                        measurements.addAll(quantityParser.process(titleTokens));
+                        measurements.addAll(quantityParser().process(titleTokens));
                     }
 
                     // abstract
                     List<LayoutToken> abstractTokens = resHeader.getLayoutTokens(TaggingLabels.HEADER_ABSTRACT);
                     if (abstractTokens != null) {
-                        measurements.addAll(quantityParser.process(abstractTokens));
+                        measurements.addAll(quantityParser().process(abstractTokens));
                     }
 
                     // keywords
                     List<LayoutToken> keywordTokens = resHeader.getLayoutTokens(TaggingLabels.HEADER_KEYWORD);
                     if (keywordTokens != null) {
-                        measurements.addAll(quantityParser.process(keywordTokens));
+                        measurements.addAll(quantityParser().process(keywordTokens));
                     }
                 }
             }
@@ -149,20 +427,24 @@ public class QuantitiesEngine {
             // object of more refined processing
             documentParts = doc.getDocumentPart(SegmentationLabels.BODY);
             if (documentParts != null) {
-                Pair<String, LayoutTokenization> featSeg = parsers.getFullTextParser().getBodyTextFeatured(doc, documentParts);
-
-                String fulltextTaggedRawResult = null;
-                if (featSeg != null) {
-                    String featureText = featSeg.getLeft();
-                    LayoutTokenization layoutTokenization = featSeg.getRight();
+                TaggingTokenClusteror clusteror = null;
+                try (StageMetrics.Timing ignored = stageMetrics.time(StageMetrics.Stage.FULLTEXT)) {
+                    Pair<String, LayoutTokenization> featSeg = parsers.getFullTextParser().getBodyTextFeatured(doc, documentParts);
+                    if (featSeg != null) {
+                        String featureText = featSeg.getLeft();
+                        LayoutTokenization layoutTokenization = featSeg.getRight();
+
+                        String fulltextTaggedRawResult = null;
+                        if (StringUtils.isNotEmpty(featureText)) {
+                            fulltextTaggedRawResult = parsers.getFullTextParser().label(featureText);
+                        }
 
-                    if (StringUtils.isNotEmpty(featureText)) {
-                        fulltextTaggedRawResult = parsers.getFullTextParser().label(featureText);
+                        clusteror = new TaggingTokenClusteror(GrobidModels.FULLTEXT, fulltextTaggedRawResult,
+                                layoutTokenization.getTokenization(), true);
                     }
+                }
 
-                    TaggingTokenClusteror clusteror = new TaggingTokenClusteror(GrobidModels.FULLTEXT, fulltextTaggedRawResult,
-                            layoutTokenization.getTokenization(), true);
-
+                if (clusteror != null) {
                     //Iterate and exclude figures and tables
                     for (TaggingTokenCluster cluster : Iterables.filter(clusteror.cluster(),
                             new TaggingTokenClusteror
@@ -171,13 +453,14 @@ public class QuantitiesEngine {
 
                         if (cluster.getTaggingLabel().equals(TaggingLabels.FIGURE)) {
                             //apply the figure model to only get the caption
-                            final Figure processedFigure = parsers.getFigureParser()
-                                    .processing(cluster.concatTokens(), cluster.getFeatureBlock());
-                            measurements.addAll(quantityParser.process(processedFigure.getCaptionLayoutTokens()));
+                            final Figure processedFigure = stageMetrics.time(StageMetrics.Stage.FIGURE,
+                                    () -> parsers.getFigureParser().processing(cluster.concatTokens(), cluster.getFeatureBlock()));
+                            measurements.addAll(quantityParser().process(processedFigure.getCaptionLayoutTokens()));
                         } else if (cluster.getTaggingLabel().equals(TaggingLabels.TABLE)) {
                             //apply the table model to only get the caption/description
-                            final Table processedTable = parsers.getTableParser().processing(cluster.concatTokens(), cluster.getFeatureBlock());
-                            measurements.addAll(quantityParser.process(processedTable.getFullDescriptionTokens()));
+                            final Table processedTable = stageMetrics.time(StageMetrics.Stage.TABLE,
+                                    () -> parsers.getTableParser().processing(cluster.concatTokens(), cluster.getFeatureBlock()));
+                            measurements.addAll(quantityParser().process(processedTable.getFullDescriptionTokens()));
                         } else {
                             final List<LabeledTokensContainer> labeledTokensContainers = cluster.getLabeledTokensContainers();
 
@@ -187,7 +470,7 @@ public class QuantitiesEngine {
                                     .flatMap(List::stream)
                                     .collect(Collectors.toList());
 
-                            measurements.addAll(quantityParser.process(tokens));
+                            measurements.addAll(quantityParser().process(tokens));
                         }
 
                     }
@@ -204,8 +487,6 @@ public class QuantitiesEngine {
             }
         } catch (NoSuchElementException nseExp) {
             throw new GrobidServiceException("Could not get an instance of parser. ", Response.Status.SERVICE_UNAVAILABLE);
-        } finally {
-            IOUtilities.removeTempFile(originFile);
         }
 
         // for next line, comparable measurement needs to be implemented
@@ -226,7 +507,7 @@ public class QuantitiesEngine {
         // List<LayoutToken> for the selected segment
         List<LayoutToken> layoutTokens
                 = doc.getTokenizationParts(documentParts, doc.getTokenizations());
-        return quantityParser.process(layoutTokens);
+        return quantityParser().process(layoutTokens);
     }
 
     public List<Measurement> parseMeasurement(String json) {
@@ -305,13 +586,22 @@ public class QuantitiesEngine {
 
 
     public MeasurementsResponse processJson(String json) {
+        return processJson(json, false);
+    }
+
+    /**
+     * @param profile add the profile of the processing to the response
+     */
+    public MeasurementsResponse processJson(String json, boolean profile) {
         try {
+            RequestProfile requestProfile = profile ? new RequestProfile() : null;
             long start = System.currentTimeMillis();
-            List<Measurement> measurements = parseMeasurement(json);
-            measurements = quantityParser.normalizeMeasurements(measurements);
+            Supplier<List<Measurement>> parsing = () -> quantityParser().normalizeMeasurements(parseMeasurement(json));
+            List<Measurement> measurements = requestProfile == null ? parsing.get() : requestProfile.record(parsing);
             long end = System.currentTimeMillis();
             MeasurementsResponse response = new MeasurementsResponse(measurements);
             response.setRuntime(end - start);
+            response.setProfile(requestProfile);
 
             return response;
 
@@ -323,40 +613,222 @@ public class QuantitiesEngine {
     }
 
     public MeasurementsResponse processText(String text) {
+        return processText(text, QuantityLexicon.DEFAULT_LANGUAGE);
+    }
+
+    /**
+     * Process the text with the lexicon of the language (unit names and inflections), the models being the
+     * English ones
+     */
+    public MeasurementsResponse processText(String text, String language) {
+        return processText(text, language, false);
+    }
+
+    /**
+     * @param profile add the profile of the processing to the response, the text is then processed even if an
+     *                identical text is being processed at the same time
+     */
+    public MeasurementsResponse processText(String text, String language, boolean profile) {
+        if (!QuantityLexicon.isSupportedLanguage(language)) {
+            throw new GrobidServiceException("Unsupported language: " + language, Response.Status.BAD_REQUEST);
+        }
         try {
+            if (profile) {
+                RequestProfile requestProfile = new RequestProfile();
+                MeasurementsResponse response = requestProfile.record(() -> processTextOnce(text, language));
+                response.setProfile(requestProfile);
+                return response;
+            }
+            String key = language + ":" + Hashing.sha256().hashString(text, UTF_8).toString();
+            return textRequests.execute(key, () -> processTextOnce(text, language));
+        } catch (NoSuchElementException e) {
+            throw new GrobidServiceException("Could not get an engine from the pool within configured time. Sending service unavailable.", e, Response.Status.SERVICE_UNAVAILABLE);
+        } catch (Exception e) {
+            throw new GrobidServiceException("An unexpected exception occurs. ", e, Response.Status.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private MeasurementsResponse processTextOnce(String text, String language) {
+        return QuantityLexicon.callWithLanguage(language, () -> {
             long start = System.currentTimeMillis();
-            MeasurementsResponse response = new MeasurementsResponse(quantityParser.process(text));
+            MeasurementsResponse response = new MeasurementsResponse(quantityParser().process(text));
             long end = System.currentTimeMillis();
             response.setRuntime(end - start);
 
             return response;
+        });
+    }
+
+    /**
+     * Process the paragraphs of an XML document as they are read. Each measurement is passed to the consumer
+     * with its offsets converted to character offsets in the XML input, so that the whole document is never
+     * kept in memory.
+     *
+     * @param rawXml the reader the XML is parsed from, to map the offsets following the entity and character
+     *               references, or null
+     */
+    public void processXml(XMLStreamReader2 reader, RawXmlReader rawXml, Consumer<Measurement> consumer) {
+        TextChunkStaxHandler handler = new TextChunkStaxHandler(chunk -> {
+            for (Measurement measurement : quantityParser().process(chunk.getText())) {
+                QuantityOperations.remapOffsets(measurement, chunk::toXmlOffset, chunk::toXmlEndOffset);
+                consumer.accept(measurement);
+            }
+        });
+        handler.setRawXml(rawXml);
+
+        try {
+            StaxUtils.traverse(reader, handler);
+        } catch (XMLStreamException e) {
+            throw new GrobidServiceException("Cannot parse the XML input. ", e, Response.Status.BAD_REQUEST);
+        } finally {
+            try {
+                reader.closeCompletely();
+            } catch (XMLStreamException e) {
+                LOGGER.warn("Cannot close the XML input. ", e);
+            }
+        }
+    }
+
+    /**
+     * Process an XML document and write the JSON response while the document is read: the measurements
+     * are written as soon as their paragraph is processed and the runtime comes last.
+     */
+    public StreamingOutput processXmlAsJson(InputStream inputStream) {
+        // the beginning of the document is read now, so that an invalid input is reported with a proper status
+        RawXmlReader rawXml = openRawXml(inputStream);
+        XMLStreamReader2 reader = openXml(rawXml);
+
+        return output -> {
+            long start = System.currentTimeMillis();
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8));
+            writer.write("{ \"measurements\": [");
+            AtomicBoolean first = new AtomicBoolean(true);
+            try {
+                processXml(reader, rawXml, measurement -> {
+                    try {
+                        if (!first.getAndSet(false)) {
+                            writer.write(", ");
+                        }
+                        writer.write(measurement.toJson());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.write("], \"runtime\" : " + (System.currentTimeMillis() - start) + "}");
+            writer.flush();
+        };
+    }
+
+    /**
+     * Process a TEI document produced by GROBID fulltext, running only the quantities models over the same
+     * parts as the PDF processing. When the TEI contains coordinates, the measurements get bounding boxes.
+     * The offsets refer to the character position in the TEI document.
+     */
+    public MeasurementsResponse processTEI(InputStream inputStream) {
+        long start = System.currentTimeMillis();
+
+        List<Measurement> measurements = new ArrayList<>();
+        TeiChunkStaxHandler handler = new TeiChunkStaxHandler(chunk -> {
+            for (Measurement measurement : quantityParser().process(chunk.getLayoutTokens())) {
+                QuantityOperations.remapOffsets(measurement, chunk::toXmlOffset, chunk::toXmlEndOffset);
+                measurements.add(measurement);
+            }
+        });
+
+        RawXmlReader rawXml = openRawXml(inputStream);
+        handler.setRawXml(rawXml);
+        XMLStreamReader2 reader = openXml(rawXml);
+        try {
+            StaxUtils.traverse(reader, handler);
+        } catch (XMLStreamException e) {
+            throw new GrobidServiceException("Cannot parse the TEI input. ", e, Response.Status.BAD_REQUEST);
         } catch (NoSuchElementException e) {
             throw new GrobidServiceException("Could not get an engine from the pool within configured time. Sending service unavailable.", e, Response.Status.SERVICE_UNAVAILABLE);
-        } catch (Exception e) {
-            throw new GrobidServiceException("An unexpected exception occurs. ", e, Response.Status.INTERNAL_SERVER_ERROR);
+        } finally {
+            try {
+                reader.closeCompletely();
+            } catch (XMLStreamException e) {
+                LOGGER.warn("Cannot close the TEI input. ", e);
+            }
+        }
+
+        MeasurementsResponse response = new MeasurementsResponse(measurements, handler.getPages());
+        response.setRuntime(System.currentTimeMillis() - start);
+
+        return response;
+    }
+
+    private RawXmlReader openRawXml(InputStream inputStream) {
+        if (inputStream == null) {
+            throw new GrobidServiceException("Input file is empty or null", Response.Status.BAD_REQUEST);
+        }
+        try {
+            return RawXmlReader.of(inputStream);
+        } catch (IOException e) {
+            throw new GrobidServiceException("Cannot read the XML input. ", e, Response.Status.BAD_REQUEST);
+        }
+    }
+
+    private XMLStreamReader2 openXml(RawXmlReader rawXml) {
+        try {
+            XMLStreamReader2 reader = (XMLStreamReader2) xmlInputFactory.createXMLStreamReader(rawXml);
+            while (reader.hasNext() && reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+                reader.next();
+            }
+            return reader;
+        } catch (XMLStreamException e) {
+            throw new GrobidServiceException("Cannot parse the XML input. ", e, Response.Status.BAD_REQUEST);
         }
     }
 
     public void batchProcess(String inputDirectory, String outputDirectory, boolean isRecursive) {
-        throw new NotImplementedException("Not yet implemented");
+        batchProcess(inputDirectory, outputDirectory, isRecursive, Runtime.getRuntime().availableProcessors());
     }
 
     /**
-     * Processes a file with units
+     * Process the text (.txt), XML (.xml, or GROBID TEI when named .tei.xml) and PDF (.pdf) files of a directory
+     * with a pool of workers. Each input gets a JSON file in the output directory, with the same relative path
+     * and the .json extension appended.
+     * The completed files are recorded in a checkpoint manifest, so that an interrupted batch restarted
+     * with the same output directory resumes where it stopped.
      */
-    public void unitBatchProcess(String inputDirectory, String outputDirectory, boolean isRecursive) {
-        Path inputPath = Paths.get(inputDirectory);
-        File[] refFiles = inputPath.toFile().listFiles(new FilenameFilter() {
-            public boolean accept(File dir, String name) {
-                return name.toLowerCase().endsWith(".txt");
-            }
-        });
+    public void batchProcess(String inputDirectory, String outputDirectory, boolean isRecursive, int nbThreads) {
+        new BatchProcessor(this::processFile, ".json", nbThreads)
+                .run(Paths.get(inputDirectory), Paths.get(outputDirectory), isRecursive, ".txt", ".xml", ".pdf");
+    }
 
-        if (refFiles == null) {
-            return;
+    /**
+     * Process a single file according to its extension and write the JSON response
+     */
+    private void processFile(Path inputFile, OutputStream os) throws IOException {
+        String name = inputFile.getFileName().toString().toLowerCase();
+        try (InputStream is = Files.newInputStream(inputFile)) {
+            if (name.endsWith(".pdf")) {
+                processPdfAsJson(is).write(os);
+            } else if (name.endsWith(".tei.xml")) {
+                os.write(processTEI(is).toJson().getBytes(UTF_8));
+            } else if (name.endsWith(".xml")) {
+                processXmlAsJson(is).write(os);
+            } else {
+                os.write(processText(IOUtils.toString(is, UTF_8)).toJson().getBytes(UTF_8));
+            }
         }
+    }
+
+    /**
+     * Processes a file with units. Each input gets an XML file in the output directory, with the same relative
+     * path and the .xml extension appended.
+     */
+    public void unitBatchProcess(String inputDirectory, String outputDirectory, boolean isRecursive) {
+        Path inputPath = Paths.get(inputDirectory);
+        List<File> refFiles = BatchProcessor.listFiles(inputPath, isRecursive, ".txt").stream()
+                .map(Path::toFile)
+                .collect(Collectors.toList());
 
-        LOGGER.info(refFiles.length + " files");
+        LOGGER.info(refFiles.size() + " files");
 
 
         for (File inputFile : refFiles) {
@@ -366,7 +838,10 @@ public class QuantitiesEngine {
                 OutputStream os2 = null;
 
                 if (outputDirectory != null) {
-                    os2 = new FileOutputStream(outputDirectory + File.separator + inputFile.getName() + ".xml");
+                    Path outputFile = Paths.get(outputDirectory)
+                            .resolve(BatchProcessor.relativePath(inputPath, inputFile.toPath()) + ".xml");
+                    Files.createDirectories(outputFile.getParent());
+                    os2 = Files.newOutputStream(outputFile);
                     outputWriter = new OutputStreamWriter(os2, UTF_8);
                 } else {
                     return;
@@ -376,12 +851,12 @@ public class QuantitiesEngine {
                 outputWriter.write("<units>\n");
 
                 try (Stream<String> stream = Files.lines(Paths.get(inputFile.getAbsolutePath()))) {
-
-                    List<String> processedUnits = stream.map(
-                            s -> unitParser.tagUnit(s).stream().map(UnitBlock::getRawTaggedValue).collect(Collectors.joining())
-                    ).collect(Collectors.toList());
-
-                    for (String processedUnit : processedUnits) {
+                    // each line is written as soon as it is processed
+                    Iterator<String> lines = stream.iterator();
+                    while (lines.hasNext()) {
+                        String processedUnit = unitParser().tagUnit(lines.next()).stream()
+                                .map(UnitBlock::getRawTaggedValue)
+                                .collect(Collectors.joining());
                         outputWriter.write("<unit>");
                         outputWriter.write(processedUnit);
                         outputWriter.write("</unit>");
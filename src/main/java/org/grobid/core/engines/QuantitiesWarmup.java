@@ -0,0 +1,91 @@
+package org.grobid.core.engines;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.grobid.core.data.MeasurementsResponse;
+import org.grobid.core.exceptions.GrobidResourceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * JIT warm-up of the text pipeline (tokenisation, features, labeling, normalisation and JSON serialisation),
+ * processing a sample corpus several times before the first requests.
+ */
+public class QuantitiesWarmup {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuantitiesWarmup.class);
+
+    public static final String SAMPLE_CORPUS_PATH = "warmup/sample.txt";
+
+    // number of iterations logged to follow the latency trend
+    private static final int NB_LOGGED_ITERATIONS = 10;
+
+    private final List<String> texts;
+    private final Function<String, String> pipeline;
+
+    public QuantitiesWarmup(List<String> texts) {
+        this(texts, text -> new MeasurementsResponse(QuantityParser.getInstance().process(text)).toJson());
+    }
+
+    QuantitiesWarmup(List<String> texts, Function<String, String> pipeline) {
+        this.texts = texts;
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Load the paragraphs of a corpus, one per line
+     *
+     * @param path the corpus file, the bundled sample corpus when null
+     */
+    public static List<String> loadCorpus(String path) {
+        try (InputStream is = isBlank(path) ?
+            QuantitiesWarmup.class.getClassLoader().getResourceAsStream(SAMPLE_CORPUS_PATH) :
+            new FileInputStream(path)) {
+            if (is == null) {
+                throw new GrobidResourceException("Cannot find the warm-up corpus " + SAMPLE_CORPUS_PATH);
+            }
+            return IOUtils.readLines(is, UTF_8).stream()
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new GrobidResourceException("Cannot read the warm-up corpus " + path, e);
+        }
+    }
+
+    /**
+     * Process the corpus the given number of times, logging the time of the iterations
+     *
+     * @return the time in ms of each iteration
+     */
+    public long[] run(int iterations) {
+        LOGGER.info("Warm-up: " + iterations + " iterations over " + texts.size() + " texts");
+        long[] times = new long[iterations];
+        int logInterval = Math.max(1, iterations / NB_LOGGED_ITERATIONS);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            long iterationStart = System.nanoTime();
+            for (String text : texts) {
+                pipeline.apply(text);
+            }
+            times[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - iterationStart);
+            if (i % logInterval == 0 || i == iterations - 1) {
+                LOGGER.info("Warm-up iteration " + (i + 1) + "/" + iterations + ": " + times[i] + " ms");
+            }
+        }
+        if (iterations > 0) {
+            LOGGER.info("Warm-up done in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                + " ms, iteration time from " + times[0] + " ms to " + times[iterations - 1] + " ms");
+        }
+        return times;
+    }
+}
@@ -13,15 +13,17 @@ import org.grobid.core.data.Value;
 import org.grobid.core.data.normalization.NormalizationException;
 import org.grobid.core.data.normalization.QuantityNormalizer;
 import org.grobid.core.data.normalization.UnitNormalizer;
+import org.grobid.core.engines.label.LabeledTokenSequence;
 import org.grobid.core.engines.label.QuantitiesTaggingLabels;
 import org.grobid.core.engines.label.TaggingLabel;
+import org.grobid.core.engines.metrics.StageMetrics;
+import org.grobid.core.engines.metrics.StageMetrics.Stage;
+import org.grobid.core.engines.tagging.LabelingBatchers;
 import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.features.FeaturesVectorQuantities;
 import org.grobid.core.layout.BoundingBox;
 import org.grobid.core.layout.LayoutToken;
 import org.grobid.core.lexicon.QuantityLexicon;
-import org.grobid.core.tokenization.TaggingTokenCluster;
-import org.grobid.core.tokenization.TaggingTokenClusteror;
 import org.grobid.core.utilities.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,35 +56,44 @@ public class QuantityParser extends AbstractParser {
 
     public static QuantityParser getInstance(boolean disableSubstance) {
         if (instance == null) {
-            instance = getNewInstance(disableSubstance);
+            getNewInstance(disableSubstance);
         }
         return instance;
     }
 
     public static QuantityParser getInstance() {
         if (instance == null) {
-            instance = getNewInstance(false);
+            getNewInstance(false);
         }
         return instance;
     }
 
-    private static synchronized QuantityParser getNewInstance(boolean disableSubstanceParser) {
-        QuantityParser instance = new QuantityParser();
+    /**
+     * The instance is published once the substance parser is set, as it can be obtained concurrently
+     */
+    private static synchronized void getNewInstance(boolean disableSubstanceParser) {
+        if (instance != null) {
+            return;
+        }
+        QuantityParser parser = new QuantityParser();
 
         if (!disableSubstanceParser) {
             QuantifiedObjectParser substanceParser = QuantifiedObjectParser.getInstance();
-            instance.setQuantifiedObjectParser(substanceParser);
+            parser.setQuantifiedObjectParser(substanceParser);
         }
-        instance.setDisableSubstanceParser(disableSubstanceParser);
+        parser.setDisableSubstanceParser(disableSubstanceParser);
 
-        return instance;
+        instance = parser;
     }
 
+    // null for the current lexicon, which can be reloaded
     private QuantityLexicon quantityLexicon;
     private MeasurementOperations measurementOperations;
+    private final GrobidModel model;
 
     protected QuantityParser(GrobidModel model, QuantityLexicon quantityLexicon, MeasurementOperations measurementOperations, ValueParser valueParser) {
         super(model);
+        this.model = model;
         this.quantityLexicon = quantityLexicon;
         this.measurementOperations = measurementOperations;
         this.valueParser = valueParser;
@@ -92,49 +103,59 @@ public class QuantityParser extends AbstractParser {
     @Inject
     public QuantityParser() {
         super(QuantitiesModels.QUANTITIES);
-        quantityLexicon = QuantityLexicon.getInstance();
+        model = QuantitiesModels.QUANTITIES;
         UnitNormalizer unitNormaliser = new UnitNormalizer();
         measurementOperations = new MeasurementOperations(unitNormaliser);
         quantityNormalizer = new QuantityNormalizer();
 
-        valueParser = new ValueParser();
-        instance = this;
+        valueParser = ValueParser.getInstance();
 //        this.tokeniser = new EnglishTokenizer();
     }
 
-    public List<Measurement> process(List<LayoutToken> layoutTokens) {
+    @Override
+    public String label(String data) {
+        return LabelingBatchers.getInstance().label(model, data, super::label);
+    }
 
-        List<Measurement> measurements = new ArrayList<>();
+    public List<Measurement> process(List<LayoutToken> layoutTokens) {
+        return StageMetrics.getInstance().time(Stage.QUANTITY_PARSING,
+            () -> process(PreparedDocument.prepare(layoutTokens, lexicon())));
+    }
 
-        // List<LayoutToken> for the selected segment
-        List<LayoutToken> tokens = QuantityAnalyzer.getInstance().retokenizeLayoutTokens(layoutTokens);
+    private QuantityLexicon lexicon() {
+        return quantityLexicon != null ? quantityLexicon : QuantityLexicon.getInstance();
+    }
 
-        //Normalisation
-        List<LayoutToken> layoutTokenNormalised = tokens.stream().map(layoutToken -> {
-                    layoutToken.setText(UnicodeUtil.normaliseText(layoutToken.getText()));
+    /**
+     * Extract all occurrences of measurement/quantities from a prepared document, the same document
+     * is then provided to the quantified object parser. All the stages use the lexicon of the document.
+     */
+    public List<Measurement> process(PreparedDocument document) {
+        return QuantityLexicon.callWithLexicon(document.getLexicon(), () -> processWithLexicon(document));
+    }
 
-                    return layoutToken;
-                }
-        ).collect(Collectors.toList());
+    private List<Measurement> processWithLexicon(PreparedDocument document) {
 
-        // list of textual tokens of the selected segment
-        //List<String> texts = getTexts(tokenizationParts);
+        List<Measurement> measurements = new ArrayList<>();
 
-        if (isEmpty(layoutTokenNormalised))
+        if (document.isEmpty())
             return measurements;
 
+        List<LayoutToken> layoutTokenNormalised = document.getTokens();
+
         try {
             // positions for lexical match
-            List<OffsetPosition> unitTokenPositions = quantityLexicon.inUnitNames(layoutTokenNormalised);
+            List<OffsetPosition> unitTokenPositions = document.getUnitPositions();
 
             // string representation of the feature matrix for CRF lib
-            String ress = addFeatures(layoutTokenNormalised, unitTokenPositions);
+            String ress = StageMetrics.getInstance().time(Stage.FEATURES,
+                () -> addFeatures(layoutTokenNormalised, unitTokenPositions, document.getLexicon()));
 
             if (StringUtils.isEmpty(ress))
                 return measurements;
 
             // labeled result from CRF lib
-            String res = null;
+            String res;
             try {
                 res = label(ress);
             } catch (Exception e) {
@@ -143,7 +164,8 @@ public class QuantityParser extends AbstractParser {
 
 //            List<OffsetPosition> sentences = getSentencesOffsets(layoutTokenNormalised);
 
-            List<Measurement> localMeasurements = extractMeasurement(layoutTokenNormalised, res);
+            List<Measurement> localMeasurements = StageMetrics.getInstance().time(Stage.EXTRACTION,
+                () -> extractMeasurement(layoutTokenNormalised, res));
             if (isEmpty(localMeasurements))
                 return measurements;
 
@@ -155,12 +177,15 @@ public class QuantityParser extends AbstractParser {
             }
 
             if (!disableSubstanceParser) {
-                localMeasurements = quantifiedObjectParser.process(layoutTokenNormalised, localMeasurements);
+                List<Measurement> resolvedMeasurements = localMeasurements;
+                localMeasurements = StageMetrics.getInstance().time(Stage.QUANTIFIED_OBJECTS,
+                    () -> quantifiedObjectParser.process(document, resolvedMeasurements));
             } else {
                 LOGGER.warn("Substance parser disabled, skpping it. ");
             }
 
             measurements.addAll(localMeasurements);
+            StageMetrics.getInstance().count(StageMetrics.Count.MEASUREMENTS, localMeasurements.size());
         } catch (Exception e) {
             throw new GrobidException("An exception occured while running Grobid.", e);
         }
@@ -199,7 +224,8 @@ public class QuantityParser extends AbstractParser {
 
         List<LayoutToken> tokens = null;
         try {
-            tokens = QuantityAnalyzer.getInstance().tokenizeWithLayoutToken(textPreprocessed);
+            tokens = StageMetrics.getInstance().time(Stage.TOKENISATION,
+                () -> QuantityAnalyzer.getInstance().tokenizeWithLayoutToken(textPreprocessed));
         } catch (Exception e) {
             LOGGER.error("fail to tokenize:, " + text, e);
         }
@@ -260,7 +286,7 @@ public class QuantityParser extends AbstractParser {
             return;
         if (quantity.isNormalized())
             return;
-        try {
+        try (StageMetrics.Timing ignored = StageMetrics.getInstance().time(Stage.NORMALISATION)) {
             Quantity.Normalized quantity1 = quantityNormalizer.normalizeQuantity(quantity);
             if (quantity1 != null) {
                 quantity.setNormalizedQuantity(quantity1);
@@ -321,7 +347,8 @@ public class QuantityParser extends AbstractParser {
 
     @SuppressWarnings({"UnusedParameters"})
     private String addFeatures(List<LayoutToken> tokens,
-                               List<OffsetPosition> unitTokenPositions) {
+                               List<OffsetPosition> unitTokenPositions,
+                               QuantityLexicon lexicon) {
         int totalLine = tokens.size();
         int posit = 0;
         int currentQuantityIndex = 0;
@@ -358,11 +385,9 @@ public class QuantityParser extends AbstractParser {
                     }
                 }
 
-                FeaturesVectorQuantities featuresVector =
-                        FeaturesVectorQuantities.addFeaturesQuantities(text, null,
-                                quantityLexicon.inUnitDictionary(text), isUnitPattern,
-                                quantityLexicon.isNumberToken(text));
-                result.append(featuresVector.printVector());
+                result.append(FeaturesVectorQuantities.printVector(text,
+                        lexicon.inUnitDictionary(text), isUnitPattern,
+                        lexicon.isNumberToken(text)));
                 result.append("\n");
                 posit++;
                 isUnitPattern = false;
@@ -379,8 +404,7 @@ public class QuantityParser extends AbstractParser {
     public List<Measurement> extractMeasurement(List<LayoutToken> tokens, String result) {
         List<Measurement> measurements = new ArrayList<>();
 
-        TaggingTokenClusteror clusteror = new TaggingTokenClusteror(QuantitiesModels.QUANTITIES, result, tokens);
-        List<TaggingTokenCluster> clusters = clusteror.cluster();
+        List<LabeledTokenSequence.Cluster> clusters = LabeledTokenSequence.parse(QuantitiesModels.QUANTITIES, result, tokens).cluster();
 
         Unit currentUnit = new Unit();
         Measurement currentMeasurement = new Measurement();
@@ -391,7 +415,7 @@ public class QuantityParser extends AbstractParser {
 
         int pos = 0; // position in term of characters for creating the offsets
 
-        for (TaggingTokenCluster cluster : clusters) {
+        for (LabeledTokenSequence.Cluster cluster : clusters) {
             if (cluster == null) {
                 continue;
             }
@@ -402,7 +426,8 @@ public class QuantityParser extends AbstractParser {
             List<BoundingBox> boundingBoxes = null;
 
             if (!clusterLabel.equals(QUANTITY_OTHER))
-                boundingBoxes = BoundingBoxCalculator.calculate(theTokens);
+                boundingBoxes = StageMetrics.getInstance().time(Stage.BOUNDING_BOXES,
+                    () -> BoundingBoxCalculator.calculate(theTokens));
 
 //            String text = LayoutTokensUtil.toText(tokens);
 //            if ((pos < text.length() - 1) && (text.charAt(pos) == ' '))
@@ -5,18 +5,20 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.grobid.core.GrobidModel;
 import org.grobid.core.analyzers.QuantityAnalyzer;
 import org.grobid.core.data.UnitBlock;
+import org.grobid.core.engines.crf.JavaCrfModels;
+import org.grobid.core.engines.crf.LinearChainCrf;
+import org.grobid.core.engines.label.LabeledTokenSequence;
 import org.grobid.core.engines.label.QuantitiesTaggingLabels;
 import org.grobid.core.engines.label.TaggingLabel;
+import org.grobid.core.engines.metrics.StageMetrics;
+import org.grobid.core.engines.metrics.StageMetrics.Stage;
+import org.grobid.core.engines.tagging.LabelingBatchers;
 import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.features.FeaturesVectorUnits;
 import org.grobid.core.layout.LayoutToken;
 import org.grobid.core.lexicon.QuantityLexicon;
-import org.grobid.core.tokenization.LabeledTokensContainer;
-import org.grobid.core.tokenization.TaggingTokenCluster;
-import org.grobid.core.tokenization.TaggingTokenClusteror;
 import org.grobid.core.utilities.LayoutTokensUtil;
 import org.grobid.core.utilities.OffsetPosition;
-import org.grobid.core.utilities.UnicodeUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,21 +45,41 @@ public class UnitParser extends AbstractParser {
     }
 
     private static synchronized void getNewInstance() {
-        instance = new UnitParser();
+        if (instance == null) {
+            instance = new UnitParser();
+        }
     }
 
+    // null for the current lexicon, which can be reloaded
     private QuantityLexicon quantityLexicon = null;
+    private final GrobidModel model;
 
     private UnitParser() {
-        super(QuantitiesModels.UNITS);
-        quantityLexicon = QuantityLexicon.getInstance();
+        this(QuantitiesModels.UNITS, null);
     }
 
     protected UnitParser(GrobidModel model, QuantityLexicon quantityLexicon) {
         super(model);
+        this.model = model;
         this.quantityLexicon = quantityLexicon;
     }
 
+    @Override
+    public String label(String data) {
+        return LabelingBatchers.getInstance().label(model, data, this::labelSequences);
+    }
+
+    /**
+     * Label with the Java CRF decoder when it is enabled for the model, with Wapiti otherwise
+     */
+    private String labelSequences(String data) {
+        LinearChainCrf crf = JavaCrfModels.getInstance().get(model);
+        if (crf != null) {
+            return crf.label(data);
+        }
+        return super.label(data);
+    }
+
     /**
      * hasUnitRightAttachment indicate whether the unit is appearing before the value,
      * for example `pH 5.5`
@@ -72,21 +94,19 @@ public class UnitParser extends AbstractParser {
         }
         List<UnitBlock> units = new ArrayList<>();
 
-        try {
-            String textPreprocessed = text.replace("\r\n", " ");
-            textPreprocessed = UnicodeUtil.normaliseText(textPreprocessed);
-
-            String ress = null;
-            QuantityAnalyzer analyzer = QuantityAnalyzer.getInstance();
-            List<LayoutToken> tokens = analyzer.tokenizeWithLayoutTokenByCharacter(textPreprocessed);
+        try (StageMetrics.Timing ignored = StageMetrics.getInstance().time(Stage.UNIT_PARSING)) {
+            String textPreprocessed = QuantityAnalyzer.normaliseToken(text.replace("\r\n", " "));
 
-            ress = addFeatures(tokens, isUnitLeft);
+            String ress = StageMetrics.getInstance().time(Stage.FEATURES,
+                () -> addFeatures(textPreprocessed, isUnitLeft));
             String res;
             try {
                 res = label(ress);
             } catch (Exception e) {
                 throw new GrobidException("CRF labeling for quantity parsing failed.", e);
             }
+            // the layout tokens are needed only for aligning the labels
+            List<LayoutToken> tokens = QuantityAnalyzer.getInstance().tokenizeWithLayoutTokenByCharacter(textPreprocessed);
             units = resultExtraction(res, tokens);
         } catch (Exception e) {
             throw new GrobidException("An exception occurred while running Grobid.", e);
@@ -108,8 +128,7 @@ public class UnitParser extends AbstractParser {
      * @param registerCRFTags indicate if to register the result from the CRF. Useful for the training data generation
      */
     public List<UnitBlock> resultExtraction(String result, List<LayoutToken> tokenizations, boolean registerCRFTags) {
-        TaggingTokenClusteror clusteror = new TaggingTokenClusteror(QuantitiesModels.UNITS, result, tokenizations);
-        List<TaggingTokenCluster> clusters = clusteror.cluster();
+        List<LabeledTokenSequence.Cluster> clusters = LabeledTokenSequence.parse(QuantitiesModels.UNITS, result, tokenizations).cluster();
 
         int pos = 0; // position in term of characters for creating the offsets
 
@@ -125,7 +144,7 @@ public class UnitParser extends AbstractParser {
         StringBuilder rawTaggedValue = new StringBuilder();
 
 
-        for (TaggingTokenCluster cluster : clusters) {
+        for (LabeledTokenSequence.Cluster cluster : clusters) {
             if (cluster == null) {
                 continue;
             }
@@ -141,8 +160,7 @@ public class UnitParser extends AbstractParser {
             if (!clusterLabel.equals(UNIT_VALUE_OTHER)) {
                 rawTaggedValue.append(clusterLabel.getLabel().replace("<", "</"));
             }
-            LabeledTokensContainer last = Iterables.getLast(cluster.getLabeledTokensContainers());
-            if (last.isTrailingSpace()) {
+            if (cluster.isTrailingSpace()) {
                 rawTaggedValue.append(" ");
             }
 
@@ -231,23 +249,20 @@ public class UnitParser extends AbstractParser {
 
 
     @SuppressWarnings({"UnusedParameters"})
-    private String addFeatures(List<LayoutToken> layoutTokens, boolean isUnitLeft) {
-
+    private String addFeatures(String text, boolean isUnitLeft) {
+        QuantityLexicon lexicon = quantityLexicon != null ? quantityLexicon : QuantityLexicon.getInstance();
         StringBuilder result = new StringBuilder();
 
         try {
-            for (LayoutToken layoutToken : layoutTokens) {
-                if (isBlank(layoutToken.getText())) {
+            for (int i = 0; i < text.length(); i++) {
+                String character = QuantityAnalyzer.normaliseCharacter(text.charAt(i));
+                if (isBlank(character)) {
                     continue;
                 }
 
-                FeaturesVectorUnits featuresVector =
-                    FeaturesVectorUnits.addFeaturesUnit(layoutToken.getText(),
-                        null,
-                        quantityLexicon.inUnitDictionary(layoutToken.getText()),
-                        quantityLexicon.inPrefixDictionary(layoutToken.getText()), isUnitLeft);
-
-                result.append(featuresVector.printVector())
+                result.append(FeaturesVectorUnits.printVector(character,
+                        lexicon.inUnitDictionary(character),
+                        lexicon.inPrefixDictionary(character), isUnitLeft))
                     .append("\n");
             }
         } catch (Exception e) {
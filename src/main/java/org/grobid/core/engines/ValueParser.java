@@ -7,16 +7,19 @@ import org.grobid.core.data.Quantity;
 import org.grobid.core.data.Value;
 import org.grobid.core.data.ValueBlock;
 import org.grobid.core.data.normalization.NormalizationException;
+import org.grobid.core.engines.crf.JavaCrfModels;
+import org.grobid.core.engines.crf.LinearChainCrf;
+import org.grobid.core.engines.label.LabeledTokenSequence;
 import org.grobid.core.engines.label.QuantitiesTaggingLabels;
 import org.grobid.core.engines.label.TaggingLabel;
+import org.grobid.core.engines.metrics.StageMetrics;
+import org.grobid.core.engines.metrics.StageMetrics.Stage;
+import org.grobid.core.engines.tagging.LabelingBatchers;
 import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.features.FeaturesVectorValues;
 import org.grobid.core.layout.LayoutToken;
-import org.grobid.core.tokenization.TaggingTokenCluster;
-import org.grobid.core.tokenization.TaggingTokenClusteror;
 import org.grobid.core.utilities.LayoutTokensUtil;
 import org.grobid.core.utilities.OffsetPosition;
-import org.grobid.core.utilities.UnicodeUtil;
 import org.grobid.core.utilities.WordsToNumber;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,15 +53,36 @@ public class ValueParser extends AbstractParser {
     }
 
     private static synchronized void getNewInstance() {
-        instance = new ValueParser();
+        if (instance == null) {
+            instance = new ValueParser();
+        }
     }
 
+    private final GrobidModel model;
+
     protected ValueParser() {
-        super(QuantitiesModels.VALUES);
+        this(QuantitiesModels.VALUES);
     }
 
     public ValueParser(GrobidModel model) {
         super(model);
+        this.model = model;
+    }
+
+    @Override
+    public String label(String data) {
+        return LabelingBatchers.getInstance().label(model, data, this::labelSequences);
+    }
+
+    /**
+     * Label with the Java CRF decoder when it is enabled for the model, with Wapiti otherwise
+     */
+    private String labelSequences(String data) {
+        LinearChainCrf crf = JavaCrfModels.getInstance().get(model);
+        if (crf != null) {
+            return crf.label(data);
+        }
+        return super.label(data);
     }
 
     public Value parseValue(String rawValue) {
@@ -66,15 +90,17 @@ public class ValueParser extends AbstractParser {
     }
 
     public Value parseValue(String rawValue, Locale locale) {
-        ValueBlock block = tagValue(rawValue);
+        try (StageMetrics.Timing ignored = StageMetrics.getInstance().time(Stage.VALUE_PARSING)) {
+            ValueBlock block = tagValue(rawValue);
 
-        BigDecimal numeric = parseValueBlock(block, locale);
-        final Value resultValue = new Value();
-        resultValue.setRawValue(rawValue);
-        resultValue.setNumeric(numeric);
-        resultValue.setStructure(block);
+            BigDecimal numeric = parseValueBlock(block, locale);
+            final Value resultValue = new Value();
+            resultValue.setRawValue(rawValue);
+            resultValue.setNumeric(numeric);
+            resultValue.setStructure(block);
 
-        return resultValue;
+            return resultValue;
+        }
     }
 
 
@@ -166,7 +192,7 @@ public class ValueParser extends AbstractParser {
     }
 
     private String removeSpacesTabsAndBl(String block) {
-        return UnicodeUtil.normaliseText(block)
+        return QuantityAnalyzer.normaliseToken(block)
             .replaceAll("\n", " ")
             .replaceAll("\t", " ")
             .replaceAll(" ", "");
@@ -181,18 +207,17 @@ public class ValueParser extends AbstractParser {
         ValueBlock parsedValue = null;
 
         try {
-            text = text.replace("\n\r", " ");
-
-            QuantityAnalyzer analyzer = QuantityAnalyzer.getInstance();
-            List<LayoutToken> layoutTokens = analyzer.tokenizeWithLayoutTokenByCharacter(text);
+            String textPreprocessed = text.replace("\n\r", " ");
 
-            String ress = addFeatures(layoutTokens);
+            String ress = StageMetrics.getInstance().time(Stage.FEATURES, () -> addFeatures(textPreprocessed));
             String res;
             try {
                 res = label(ress);
             } catch (Exception e) {
                 throw new GrobidException("CRF labeling for quantity parsing failed.", e);
             }
+            // the layout tokens are needed only for aligning the labels
+            List<LayoutToken> layoutTokens = QuantityAnalyzer.getInstance().tokenizeWithLayoutTokenByCharacter(textPreprocessed);
             parsedValue = resultExtraction(res, layoutTokens);
         } catch (Exception e) {
             throw new GrobidException("An exception occurred while running Grobid.", e);
@@ -208,8 +233,7 @@ public class ValueParser extends AbstractParser {
      *  - if <base> contains e then the following <pow> should go into <exp>
      */
     public ValueBlock resultExtraction(String result, List<LayoutToken> tokenizations) {
-        TaggingTokenClusteror clusteror = new TaggingTokenClusteror(QuantitiesModels.VALUES, result, tokenizations);
-        List<TaggingTokenCluster> clusters = clusteror.cluster();
+        List<LabeledTokenSequence.Cluster> clusters = LabeledTokenSequence.parse(QuantitiesModels.VALUES, result, tokenizations).cluster();
 
         String rawValue = LayoutTokensUtil.toText(tokenizations);
 
@@ -224,7 +248,7 @@ public class ValueParser extends AbstractParser {
 
         boolean forceExp = false;
 
-        for (TaggingTokenCluster cluster : clusters) {
+        for (LabeledTokenSequence.Cluster cluster : clusters) {
             if (cluster == null) {
                 continue;
             }
@@ -338,20 +362,21 @@ public class ValueParser extends AbstractParser {
     }
 
 
+    /**
+     * Compute the features of each character of the text, directly from the characters.
+     */
     @SuppressWarnings({"UnusedParameters"})
-    private String addFeatures(List<LayoutToken> layoutTokens) {
+    private String addFeatures(String text) {
 
         StringBuilder result = new StringBuilder();
         try {
-            for (LayoutToken token : layoutTokens) {
-                if (isBlank(token.getText())) {
+            for (int i = 0; i < text.length(); i++) {
+                String character = QuantityAnalyzer.normaliseCharacter(text.charAt(i));
+                if (isBlank(character)) {
                     continue;
                 }
 
-                FeaturesVectorValues featuresVector =
-                    FeaturesVectorValues.addFeatures(trim(token.getText()), null);
-
-                result.append(featuresVector.printVector())
+                result.append(FeaturesVectorValues.printVector(trim(character)))
                     .append("\n");
             }
         } catch (Exception e) {
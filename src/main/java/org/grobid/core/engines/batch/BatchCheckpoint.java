@@ -0,0 +1,70 @@
+package org.grobid.core.engines.batch;
+
+import org.grobid.core.exceptions.GrobidException;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Append-only manifest of the files completed by a batch, one relative path per line. A batch restarted with
+ * the same output directory skips the files already listed. A file is listed only once its output has been
+ * completely written, so that an interrupted batch never skips a partial result.
+ */
+public class BatchCheckpoint implements Closeable {
+
+    public static final String MANIFEST_NAME = ".batch-checkpoint";
+
+    private final Set<String> completed = ConcurrentHashMap.newKeySet();
+    private final BufferedWriter writer;
+
+    public BatchCheckpoint(Path outputDirectory) {
+        Path manifest = outputDirectory.resolve(MANIFEST_NAME);
+        try {
+            Files.createDirectories(outputDirectory);
+            if (Files.exists(manifest)) {
+                try (Stream<String> lines = Files.lines(manifest, UTF_8)) {
+                    lines.filter(l -> !l.isEmpty()).forEach(completed::add);
+                }
+            }
+            writer = Files.newBufferedWriter(manifest, UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new GrobidException("Cannot open the checkpoint manifest " + manifest, e);
+        }
+    }
+
+    public boolean isCompleted(String relativePath) {
+        return completed.contains(relativePath);
+    }
+
+    public int size() {
+        return completed.size();
+    }
+
+    public synchronized void markCompleted(String relativePath) {
+        if (!completed.add(relativePath)) {
+            return;
+        }
+        try {
+            writer.write(relativePath);
+            writer.newLine();
+            // flushed at each file, an interruption loses at most the files being processed
+            writer.flush();
+        } catch (IOException e) {
+            throw new GrobidException("Cannot update the checkpoint manifest", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
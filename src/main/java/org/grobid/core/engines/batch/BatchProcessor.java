@@ -0,0 +1,171 @@
+package org.grobid.core.engines.batch;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.DurationFormatUtils;
+import org.grobid.core.exceptions.GrobidException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Processing of the files of a directory with a pool of workers. Each input gets an output file in the output
+ * directory, with the same relative path and the output extension appended.
+ * <p>
+ * The completed files are recorded in a {@link BatchCheckpoint}, so that an interrupted batch restarted with the
+ * same output directory resumes where it stopped. A file failing is not recorded and is retried at the next run.
+ */
+public class BatchProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchProcessor.class);
+
+    private static final long PROGRESS_INTERVAL_SECONDS = 30;
+
+    /**
+     * Processing of a single input file, writing its result to the output
+     */
+    @FunctionalInterface
+    public interface FileProcessor {
+        void process(Path inputFile, OutputStream output) throws IOException;
+    }
+
+    private final FileProcessor processor;
+    private final String outputExtension;
+    private final int nbThreads;
+
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private int skipped = 0;
+
+    public BatchProcessor(FileProcessor processor, String outputExtension, int nbThreads) {
+        this.processor = processor;
+        this.outputExtension = outputExtension;
+        this.nbThreads = nbThreads;
+    }
+
+    /**
+     * Process the files of the input directory having one of the extensions
+     */
+    public void run(Path inputDirectory, Path outputDirectory, boolean isRecursive, String... extensions) {
+        List<Path> inputFiles = listFiles(inputDirectory, isRecursive, extensions);
+
+        try (BatchCheckpoint checkpoint = new BatchCheckpoint(outputDirectory)) {
+            List<Path> remainingFiles = inputFiles.stream()
+                    .filter(f -> !checkpoint.isCompleted(relativePath(inputDirectory, f)))
+                    .collect(Collectors.toList());
+            skipped = inputFiles.size() - remainingFiles.size();
+            LOGGER.info(inputFiles.size() + " files, " + skipped + " already processed");
+
+            long start = System.currentTimeMillis();
+
+            ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+            reporter.scheduleAtFixedRate(() -> logProgress(remainingFiles.size(), start),
+                    PROGRESS_INTERVAL_SECONDS, PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            try {
+                for (Path inputFile : remainingFiles) {
+                    executor.submit(() -> {
+                        String relativePath = relativePath(inputDirectory, inputFile);
+                        try {
+                            processFile(inputFile, outputDirectory.resolve(relativePath + outputExtension));
+                            checkpoint.markCompleted(relativePath);
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            LOGGER.warn("Cannot process " + inputFile + ", it will be retried at the next run. ", e);
+                        }
+                        processed.incrementAndGet();
+                    });
+                }
+                executor.shutdown();
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            } finally {
+                reporter.shutdownNow();
+            }
+            logProgress(remainingFiles.size(), start);
+        } catch (IOException e) {
+            throw new GrobidException("Cannot close the checkpoint manifest. ", e);
+        }
+    }
+
+    /**
+     * Process a single file and write its output. The output is written to a temporary file first, so that it
+     * exists only when complete.
+     */
+    private void processFile(Path inputFile, Path outputFile) throws IOException {
+        Files.createDirectories(outputFile.getParent());
+        Path tempFile = outputFile.resolveSibling(outputFile.getFileName() + ".tmp");
+        try {
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                processor.process(inputFile, os);
+            }
+            Files.move(tempFile, outputFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // the partial output of a failed file is not left behind
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private void logProgress(int total, long start) {
+        int processed = this.processed.get();
+        long elapsed = System.currentTimeMillis() - start;
+        double throughput = elapsed > 0 ? processed * 1000.0 / elapsed : 0;
+        String eta = throughput > 0
+                ? DurationFormatUtils.formatDuration((long) ((total - processed) / throughput * 1000), "HH:mm:ss")
+                : "unknown";
+        LOGGER.info(String.format("%d/%d files processed (%d failed), %.2f files/s, ETA %s",
+                processed, total, failed.get(), throughput, eta));
+    }
+
+    /**
+     * @return the number of files processed by the last run, including the failed ones
+     */
+    public int getProcessed() {
+        return processed.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * @return the number of files skipped by the last run, as completed by a previous run
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public static List<Path> listFiles(Path directory, boolean isRecursive, String... extensions) {
+        try (Stream<Path> stream = Files.walk(directory, isRecursive ? Integer.MAX_VALUE : 1)) {
+            return stream
+                    .filter(Files::isRegularFile)
+                    .filter(p -> StringUtils.endsWithAny(p.getFileName().toString().toLowerCase(), extensions))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new GrobidException("Cannot list the input directory " + directory, e);
+        }
+    }
+
+    /**
+     * @return the path of the file relative to the directory, with / as separator
+     */
+    public static String relativePath(Path directory, Path file) {
+        return directory.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+}
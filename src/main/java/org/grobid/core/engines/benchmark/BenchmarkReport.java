@@ -0,0 +1,260 @@
+package org.grobid.core.engines.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.grobid.core.exceptions.GrobidResourceException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Result of a {@link PipelineBenchmark}, written as JSON to be compared with the report of a baseline run.
+ * The CPU time and the allocation per document are -1 when the JVM does not measure them.
+ */
+public class BenchmarkReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private String mode;
+    private int threads;
+    private int documents;
+    private int warmupIterations;
+    private int iterations;
+    private long processed;
+    private long errors;
+    private long elapsedMs;
+    private double throughput;
+    private Latency latencyMs;
+    private double cpuMsPerDocument;
+    private long allocatedBytesPerDocument;
+
+    public static BenchmarkReport read(File file) {
+        try {
+            return MAPPER.readValue(file, BenchmarkReport.class);
+        } catch (IOException e) {
+            throw new GrobidResourceException("Cannot read the benchmark report " + file.getAbsolutePath(), e);
+        }
+    }
+
+    public void write(File file) {
+        try {
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, this);
+        } catch (IOException e) {
+            throw new GrobidResourceException("Cannot write the benchmark report " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Compare with the report of a baseline run: lower throughput, higher p99 latency, higher CPU time or
+     * allocation per document, beyond the tolerance.
+     *
+     * @param tolerance the allowed relative difference, e.g. 0.1 for 10%
+     * @return the description of the regressions, empty when there is none
+     */
+    public List<String> compareTo(BenchmarkReport baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        if (throughput < baseline.getThroughput() * (1 - tolerance)) {
+            regressions.add(regression("throughput (documents/s)", throughput, baseline.getThroughput()));
+        }
+        if (latencyMs.getP99() > baseline.getLatencyMs().getP99() * (1 + tolerance)) {
+            regressions.add(regression("p99 latency (ms)", latencyMs.getP99(), baseline.getLatencyMs().getP99()));
+        }
+        if (cpuMsPerDocument >= 0 && baseline.getCpuMsPerDocument() >= 0
+            && cpuMsPerDocument > baseline.getCpuMsPerDocument() * (1 + tolerance)) {
+            regressions.add(regression("CPU time per document (ms)", cpuMsPerDocument, baseline.getCpuMsPerDocument()));
+        }
+        if (allocatedBytesPerDocument >= 0 && baseline.getAllocatedBytesPerDocument() >= 0
+            && allocatedBytesPerDocument > baseline.getAllocatedBytesPerDocument() * (1 + tolerance)) {
+            regressions.add(regression("allocation per document (bytes)", allocatedBytesPerDocument,
+                baseline.getAllocatedBytesPerDocument()));
+        }
+        return regressions;
+    }
+
+    private static String regression(String measure, double value, double baseline) {
+        return String.format(Locale.ROOT, "%s: %.3f, baseline %.3f", measure, value, baseline);
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getDocuments() {
+        return documents;
+    }
+
+    public void setDocuments(int documents) {
+        this.documents = documents;
+    }
+
+    public int getWarmupIterations() {
+        return warmupIterations;
+    }
+
+    public void setWarmupIterations(int warmupIterations) {
+        this.warmupIterations = warmupIterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public void setErrors(long errors) {
+        this.errors = errors;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    /**
+     * @return the number of documents processed per second
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public void setThroughput(double throughput) {
+        this.throughput = throughput;
+    }
+
+    public Latency getLatencyMs() {
+        return latencyMs;
+    }
+
+    public void setLatencyMs(Latency latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public double getCpuMsPerDocument() {
+        return cpuMsPerDocument;
+    }
+
+    public void setCpuMsPerDocument(double cpuMsPerDocument) {
+        this.cpuMsPerDocument = cpuMsPerDocument;
+    }
+
+    public long getAllocatedBytesPerDocument() {
+        return allocatedBytesPerDocument;
+    }
+
+    public void setAllocatedBytesPerDocument(long allocatedBytesPerDocument) {
+        this.allocatedBytesPerDocument = allocatedBytesPerDocument;
+    }
+
+    /**
+     * Latency percentiles in ms
+     */
+    public static class Latency {
+        private double mean;
+        private double p50;
+        private double p90;
+        private double p99;
+        private double p999;
+        private double max;
+
+        /**
+         * @param histogram the latencies in ns
+         */
+        public static Latency of(Histogram histogram) {
+            Latency latency = new Latency();
+            if (histogram.getTotalCount() == 0) {
+                return latency;
+            }
+            latency.setMean(toMillis(histogram.getMean()));
+            latency.setP50(toMillis(histogram.getValueAtPercentile(50)));
+            latency.setP90(toMillis(histogram.getValueAtPercentile(90)));
+            latency.setP99(toMillis(histogram.getValueAtPercentile(99)));
+            latency.setP999(toMillis(histogram.getValueAtPercentile(99.9)));
+            latency.setMax(toMillis(histogram.getMaxValue()));
+            return latency;
+        }
+
+        private static double toMillis(double nanos) {
+            return nanos / 1e6;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public void setMean(double mean) {
+            this.mean = mean;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public void setP50(double p50) {
+            this.p50 = p50;
+        }
+
+        public double getP90() {
+            return p90;
+        }
+
+        public void setP90(double p90) {
+            this.p90 = p90;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        public void setP99(double p99) {
+            this.p99 = p99;
+        }
+
+        public double getP999() {
+            return p999;
+        }
+
+        public void setP999(double p999) {
+            this.p999 = p999;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public void setMax(double max) {
+            this.max = max;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.grobid.core.engines.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.grobid.core.exceptions.GrobidException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * In-process benchmark of the processing of a corpus of documents from several threads: latency percentiles,
+ * throughput, and CPU time and heap allocation per document of the processing threads.
+ * <p>
+ * The corpus is processed first for the warm-up iterations, which are not recorded. Then each document is
+ * processed once per iteration, the documents being taken in order by the threads.
+ */
+public class PipelineBenchmark<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PipelineBenchmark.class);
+
+    // latencies up to one hour, with 3 significant digits
+    private static final long HIGHEST_LATENCY_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private final List<T> documents;
+    private final Consumer<T> processor;
+    private final int nbThreads;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    public PipelineBenchmark(List<T> documents, Consumer<T> processor, int nbThreads) {
+        this.documents = documents;
+        this.processor = processor;
+        this.nbThreads = nbThreads;
+    }
+
+    public BenchmarkReport run(int warmupIterations, int iterations) {
+        if (documents.isEmpty()) {
+            throw new GrobidException("No document to benchmark.");
+        }
+
+        LOGGER.info("Benchmark warm-up: " + warmupIterations + " iterations over " + documents.size() + " documents");
+        Measures warmup = process(warmupIterations);
+        LOGGER.info("Benchmark warm-up done in " + TimeUnit.NANOSECONDS.toMillis(warmup.elapsedNanos) + " ms");
+
+        LOGGER.info("Benchmark: " + iterations + " iterations over " + documents.size() + " documents with "
+            + nbThreads + " threads");
+        Measures measures = process(iterations);
+
+        BenchmarkReport report = new BenchmarkReport();
+        report.setThreads(nbThreads);
+        report.setDocuments(documents.size());
+        report.setWarmupIterations(warmupIterations);
+        report.setIterations(iterations);
+        report.setProcessed(measures.latencies.getTotalCount());
+        report.setErrors(measures.errors.sum());
+        report.setElapsedMs(TimeUnit.NANOSECONDS.toMillis(measures.elapsedNanos));
+        report.setThroughput(measures.latencies.getTotalCount() / (measures.elapsedNanos / 1e9));
+        report.setLatencyMs(BenchmarkReport.Latency.of(measures.latencies));
+
+        long processed = measures.latencies.getTotalCount();
+        report.setCpuMsPerDocument(isCpuTimeSupported() && processed > 0 ?
+            measures.cpuNanos.sum() / 1e6 / processed : -1);
+        report.setAllocatedBytesPerDocument(isAllocatedBytesSupported() && processed > 0 ?
+            measures.allocatedBytes.sum() / processed : -1);
+
+        LOGGER.info("Benchmark done: " + report.getProcessed() + " documents in " + report.getElapsedMs() + " ms, "
+            + String.format("%.1f", report.getThroughput()) + " documents/s, p99 "
+            + report.getLatencyMs().getP99() + " ms, " + report.getErrors() + " errors");
+        return report;
+    }
+
+    /**
+     * Process the documents the given number of times with the threads
+     */
+    private Measures process(int iterations) {
+        Measures measures = new Measures();
+        int total = documents.size() * iterations;
+        AtomicInteger next = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < nbThreads; i++) {
+                workers.add(executor.submit(() -> {
+                    int index;
+                    while ((index = next.getAndIncrement()) < total) {
+                        processDocument(documents.get(index % documents.size()), measures);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GrobidException("The benchmark was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new GrobidException("The benchmark failed.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        measures.elapsedNanos = System.nanoTime() - start;
+        return measures;
+    }
+
+    private void processDocument(T document, Measures measures) {
+        long cpuStart = currentThreadCpuTime();
+        long allocatedStart = currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        try {
+            processor.accept(document);
+        } catch (Exception e) {
+            LOGGER.warn("Cannot process the document, skipping it. ", e);
+            measures.errors.increment();
+            return;
+        }
+        measures.latencies.recordValue(Math.min(System.nanoTime() - start, HIGHEST_LATENCY_NANOS));
+        measures.cpuNanos.add(currentThreadCpuTime() - cpuStart);
+        measures.allocatedBytes.add(currentThreadAllocatedBytes() - allocatedStart);
+    }
+
+    private boolean isCpuTimeSupported() {
+        return threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+    }
+
+    private boolean isAllocatedBytesSupported() {
+        return threadMXBean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()
+            && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * @return the CPU time of the current thread in ns, 0 when it is not supported by the JVM
+     */
+    private long currentThreadCpuTime() {
+        return isCpuTimeSupported() ? threadMXBean.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * @return the bytes allocated in the heap by the current thread, 0 when it is not supported by the JVM
+     */
+    private long currentThreadAllocatedBytes() {
+        if (isAllocatedBytesSupported()) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static final class Measures {
+        private final Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY_NANOS, 3);
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private long elapsedNanos;
+    }
+}
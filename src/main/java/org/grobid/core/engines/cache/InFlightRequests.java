@@ -0,0 +1,91 @@
+package org.grobid.core.engines.cache;
+
+import org.grobid.core.exceptions.GrobidException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Deduplicate identical requests being processed at the same time.
+ * <p>
+ * The first request for a key runs the computation, the concurrent requests with the same key wait for
+ * it and share its result (or its exception). The key is released as soon as the computation finishes,
+ * so completed results are not kept here.
+ * <p>
+ * When the result is mutable, each waiting request gets its own copy of it, so that a request changing its
+ * result does not change the result of the others.
+ */
+public class InFlightRequests<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final UnaryOperator<V> copy;
+
+    public InFlightRequests() {
+        this(UnaryOperator.identity());
+    }
+
+    /**
+     * @param copy the copy of the result given to each request waiting for an identical request
+     */
+    public InFlightRequests(UnaryOperator<V> copy) {
+        this.copy = copy;
+    }
+
+    public V execute(K key, Supplier<V> computation) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            coalescedCount.incrementAndGet();
+            return copy.apply(await(running));
+        }
+
+        try {
+            V result = computation.get();
+            future.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private V await(CompletableFuture<V> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GrobidException("Interrupted while waiting for an identical request. ", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new GrobidException("An identical request failed. ", cause);
+        }
+    }
+
+    /**
+     * Number of requests which have been served by waiting on an identical request
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Number of computations currently running
+     */
+    public int size() {
+        return inFlight.size();
+    }
+}
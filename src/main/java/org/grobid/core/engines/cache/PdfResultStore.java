@@ -0,0 +1,240 @@
+package org.grobid.core.engines.cache;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.grobid.core.GrobidModel;
+import org.grobid.core.exceptions.GrobidException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Persistent, content-addressed store of PDF processing results.
+ * <p>
+ * Each entry is the JSON response of a processed PDF, stored on disk under a key computed from the
+ * SHA-256 of the PDF bytes and a version fingerprint (models, lexicon and processing options), so that
+ * a new model or lexicon never serves stale results.
+ * <p>
+ * The index is kept in memory and rebuilt from the directory at startup. When the capacity is exceeded,
+ * the least recently used entries are evicted and their files are deleted.
+ */
+public class PdfResultStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PdfResultStore.class);
+
+    /**
+     * Bump this when the layout of the stored response changes
+     **/
+    public static final String STORE_FORMAT_VERSION = "1";
+
+    private static final String ENTRY_EXTENSION = ".json";
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    private final Path directory;
+    private final long maxAgeHours;
+    private volatile String version;
+
+    // key -> size of the stored entry in bytes
+    private final Cache<String, Long> index;
+
+    public PdfResultStore(Path directory, String version, long maxEntries, long maxSizeBytes, long maxAgeHours) {
+        this(directory, version, maxEntries, maxSizeBytes, maxAgeHours, Ticker.systemTicker());
+    }
+
+    /**
+     * @param ticker the time source of the expiry of the entries
+     */
+    PdfResultStore(Path directory, String version, long maxEntries, long maxSizeBytes, long maxAgeHours, Ticker ticker) {
+        this.directory = directory;
+        this.maxAgeHours = maxAgeHours;
+        this.version = version;
+
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
+        if (maxSizeBytes > 0) {
+            builder.maximumWeight(maxSizeBytes)
+                .weigher((key, size) -> (int) Math.min((Long) size, Integer.MAX_VALUE));
+        } else if (maxEntries > 0) {
+            builder.maximumSize(maxEntries);
+        }
+        if (maxAgeHours > 0) {
+            builder.expireAfterWrite(maxAgeHours, TimeUnit.HOURS).ticker(ticker);
+        }
+        this.index = builder
+            .removalListener((RemovalListener<String, Long>) this::onRemoval)
+            .build();
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new GrobidException("Cannot create the PDF result store directory " + directory, e);
+        }
+        load();
+    }
+
+    /**
+     * Compute the fingerprint identifying the models, the lexicon and the options producing the
+     * stored results.
+     */
+    public static String fingerprint(List<GrobidModel> models, String lexiconFingerprint, String options) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putString(STORE_FORMAT_VERSION, UTF_8);
+
+        for (GrobidModel model : models) {
+            File modelFile = new File(model.getModelPath());
+            hasher.putString(model.getModelName(), UTF_8)
+                .putLong(modelFile.length())
+                .putLong(modelFile.lastModified());
+        }
+
+        hasher.putString(lexiconFingerprint, UTF_8);
+        hasher.putString(options, UTF_8);
+
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Compute the key of a PDF file, combining the SHA-256 of its content with the store version.
+     */
+    public String keyFor(File pdfFile) {
+        try {
+            String contentHash = com.google.common.io.Files.asByteSource(pdfFile).hash(Hashing.sha256()).toString();
+            return keyFor(contentHash);
+        } catch (IOException e) {
+            throw new GrobidException("Cannot read the PDF file " + pdfFile, e);
+        }
+    }
+
+    public String keyFor(String contentHash) {
+        return Hashing.sha256().newHasher()
+            .putString(contentHash, UTF_8)
+            .putString(version, UTF_8)
+            .hash()
+            .toString();
+    }
+
+    /**
+     * Return the path of the stored response for this key, or null if the key is not in the store.
+     */
+    public Path lookup(String key) {
+        if (index.getIfPresent(key) == null) {
+            return null;
+        }
+        Path entry = entryPath(key);
+        if (!Files.exists(entry)) {
+            index.invalidate(key);
+            return null;
+        }
+
+        return entry;
+    }
+
+    public boolean contains(String key) {
+        return lookup(key) != null;
+    }
+
+    public void put(String key, String json) {
+        Path entry = entryPath(key);
+        byte[] content = json.getBytes(UTF_8);
+        try {
+            Files.createDirectories(entry.getParent());
+            Path temp = entry.resolveSibling(key + TEMP_EXTENSION);
+            Files.write(temp, content);
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index.put(key, (long) content.length);
+        } catch (IOException e) {
+            // the store is an optimisation, a failing write should not fail the request
+            LOGGER.warn("Cannot write the entry " + key + " in the PDF result store. ", e);
+        }
+    }
+
+    public long size() {
+        return index.size();
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Change the version of the stored results (e.g. after a lexicon reload): the entries of the previous
+     * version are no longer returned and are evicted over time.
+     */
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    /**
+     * Rebuild the in-memory index from the entries present on disk, the oldest entries first
+     * so that they are the first ones to be evicted. The entries older than the maximum age are deleted.
+     */
+    private void load() {
+        List<Path> entries = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(directory, 2)) {
+            entries = stream
+                .filter(p -> p.getFileName().toString().endsWith(ENTRY_EXTENSION))
+                .sorted(Comparator.comparingLong(PdfResultStore::lastModified))
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            LOGGER.warn("Cannot list the PDF result store directory " + directory, e);
+        }
+
+        long expiredBefore = maxAgeHours > 0 ?
+            System.currentTimeMillis() - TimeUnit.HOURS.toMillis(maxAgeHours) : Long.MIN_VALUE;
+        for (Path entry : entries) {
+            String fileName = entry.getFileName().toString();
+            String key = fileName.substring(0, fileName.length() - ENTRY_EXTENSION.length());
+            try {
+                // the index would restart the age of the entry, the expired ones are removed here
+                if (lastModified(entry) < expiredBefore) {
+                    Files.deleteIfExists(entry);
+                    continue;
+                }
+                index.put(key, Files.size(entry));
+            } catch (IOException e) {
+                LOGGER.warn("Skipping unreadable entry " + entry, e);
+            }
+        }
+        LOGGER.info("PDF result store loaded from " + directory + ": " + index.size() + " entries.");
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private Path entryPath(String key) {
+        // two levels of directories to avoid too many files in a single directory
+        return directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_EXTENSION);
+    }
+
+    private void onRemoval(RemovalNotification<String, Long> notification) {
+        if (notification.getCause() == RemovalCause.REPLACED) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(entryPath(notification.getKey()));
+        } catch (IOException e) {
+            LOGGER.warn("Cannot delete the evicted entry " + notification.getKey(), e);
+        }
+    }
+}
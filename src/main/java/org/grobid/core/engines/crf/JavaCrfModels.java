@@ -0,0 +1,59 @@
+package org.grobid.core.engines.crf;
+
+import org.grobid.core.GrobidModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Models decoded with the pure Java CRF decoder instead of Wapiti. A model is decoded with Wapiti
+ * unless it has been enabled here.
+ */
+public class JavaCrfModels {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaCrfModels.class);
+
+    private static volatile JavaCrfModels instance;
+
+    public static JavaCrfModels getInstance() {
+        if (instance == null) {
+            getNewInstance();
+        }
+        return instance;
+    }
+
+    private static synchronized void getNewInstance() {
+        if (instance == null) {
+            instance = new JavaCrfModels();
+        }
+    }
+
+    private final ConcurrentMap<String, LinearChainCrf> models = new ConcurrentHashMap<>();
+
+    JavaCrfModels() {
+    }
+
+    /**
+     * Load the Wapiti model file of the model in the Java decoder, it is used for all the following labeling.
+     */
+    public void enable(GrobidModel model) {
+        models.computeIfAbsent(model.getModelName(), name -> {
+            LinearChainCrf crf = LinearChainCrf.load(new File(model.getModelPath()));
+            LOGGER.info("The model " + name + " is decoded with the Java CRF decoder (" + crf.getLabels().size() + " labels).");
+            return crf;
+        });
+    }
+
+    public void disable(GrobidModel model) {
+        models.remove(model.getModelName());
+    }
+
+    /**
+     * The Java decoder of the model, or null when the model is decoded with Wapiti
+     */
+    public LinearChainCrf get(GrobidModel model) {
+        return models.get(model.getModelName());
+    }
+}
@@ -0,0 +1,603 @@
+package org.grobid.core.engines.crf;
+
+import org.grobid.core.exceptions.GrobidException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Pure Java decoder for the linear-chain CRF models trained with Wapiti.
+ * <p>
+ * The model is read from the text format saved by Wapiti (patterns, labels, observations and the non-zero
+ * weights). The observations are expanded from the patterns as Wapiti does and the best label sequence is
+ * found with the same Viterbi decoding, summing the weights in the same order so that the labels are
+ * identical. Only the %x and %X pattern commands are supported, which covers the templates of the
+ * character-level models (values and units).
+ * <p>
+ * The decoder does not use any native code or lock: the model is immutable after loading and the decoding
+ * buffers are reused per thread.
+ */
+public class LinearChainCrf {
+
+    private static final int CRF_MODEL_TYPE = 2;
+
+    // values used by Wapiti for the positions out of the sequence
+    private static final String[] BEFORE_SEQUENCE = {"_x-1", "_x-2", "_x-3", "_x-4", "_x-#"};
+    private static final String[] AFTER_SEQUENCE = {"_x+1", "_x+2", "_x+3", "_x+4", "_x+#"};
+
+    private final String[] labels;
+    private final Pattern[] patterns;
+    private final ObservationTable observations;
+    private final double[] weights;
+
+    private final ThreadLocal<Decoder> decoders;
+
+    LinearChainCrf(String[] labels, Pattern[] patterns, ObservationTable observations, double[] weights) {
+        this.labels = labels;
+        this.patterns = patterns;
+        this.observations = observations;
+        this.weights = weights;
+        this.decoders = ThreadLocal.withInitial(Decoder::new);
+    }
+
+    public static LinearChainCrf load(File modelFile) {
+        try (InputStream is = open(modelFile)) {
+            return load(is);
+        } catch (IOException e) {
+            throw new GrobidException("Cannot read the CRF model " + modelFile, e);
+        }
+    }
+
+    public static LinearChainCrf load(InputStream modelStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(modelStream, UTF_8));
+
+        // #mdl#<type>#<number of active features>
+        String[] header = readHeader(reader, "#mdl#").split("#");
+        if (Integer.parseInt(header[0]) != CRF_MODEL_TYPE) {
+            throw new GrobidException("Only the CRF models are supported, model type: " + header[0]);
+        }
+
+        // #rdr#<number of patterns>/<number of columns>/<automatic unigrams>
+        String[] readerHeader = readHeader(reader, "#rdr#").split("/");
+        int nbPatterns = Integer.parseInt(readerHeader[0]);
+        if (readerHeader.length > 2 && !"0".equals(readerHeader[2])) {
+            throw new GrobidException("The models with automatic unigrams are not supported.");
+        }
+        Pattern[] patterns = new Pattern[nbPatterns];
+        for (int i = 0; i < nbPatterns; i++) {
+            patterns[i] = Pattern.compile(readString(reader));
+        }
+
+        int nbLabels = Integer.parseInt(readHeader(reader, "#qrk#"));
+        String[] labels = new String[nbLabels];
+        for (int i = 0; i < nbLabels; i++) {
+            labels[i] = readString(reader);
+        }
+
+        int nbObservations = Integer.parseInt(readHeader(reader, "#qrk#"));
+        ObservationTable observations = new ObservationTable(nbObservations);
+        int nbFeatures = 0;
+        for (int i = 0; i < nbObservations; i++) {
+            String observation = readString(reader);
+            // the features of an observation are allocated in the order of the observations
+            int unigramOffset = -1;
+            int bigramOffset = -1;
+            switch (Character.toLowerCase(observation.charAt(0))) {
+                case 'u':
+                    unigramOffset = nbFeatures;
+                    nbFeatures += nbLabels;
+                    break;
+                case 'b':
+                    bigramOffset = nbFeatures;
+                    nbFeatures += nbLabels * nbLabels;
+                    break;
+                case '*':
+                    unigramOffset = nbFeatures;
+                    nbFeatures += nbLabels;
+                    bigramOffset = nbFeatures;
+                    nbFeatures += nbLabels * nbLabels;
+                    break;
+                default:
+                    break;
+            }
+            observations.put(observation, unigramOffset, bigramOffset);
+        }
+
+        double[] weights = new double[nbFeatures];
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            int separator = line.indexOf('=');
+            if (separator == -1) {
+                throw new GrobidException("Invalid weight in the CRF model: " + line);
+            }
+            // the weights are saved as hexadecimal floating point numbers
+            weights[Integer.parseInt(line.substring(0, separator))] = Double.parseDouble(line.substring(separator + 1));
+        }
+
+        return new LinearChainCrf(labels, patterns, observations, weights);
+    }
+
+    private static InputStream open(File modelFile) throws IOException {
+        InputStream is = new BufferedInputStream(new FileInputStream(modelFile));
+        is.mark(2);
+        int first = is.read();
+        int second = is.read();
+        is.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new GZIPInputStream(is);
+        }
+        return is;
+    }
+
+    private static String readHeader(BufferedReader reader, String prefix) throws IOException {
+        String line = reader.readLine();
+        if (line == null || !line.startsWith(prefix)) {
+            throw new GrobidException("Invalid CRF model, expecting " + prefix + " but found: " + line);
+        }
+        return line.substring(prefix.length());
+    }
+
+    /**
+     * Strings are saved as <length in bytes>:<string>, on their own line
+     */
+    private static String readString(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        int start = line == null ? -1 : line.indexOf(':');
+        if (start == -1 || !line.endsWith(",")) {
+            throw new GrobidException("Invalid string in the CRF model: " + line);
+        }
+        return line.substring(start + 1, line.length() - 1);
+    }
+
+    public List<String> getLabels() {
+        return Arrays.asList(labels);
+    }
+
+    /**
+     * Label the rows of features, with the same input and output as the Wapiti tagger: one row per line
+     * with the columns separated by spaces or tabulations, and each row returned followed by a tabulation
+     * and its label. Empty lines separate the sequences.
+     */
+    public String label(String features) {
+        Decoder decoder = decoders.get();
+        StringBuilder result = new StringBuilder(features.length() + features.length() / 2);
+
+        decoder.reset();
+        int lineStart = 0;
+        int length = features.length();
+        while (lineStart <= length) {
+            int lineEnd = features.indexOf('\n', lineStart);
+            if (lineEnd == -1) {
+                lineEnd = length;
+            }
+            int end = lineEnd;
+            if (end > lineStart && features.charAt(end - 1) == '\r') {
+                end--;
+            }
+            if (isBlankLine(features, lineStart, end)) {
+                decodeSequence(decoder, features, result);
+                decoder.reset();
+            } else {
+                decoder.addRow(features, lineStart, end);
+            }
+            lineStart = lineEnd + 1;
+        }
+        decodeSequence(decoder, features, result);
+
+        return result.toString();
+    }
+
+    /**
+     * Label a sequence of rows of features, returning the index of the label of each row in getLabels()
+     */
+    public int[] labelIndexes(String features) {
+        Decoder decoder = decoders.get();
+        decoder.reset();
+        int lineStart = 0;
+        int length = features.length();
+        while (lineStart < length) {
+            int lineEnd = features.indexOf('\n', lineStart);
+            if (lineEnd == -1) {
+                lineEnd = length;
+            }
+            if (!isBlankLine(features, lineStart, lineEnd)) {
+                decoder.addRow(features, lineStart, lineEnd);
+            }
+            lineStart = lineEnd + 1;
+        }
+        viterbi(decoder, features);
+        return Arrays.copyOf(decoder.path, decoder.nbRows);
+    }
+
+    private static boolean isBlankLine(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void decodeSequence(Decoder decoder, String features, StringBuilder result) {
+        if (decoder.nbRows == 0) {
+            return;
+        }
+        viterbi(decoder, features);
+        for (int t = 0; t < decoder.nbRows; t++) {
+            result.append(features, decoder.rowStarts[t], decoder.rowEnds[t])
+                .append('\t')
+                .append(labels[decoder.path[t]])
+                .append('\n');
+        }
+        result.append('\n');
+    }
+
+    /**
+     * Viterbi decoding in log-space, following the order of the operations of Wapiti
+     */
+    private void viterbi(Decoder decoder, String features) {
+        int nbRows = decoder.nbRows;
+        int nbLabels = labels.length;
+        decoder.ensureLatticeCapacity(nbRows, nbLabels);
+
+        double[] unigrams = decoder.unigrams;
+        double[] previous = decoder.previous;
+        double[] current = decoder.current;
+        int[] back = decoder.back;
+
+        for (int t = 0; t < nbRows; t++) {
+            decoder.collectObservations(features, t);
+
+            // sum of the weights of the unigram features, for each label the weights are added in the order
+            // of the observations as in Wapiti
+            Arrays.fill(unigrams, 0, nbLabels, 0.0);
+            for (int n = 0; n < decoder.nbUnigrams; n++) {
+                int offset = decoder.unigramOffsets[n];
+                for (int y = 0; y < nbLabels; y++) {
+                    unigrams[y] += weights[offset + y];
+                }
+            }
+
+            if (t == 0) {
+                System.arraycopy(unigrams, 0, current, 0, nbLabels);
+            } else {
+                for (int y = 0; y < nbLabels; y++) {
+                    double best = Double.NEGATIVE_INFINITY;
+                    int bestPrevious = 0;
+                    for (int yp = 0; yp < nbLabels; yp++) {
+                        double bigram = 0.0;
+                        int d = yp * nbLabels + y;
+                        for (int n = 0; n < decoder.nbBigrams; n++) {
+                            bigram += weights[decoder.bigramOffsets[n] + d];
+                        }
+                        double value = previous[yp] + (unigrams[y] + bigram);
+                        if (value > best) {
+                            best = value;
+                            bestPrevious = yp;
+                        }
+                    }
+                    back[t * nbLabels + y] = bestPrevious;
+                    current[y] = best;
+                }
+            }
+            double[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        // previous holds the scores of the last position
+        int best = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int y = 0; y < nbLabels; y++) {
+            if (previous[y] > bestScore) {
+                bestScore = previous[y];
+                best = y;
+            }
+        }
+        for (int t = nbRows - 1; t > 0; t--) {
+            decoder.path[t] = best;
+            best = back[t * nbLabels + best];
+        }
+        decoder.path[0] = best;
+    }
+
+    /**
+     * Reusable buffers of the decoding, one per thread
+     */
+    private final class Decoder {
+        int nbRows = 0;
+        int[] rowStarts = new int[64];
+        int[] rowEnds = new int[64];
+
+        // start and end of each column of each row, the columns of a row follow the ones of the previous row
+        int[] firstColumns = new int[65];
+        int[] columnStarts = new int[256];
+        int[] columnEnds = new int[256];
+        int nbColumns = 0;
+
+        char[] buffer = new char[128];
+        int bufferLength = 0;
+        int bufferHash = 0;
+
+        int[] unigramOffsets = new int[patterns.length];
+        int[] bigramOffsets = new int[patterns.length];
+        int nbUnigrams = 0;
+        int nbBigrams = 0;
+
+        double[] unigrams = new double[0];
+        double[] previous = new double[0];
+        double[] current = new double[0];
+        int[] back = new int[0];
+        int[] path = new int[64];
+
+        void reset() {
+            nbRows = 0;
+            nbColumns = 0;
+        }
+
+        void addRow(String text, int start, int end) {
+            if (nbRows == rowStarts.length) {
+                rowStarts = Arrays.copyOf(rowStarts, nbRows * 2);
+                rowEnds = Arrays.copyOf(rowEnds, nbRows * 2);
+                firstColumns = Arrays.copyOf(firstColumns, nbRows * 2 + 1);
+            }
+            rowStarts[nbRows] = start;
+            rowEnds[nbRows] = end;
+            firstColumns[nbRows] = nbColumns;
+
+            int i = start;
+            while (i < end) {
+                while (i < end && isSeparator(text.charAt(i))) {
+                    i++;
+                }
+                if (i == end) {
+                    break;
+                }
+                int columnStart = i;
+                while (i < end && !isSeparator(text.charAt(i))) {
+                    i++;
+                }
+                if (nbColumns == columnStarts.length) {
+                    columnStarts = Arrays.copyOf(columnStarts, nbColumns * 2);
+                    columnEnds = Arrays.copyOf(columnEnds, nbColumns * 2);
+                }
+                columnStarts[nbColumns] = columnStart;
+                columnEnds[nbColumns] = i;
+                nbColumns++;
+            }
+            nbRows++;
+            firstColumns[nbRows] = nbColumns;
+        }
+
+        void ensureLatticeCapacity(int rows, int nbLabels) {
+            if (unigrams.length < nbLabels) {
+                unigrams = new double[nbLabels];
+                previous = new double[nbLabels];
+                current = new double[nbLabels];
+            }
+            if (back.length < rows * nbLabels) {
+                back = new int[rows * nbLabels * 2];
+            }
+            if (path.length < rows) {
+                path = new int[rows * 2];
+            }
+        }
+
+        /**
+         * Expand the patterns at the position t and keep the offsets of the weights of the known observations
+         */
+        void collectObservations(String text, int t) {
+            nbUnigrams = 0;
+            nbBigrams = 0;
+            for (Pattern pattern : patterns) {
+                bufferLength = 0;
+                bufferHash = 0;
+                for (PatternItem item : pattern.items) {
+                    if (item.literal != null) {
+                        append(item.literal, 0, item.literal.length(), false);
+                        continue;
+                    }
+                    int position = t + item.offset;
+                    if (position < 0) {
+                        String value = BEFORE_SEQUENCE[Math.min(-position - 1, 4)];
+                        append(value, 0, value.length(), item.lowercase);
+                    } else if (position >= nbRows) {
+                        String value = AFTER_SEQUENCE[Math.min(position - nbRows, 4)];
+                        append(value, 0, value.length(), item.lowercase);
+                    } else {
+                        int column = firstColumns[position] + item.column;
+                        if (column >= firstColumns[position + 1]) {
+                            throw new GrobidException("Missing column " + item.column + " at the row "
+                                + text.substring(rowStarts[position], rowEnds[position]));
+                        }
+                        append(text, columnStarts[column], columnEnds[column], item.lowercase);
+                    }
+                }
+                int index = observations.find(buffer, bufferLength, bufferHash);
+                if (index == -1) {
+                    continue;
+                }
+                int unigramOffset = observations.unigramOffsets[index];
+                if (unigramOffset != -1) {
+                    unigramOffsets[nbUnigrams++] = unigramOffset;
+                }
+                int bigramOffset = observations.bigramOffsets[index];
+                if (bigramOffset != -1 && t > 0) {
+                    bigramOffsets[nbBigrams++] = bigramOffset;
+                }
+            }
+        }
+
+        private void append(String value, int start, int end, boolean lowercase) {
+            int length = end - start;
+            if (bufferLength + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, bufferLength + length));
+            }
+            for (int i = start; i < end; i++) {
+                char c = value.charAt(i);
+                // as tolower in C, only the ASCII characters are changed
+                if (lowercase && c >= 'A' && c <= 'Z') {
+                    c = (char) (c + ('a' - 'A'));
+                }
+                buffer[bufferLength++] = c;
+                // same hash as String.hashCode(), computed while the observation is built
+                bufferHash = 31 * bufferHash + c;
+            }
+        }
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * Compiled Wapiti pattern, e.g. u09:%x[-1,0]/%x[0,0]
+     */
+    static final class Pattern {
+        final PatternItem[] items;
+
+        private Pattern(PatternItem[] items) {
+            this.items = items;
+        }
+
+        static Pattern compile(String source) {
+            List<PatternItem> items = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int i = 0;
+            while (i < source.length()) {
+                char c = source.charAt(i);
+                if (c != '%') {
+                    literal.append(c);
+                    i++;
+                    continue;
+                }
+                if (i + 1 >= source.length()) {
+                    throw new GrobidException("Invalid pattern " + source);
+                }
+                char command = source.charAt(i + 1);
+                if (command != 'x' && command != 'X') {
+                    throw new GrobidException("Unsupported command %" + command + " in the pattern " + source);
+                }
+                int close = source.indexOf(']', i);
+                if (source.charAt(i + 2) != '[' || close == -1) {
+                    throw new GrobidException("Invalid pattern " + source);
+                }
+                String[] arguments = source.substring(i + 3, close).split(",");
+                if (arguments.length != 2 || arguments[0].trim().startsWith("@")) {
+                    throw new GrobidException("Unsupported reference in the pattern " + source);
+                }
+                if (literal.length() > 0) {
+                    items.add(new PatternItem(literal.toString()));
+                    literal.setLength(0);
+                }
+                items.add(new PatternItem(Integer.parseInt(arguments[0].trim()), Integer.parseInt(arguments[1].trim()),
+                    command == 'X'));
+                i = close + 1;
+            }
+            if (literal.length() > 0) {
+                items.add(new PatternItem(literal.toString()));
+            }
+            return new Pattern(items.toArray(new PatternItem[0]));
+        }
+    }
+
+    static final class PatternItem {
+        final String literal;
+        final int offset;
+        final int column;
+        final boolean lowercase;
+
+        PatternItem(String literal) {
+            this.literal = literal;
+            this.offset = 0;
+            this.column = 0;
+            this.lowercase = false;
+        }
+
+        PatternItem(int offset, int column, boolean lowercase) {
+            this.literal = null;
+            this.offset = offset;
+            this.column = column;
+            this.lowercase = lowercase;
+        }
+    }
+
+    /**
+     * Open addressing table of the observations, looked up directly from the characters of the expanded
+     * pattern so that no string is created while decoding.
+     */
+    static final class ObservationTable {
+        private final String[] keys;
+        private final int[] slots;
+        final int[] unigramOffsets;
+        final int[] bigramOffsets;
+        private int size = 0;
+
+        ObservationTable(int capacity) {
+            int tableSize = Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) * 2;
+            slots = new int[tableSize];
+            Arrays.fill(slots, -1);
+            keys = new String[capacity];
+            unigramOffsets = new int[capacity];
+            bigramOffsets = new int[capacity];
+        }
+
+        void put(String key, int unigramOffset, int bigramOffset) {
+            int mask = slots.length - 1;
+            int slot = spread(key.hashCode()) & mask;
+            while (slots[slot] != -1) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = size;
+            keys[size] = key;
+            unigramOffsets[size] = unigramOffset;
+            bigramOffsets[size] = bigramOffset;
+            size++;
+        }
+
+        int find(char[] chars, int length, int hash) {
+            int mask = slots.length - 1;
+            int slot = spread(hash) & mask;
+            while (slots[slot] != -1) {
+                int index = slots[slot];
+                if (equals(keys[index], chars, length)) {
+                    return index;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        // the observations share long prefixes, the hash codes are mixed to avoid clusters in the table
+        private static int spread(int hash) {
+            int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        private static boolean equals(String key, char[] chars, int length) {
+            if (key.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (key.charAt(i) != chars[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
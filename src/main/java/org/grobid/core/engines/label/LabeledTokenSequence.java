@@ -0,0 +1,230 @@
+package org.grobid.core.engines.label;
+
+import org.grobid.core.GrobidModel;
+import org.grobid.core.engines.tagging.GenericTaggerUtils;
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.layout.LayoutToken;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Labels of a sequence of tokens, read in a single pass from the result of the CRF.
+ * <p>
+ * Each labeled row is aligned with the layout tokens and stored as an index in the list of distinct
+ * labels of the result, together with the range of layout tokens it covers (including the preceding
+ * spaces, which have no row). The clusters are then built directly from these indexes, without the
+ * intermediate token containers of the TaggingTokenClusteror, with the same grouping: a new cluster
+ * starts when the label changes or when the label marks the beginning of an entity (I- prefix).
+ */
+public final class LabeledTokenSequence {
+
+    private final List<LayoutToken> tokens;
+
+    // distinct raw labels (with prefix), their tagging label and beginning flag
+    private final List<String> rawLabels = new ArrayList<>();
+    private final List<TaggingLabel> labels = new ArrayList<>();
+    private final List<Boolean> beginnings = new ArrayList<>();
+
+    // for each row: the index of its label and the end (exclusive) of its range of layout tokens
+    private int[] labelIndexes;
+    private int[] tokenEnds;
+    private int size = 0;
+
+    private LabeledTokenSequence(List<LayoutToken> tokens, int capacity) {
+        this.tokens = tokens;
+        this.labelIndexes = new int[capacity];
+        this.tokenEnds = new int[capacity];
+    }
+
+    /**
+     * Read the labeled result of the CRF, one row per line with the token as first field and the label
+     * as last field, and align it with the layout tokens used to produce the features.
+     */
+    public static LabeledTokenSequence parse(GrobidModel model, String result, List<LayoutToken> tokens) {
+        LabeledTokenSequence sequence = new LabeledTokenSequence(tokens, Math.max(16, tokens.size()));
+        if (result == null) {
+            return sequence;
+        }
+
+        int tokenPosition = 0;
+        int lineStart = 0;
+        int length = result.length();
+        while (lineStart < length) {
+            int lineEnd = result.indexOf('\n', lineStart);
+            if (lineEnd == -1) {
+                lineEnd = length;
+            }
+
+            // trim the line
+            int start = lineStart;
+            int end = lineEnd;
+            while (start < end && Character.isWhitespace(result.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(result.charAt(end - 1))) {
+                end--;
+            }
+
+            if (start < end) {
+                int tokenEnd = start;
+                while (tokenEnd < end && !isSeparator(result.charAt(tokenEnd))) {
+                    tokenEnd++;
+                }
+                int labelStart = end;
+                while (labelStart > start && !isSeparator(result.charAt(labelStart - 1))) {
+                    labelStart--;
+                }
+
+                // the layout tokens without a row (spaces, line breaks) are attached to the next row
+                int tokenLength = tokenEnd - start;
+                while (tokenPosition < tokens.size() && isWhitespace(tokens.get(tokenPosition))) {
+                    tokenPosition++;
+                }
+                if (tokenPosition == tokens.size() || !matches(tokens.get(tokenPosition), result, start, tokenLength)) {
+                    throw new GrobidException("Cannot align the labeled token '" + result.substring(start, tokenEnd)
+                        + "' with the layout token "
+                        + (tokenPosition == tokens.size() ? "(none left)" : "'" + tokens.get(tokenPosition).getText() + "'")
+                        + " at position " + tokenPosition + ".");
+                }
+                tokenPosition++;
+
+                sequence.add(model, result, labelStart, end, tokenPosition);
+            }
+            lineStart = lineEnd + 1;
+        }
+
+        return sequence;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * Whether the layout token has no row in the features: spaces, line breaks and the @newline markers
+     */
+    private static boolean isWhitespace(LayoutToken token) {
+        String text = token.getText();
+        return isBlank(text) || text.trim().equals("@newline");
+    }
+
+    private static boolean matches(LayoutToken token, String result, int start, int length) {
+        String text = token.getText();
+        return text != null && text.length() == length && result.regionMatches(start, text, 0, length);
+    }
+
+    private void add(GrobidModel model, String result, int labelStart, int labelEnd, int tokenEnd) {
+        if (size == labelIndexes.length) {
+            labelIndexes = Arrays.copyOf(labelIndexes, size * 2);
+            tokenEnds = Arrays.copyOf(tokenEnds, size * 2);
+        }
+        labelIndexes[size] = labelIndex(model, result, labelStart, labelEnd);
+        tokenEnds[size] = tokenEnd;
+        size++;
+    }
+
+    private int labelIndex(GrobidModel model, String result, int labelStart, int labelEnd) {
+        int labelLength = labelEnd - labelStart;
+        // very few distinct labels, a linear scan avoids creating a string for each row
+        for (int i = 0; i < rawLabels.size(); i++) {
+            String rawLabel = rawLabels.get(i);
+            if (rawLabel.length() == labelLength && result.regionMatches(labelStart, rawLabel, 0, labelLength)) {
+                return i;
+            }
+        }
+        String rawLabel = result.substring(labelStart, labelEnd);
+        rawLabels.add(rawLabel);
+        labels.add(TaggingLabels.labelFor(model, rawLabel));
+        beginnings.add(GenericTaggerUtils.isBeginningOfEntity(rawLabel));
+        return rawLabels.size() - 1;
+    }
+
+    /**
+     * Number of labeled rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The distinct labels of the sequence, the label indexes refer to this list
+     */
+    public List<TaggingLabel> getLabels() {
+        return Collections.unmodifiableList(labels);
+    }
+
+    public int getLabelIndex(int row) {
+        return labelIndexes[row];
+    }
+
+    public TaggingLabel getLabel(int row) {
+        return labels.get(labelIndexes[row]);
+    }
+
+    public boolean isBeginning(int row) {
+        return beginnings.get(labelIndexes[row]);
+    }
+
+    public List<Cluster> cluster() {
+        List<Cluster> clusters = new ArrayList<>();
+        int clusterStart = 0;
+        for (int row = 0; row < size; row++) {
+            if (row > 0 && (isBeginning(row) || !getLabel(row).equals(getLabel(row - 1)))) {
+                clusters.add(new Cluster(this, clusterStart, row));
+                clusterStart = row;
+            }
+        }
+        if (size > 0) {
+            clusters.add(new Cluster(this, clusterStart, size));
+        }
+        return clusters;
+    }
+
+    /**
+     * Consecutive rows with the same label
+     */
+    public static final class Cluster {
+        private final LabeledTokenSequence sequence;
+        private final int firstRow;
+        private final int lastRow;
+
+        private Cluster(LabeledTokenSequence sequence, int firstRow, int endRow) {
+            this.sequence = sequence;
+            this.firstRow = firstRow;
+            this.lastRow = endRow - 1;
+        }
+
+        public TaggingLabel getTaggingLabel() {
+            return sequence.getLabel(firstRow);
+        }
+
+        /**
+         * The layout tokens of the cluster, including the spaces before each row
+         */
+        public List<LayoutToken> concatTokens() {
+            int start = firstRow == 0 ? 0 : sequence.tokenEnds[firstRow - 1];
+            return sequence.tokens.subList(start, sequence.tokenEnds[lastRow]);
+        }
+
+        /**
+         * Whether the last token of the cluster is followed by a space
+         */
+        public boolean isTrailingSpace() {
+            int next = sequence.tokenEnds[lastRow];
+            return next < sequence.tokens.size() && " ".equals(sequence.tokens.get(next).getText());
+        }
+
+        public int getFirstRow() {
+            return firstRow;
+        }
+
+        public int getLastRow() {
+            return lastRow;
+        }
+    }
+}
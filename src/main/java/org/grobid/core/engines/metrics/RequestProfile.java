@@ -0,0 +1,129 @@
+package org.grobid.core.engines.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Breakdown of the processing of a single request: elapsed time of each stage, counts of processed tokens,
+ * sequences and measurements, and hits and misses of the caches. The stages timed by {@link StageMetrics} and
+ * the cache lookups are recorded in the profile of the current thread, if any. The JSON serialisation of the
+ * response, which includes the profile, is done once the profile is complete and is not part of it.
+ * <p>
+ * A profile is filled by the thread processing the request, it is not thread-safe.
+ */
+public class RequestProfile {
+
+    private static final ThreadLocal<RequestProfile> current = new ThreadLocal<>();
+
+    private final Map<String, Long> times = new LinkedHashMap<>();
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+    private final Map<String, long[]> caches = new LinkedHashMap<>();
+    private long totalNanos = -1;
+
+    /**
+     * @return the profile of the request processed by the current thread, null when it is not profiled
+     */
+    public static RequestProfile current() {
+        return current.get();
+    }
+
+    /**
+     * Run the action recording its stages in this profile
+     */
+    public <T> T record(Supplier<T> action) {
+        RequestProfile previous = current.get();
+        current.set(this);
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            totalNanos = System.nanoTime() - start;
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    public void addTime(String stage, long nanos) {
+        times.merge(stage, nanos, Long::sum);
+    }
+
+    public void addCount(String name, long n) {
+        counts.merge(name, n, Long::sum);
+    }
+
+    public void addCacheLookup(String cache, boolean hit) {
+        caches.computeIfAbsent(cache, c -> new long[2])[hit ? 0 : 1]++;
+    }
+
+    /**
+     * @return the elapsed time in ms of each stage, in the order they were first run
+     */
+    public Map<String, Double> getTimes() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        times.forEach((stage, nanos) -> result.put(stage, toMillis(nanos)));
+        return result;
+    }
+
+    public Map<String, Long> getCounts() {
+        return counts;
+    }
+
+    public long getCacheHits(String cache) {
+        long[] lookups = caches.get(cache);
+        return lookups == null ? 0 : lookups[0];
+    }
+
+    public long getCacheMisses(String cache) {
+        long[] lookups = caches.get(cache);
+        return lookups == null ? 0 : lookups[1];
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", toMillis(nanos));
+    }
+
+    public String toJson() {
+        StringBuilder jsonBuilder = new StringBuilder();
+        jsonBuilder.append("{\"total\": ").append(totalNanos < 0 ? "null" : formatMillis(totalNanos));
+
+        jsonBuilder.append(", \"stages\": {");
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : times.entrySet()) {
+            if (!first)
+                jsonBuilder.append(", ");
+            first = false;
+            jsonBuilder.append("\"").append(entry.getKey()).append("\": ").append(formatMillis(entry.getValue()));
+        }
+
+        jsonBuilder.append("}, \"counts\": {");
+        first = true;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (!first)
+                jsonBuilder.append(", ");
+            first = false;
+            jsonBuilder.append("\"").append(entry.getKey()).append("\": ").append(entry.getValue());
+        }
+
+        jsonBuilder.append("}, \"caches\": {");
+        first = true;
+        for (Map.Entry<String, long[]> entry : caches.entrySet()) {
+            if (!first)
+                jsonBuilder.append(", ");
+            first = false;
+            jsonBuilder.append("\"").append(entry.getKey()).append("\": {\"hits\": ").append(entry.getValue()[0])
+                .append(", \"misses\": ").append(entry.getValue()[1]).append("}");
+        }
+        jsonBuilder.append("}}");
+
+        return jsonBuilder.toString();
+    }
+}
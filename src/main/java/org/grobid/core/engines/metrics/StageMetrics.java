@@ -0,0 +1,184 @@
+package org.grobid.core.engines.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.grobid.core.GrobidModel;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers of the stages of the measurement extraction and counters of the processed tokens, sequences and
+ * measurements, registered in the metric registry of the service, and recorded in the {@link RequestProfile}
+ * of the current thread when the request is profiled.
+ * <p>
+ * The stages are nested: e.g. the value parsing and the bounding boxes are part of the measurement extraction,
+ * the unit parsing is part of the normalisation, the labeling of a model includes its queueing delay when the
+ * labeling calls are batched.
+ */
+public class StageMetrics {
+
+    public enum Stage {
+        TOKENISATION("tokenisation"),
+        UNIT_MATCHING("unitMatching"),
+        FEATURES("features"),
+        EXTRACTION("extractMeasurement"),
+        VALUE_PARSING("valueParsing"),
+        UNIT_PARSING("unitParsing"),
+        NORMALISATION("normalisation"),
+        SENTENCE_PARSING("sentenceParsing"),
+        QUANTIFIED_OBJECTS("quantifiedObjects"),
+        BOUNDING_BOXES("boundingBoxes"),
+        JSON_SERIALISATION("jsonSerialisation"),
+        // the quantities pipeline on a segment of tokens, the stages above except the tokenisation of the raw text
+        QUANTITY_PARSING("quantityParsing"),
+        // the GROBID parsing of the PDF documents
+        PDF_PARSING("grobid.pdf"),
+        SEGMENTATION("grobid.segmentation"),
+        HEADER("grobid.header"),
+        FULLTEXT("grobid.fulltext"),
+        FIGURE("grobid.figure"),
+        TABLE("grobid.table");
+
+        private final String name;
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public enum Count {
+        TOKENS("tokens"),
+        SEQUENCES("sequences"),
+        MEASUREMENTS("measurements");
+
+        private final String name;
+
+        Count(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static volatile StageMetrics instance;
+
+    public static StageMetrics getInstance() {
+        if (instance == null) {
+            getNewInstance();
+        }
+        return instance;
+    }
+
+    private static synchronized void getNewInstance() {
+        if (instance == null) {
+            instance = new StageMetrics(new MetricRegistry());
+        }
+    }
+
+    private volatile Metrics metrics;
+
+    StageMetrics(MetricRegistry metricRegistry) {
+        this.metrics = new Metrics(metricRegistry);
+    }
+
+    /**
+     * Register the metrics in the registry, a standalone registry is used until then
+     */
+    public synchronized void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metrics = new Metrics(metricRegistry);
+    }
+
+    public MetricRegistry getMetricRegistry() {
+        return metrics.registry;
+    }
+
+    /**
+     * Start the timer of the stage, stopped when the timing is closed
+     */
+    public Timing time(Stage stage) {
+        return new Timing(stage.getName(), metrics.stages.get(stage));
+    }
+
+    public <T> T time(Stage stage, Supplier<T> action) {
+        try (Timing ignored = time(stage)) {
+            return action.get();
+        }
+    }
+
+    /**
+     * Start the timer of the labeling with the model, stopped when the timing is closed
+     */
+    public Timing timeLabel(GrobidModel model) {
+        Metrics current = metrics;
+        String name = "label." + model.getModelName();
+        return new Timing(name, current.labels.computeIfAbsent(name, key ->
+            current.registry.timer(MetricRegistry.name(StageMetrics.class, key))
+        ));
+    }
+
+    public void count(Count count, long n) {
+        metrics.counts.get(count).inc(n);
+        RequestProfile profile = RequestProfile.current();
+        if (profile != null) {
+            profile.addCount(count.getName(), n);
+        }
+    }
+
+    /**
+     * Running timer of a stage
+     */
+    public static final class Timing implements AutoCloseable {
+        private final String stage;
+        private final Timer timer;
+        private final RequestProfile profile;
+        private final long start;
+
+        private Timing(String stage, Timer timer) {
+            this.stage = stage;
+            this.timer = timer;
+            this.profile = RequestProfile.current();
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            long elapsed = System.nanoTime() - start;
+            timer.update(elapsed, TimeUnit.NANOSECONDS);
+            if (profile != null) {
+                profile.addTime(stage, elapsed);
+            }
+        }
+    }
+
+    /**
+     * The metrics of a registry
+     */
+    private static final class Metrics {
+        private final MetricRegistry registry;
+        private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+        private final Map<Count, Counter> counts = new EnumMap<>(Count.class);
+        private final ConcurrentMap<String, Timer> labels = new ConcurrentHashMap<>();
+
+        private Metrics(MetricRegistry registry) {
+            this.registry = registry;
+            for (Stage stage : Stage.values()) {
+                stages.put(stage, registry.timer(MetricRegistry.name(StageMetrics.class, stage.getName())));
+            }
+            for (Count count : Count.values()) {
+                counts.put(count, registry.counter(MetricRegistry.name(StageMetrics.class, count.getName())));
+            }
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package org.grobid.core.engines.tagging;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.grobid.core.exceptions.GrobidException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Gather the labeling calls of concurrent requests on the same model and label them together.
+ * <p>
+ * The sequences submitted while a worker is waiting, for at most maxDelay after the first one or until
+ * maxBatchSize calls are collected, are concatenated (separated by an empty line) and labeled with a single
+ * call of the CRF. The result is split by sequence and each caller receives the part of its own sequences,
+ * identical to the result of labeling them alone.
+ */
+public class LabelingBatcher implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LabelingBatcher.class);
+
+    private final String name;
+    private final Function<String, String> labeler;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+
+    private final BlockingQueue<Call> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean closed = false;
+
+    private final Histogram batchSizes;
+    private final Timer queueDelays;
+
+    /**
+     * @param labeler       labels a string of one or several sequences of features in a single call
+     * @param maxDelayNanos maximum time a call waits for other calls before being labeled
+     * @param nbWorkers     number of batches labeled at the same time
+     */
+    public LabelingBatcher(String name, Function<String, String> labeler, int maxBatchSize, long maxDelayNanos,
+                           int nbWorkers, MetricRegistry metricRegistry) {
+        this.name = name;
+        this.labeler = labeler;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayNanos = Math.max(0, maxDelayNanos);
+        this.batchSizes = metricRegistry.histogram(MetricRegistry.name(LabelingBatcher.class, name, "batchSize"));
+        this.queueDelays = metricRegistry.timer(MetricRegistry.name(LabelingBatcher.class, name, "queueDelay"));
+
+        for (int i = 0; i < Math.max(1, nbWorkers); i++) {
+            Thread worker = new Thread(this::run, "labeling-batcher-" + name + "-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Label the sequences of features, together with the ones of the concurrent calls
+     */
+    public String label(String features) {
+        int nbSequences = countSequences(features);
+        if (nbSequences == 0 || closed) {
+            return labeler.apply(features);
+        }
+
+        Call call = new Call(features, nbSequences);
+        queue.add(call);
+        if (closed && queue.remove(call)) {
+            // closed after the workers stopped, the call will not be taken from the queue
+            return labeler.apply(features);
+        }
+        try {
+            return call.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GrobidException("Interrupted while waiting for the labeling of the " + name + " model. ", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new GrobidException("The labeling of the " + name + " model failed. ", cause);
+        }
+    }
+
+    private void run() {
+        List<Call> batch = new ArrayList<>(maxBatchSize);
+        while (!closed) {
+            try {
+                Call first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.submitted + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Call next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                labelBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException | Error e) {
+                for (Call call : batch) {
+                    call.result.completeExceptionally(e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+        // the calls submitted while closing are labeled one by one
+        Call call;
+        while ((call = queue.poll()) != null) {
+            labelAlone(call);
+        }
+    }
+
+    private void labelBatch(List<Call> batch) {
+        long start = System.nanoTime();
+        batchSizes.update(batch.size());
+        for (Call call : batch) {
+            queueDelays.update(start - call.submitted, TimeUnit.NANOSECONDS);
+        }
+
+        if (batch.size() == 1) {
+            labelAlone(batch.get(0));
+            return;
+        }
+
+        StringBuilder input = new StringBuilder();
+        for (Call call : batch) {
+            input.append(call.features);
+            if (!call.features.endsWith("\n")) {
+                input.append('\n');
+            }
+            input.append('\n');
+        }
+
+        List<String> sequences;
+        try {
+            sequences = splitSequences(labeler.apply(input.toString()));
+        } catch (RuntimeException e) {
+            // the calls are labeled separately so that only the invalid one fails
+            LOGGER.warn("The batch labeling of the " + name + " model failed, labeling the calls separately.", e);
+            batch.forEach(this::labelAlone);
+            return;
+        }
+        int expected = 0;
+        for (Call call : batch) {
+            expected += call.nbSequences;
+        }
+        if (sequences.size() != expected) {
+            // should not happen, the calls are then labeled separately
+            LOGGER.warn("The batch labeling of the " + name + " model returned " + sequences.size()
+                + " sequences instead of " + expected + ", labeling the calls separately.");
+            batch.forEach(this::labelAlone);
+            return;
+        }
+
+        int position = 0;
+        for (Call call : batch) {
+            StringBuilder result = new StringBuilder();
+            for (int i = 0; i < call.nbSequences; i++) {
+                result.append(sequences.get(position++)).append('\n');
+            }
+            call.result.complete(result.toString());
+        }
+    }
+
+    private void labelAlone(Call call) {
+        try {
+            call.result.complete(labeler.apply(call.features));
+        } catch (RuntimeException | Error e) {
+            call.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Number of sequences, separated by empty lines
+     */
+    static int countSequences(String text) {
+        int count = 0;
+        boolean inSequence = false;
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd == -1) {
+                lineEnd = text.length();
+            }
+            boolean blank = isBlank(text, lineStart, lineEnd);
+            if (!blank && !inSequence) {
+                count++;
+            }
+            inSequence = !blank;
+            lineStart = lineEnd + 1;
+        }
+        return count;
+    }
+
+    /**
+     * The sequences of the labeled text, each with its lines followed by a line break
+     */
+    static List<String> splitSequences(String text) {
+        List<String> sequences = new ArrayList<>();
+        StringBuilder sequence = new StringBuilder();
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd == -1) {
+                lineEnd = text.length();
+            }
+            if (isBlank(text, lineStart, lineEnd)) {
+                if (sequence.length() > 0) {
+                    sequences.add(sequence.toString());
+                    sequence.setLength(0);
+                }
+            } else {
+                sequence.append(text, lineStart, lineEnd).append('\n');
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (sequence.length() > 0) {
+            sequences.add(sequence.toString());
+        }
+        return sequences;
+    }
+
+    private static boolean isBlank(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stop the workers, the pending calls are still labeled
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static final class Call {
+        final String features;
+        final int nbSequences;
+        final long submitted = System.nanoTime();
+        final CompletableFuture<String> result = new CompletableFuture<>();
+
+        Call(String features, int nbSequences) {
+            this.features = features;
+            this.nbSequences = nbSequences;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.grobid.core.engines.tagging;
+
+import com.codahale.metrics.MetricRegistry;
+import org.grobid.core.GrobidModel;
+import org.grobid.core.engines.metrics.StageMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Micro-batchers of the labeling calls, one per model. The labeling calls of a model are made directly
+ * unless the batching has been enabled for it.
+ */
+public class LabelingBatchers {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LabelingBatchers.class);
+
+    private static volatile LabelingBatchers instance;
+
+    public static LabelingBatchers getInstance() {
+        if (instance == null) {
+            getNewInstance();
+        }
+        return instance;
+    }
+
+    private static synchronized void getNewInstance() {
+        if (instance == null) {
+            instance = new LabelingBatchers();
+        }
+    }
+
+    private final ConcurrentMap<String, LabelingBatcher> batchers = new ConcurrentHashMap<>();
+
+    private volatile Set<String> models = Collections.emptySet();
+    private volatile int maxBatchSize = 32;
+    private volatile long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(2);
+    private volatile int nbWorkers = 1;
+    private volatile MetricRegistry metricRegistry = new MetricRegistry();
+
+    LabelingBatchers() {
+    }
+
+    /**
+     * Enable the batching for the models, the batchers are created at the first labeling call of each model
+     */
+    public synchronized void enable(Collection<String> modelNames, int maxBatchSize, long maxDelayMs, int nbWorkers,
+                                    MetricRegistry metricRegistry) {
+        close();
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.nbWorkers = nbWorkers;
+        this.metricRegistry = metricRegistry;
+        this.models = Collections.unmodifiableSet(new HashSet<>(modelNames));
+        LOGGER.info("Batching of the labeling calls of the models " + this.models + " (at most " + maxBatchSize
+            + " calls, " + maxDelayMs + " ms).");
+    }
+
+    /**
+     * Label the features of the model, with the batcher of the model when the batching is enabled for it
+     *
+     * @param labeler labels one or several sequences of features of the model in a single call
+     */
+    public String label(GrobidModel model, String features, Function<String, String> labeler) {
+        StageMetrics stageMetrics = StageMetrics.getInstance();
+        stageMetrics.count(StageMetrics.Count.SEQUENCES, 1);
+        try (StageMetrics.Timing ignored = stageMetrics.timeLabel(model)) {
+            String name = model.getModelName();
+            if (!models.contains(name)) {
+                return labeler.apply(features);
+            }
+            return batchers.computeIfAbsent(name, key ->
+                new LabelingBatcher(key, labeler, maxBatchSize, maxDelayNanos, nbWorkers, metricRegistry)
+            ).label(features);
+        }
+    }
+
+    /**
+     * Stop the batchers and disable the batching
+     */
+    public synchronized void close() {
+        models = Collections.emptySet();
+        batchers.values().forEach(LabelingBatcher::close);
+        batchers.clear();
+    }
+}
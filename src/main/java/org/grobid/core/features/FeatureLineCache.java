@@ -0,0 +1,60 @@
+package org.grobid.core.features;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.grobid.core.engines.metrics.RequestProfile;
+
+import java.util.function.Supplier;
+
+/**
+ * Bounded and thread-safe cache of the feature lines of the tokens, used when the features are computed
+ * for labeling (without label). The boolean features provided by the caller are encoded as bits of the
+ * flags, each combination of flags having its own cache so that the token text alone is the key.
+ */
+final class FeatureLineCache {
+
+    private final String name;
+    private final Cache<String, String>[] caches;
+
+    /**
+     * @param name name of the cache in the request profiles
+     */
+    @SuppressWarnings("unchecked")
+    FeatureLineCache(String name, int nbFlags, long maximumSize) {
+        this.name = name;
+        caches = new Cache[1 << nbFlags];
+        for (int i = 0; i < caches.length; i++) {
+            caches[i] = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+        }
+    }
+
+    /**
+     * Return the feature line of the token for these flags, computing it if it is not in the cache.
+     * A null feature line (e.g. blank token) is returned but not cached.
+     */
+    String get(String token, int flags, Supplier<String> featureLine) {
+        Cache<String, String> cache = caches[flags];
+        String line = cache.getIfPresent(token);
+        RequestProfile profile = RequestProfile.current();
+        if (profile != null) {
+            profile.addCacheLookup(name, line != null);
+        }
+        if (line == null) {
+            line = featureLine.get();
+            if (line != null) {
+                cache.put(token, line);
+            }
+        }
+        return line;
+    }
+
+    long size() {
+        long size = 0;
+        for (Cache<String, String> cache : caches) {
+            size += cache.size();
+        }
+        return size;
+    }
+}
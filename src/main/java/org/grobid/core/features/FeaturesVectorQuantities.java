@@ -40,6 +40,8 @@ public class FeaturesVectorQuantities {
 
     private boolean isNumberToken = false;
 
+    private static final FeatureLineCache FEATURE_LINES = new FeatureLineCache("featureLines.quantities", 3, 50000);
+
     public FeaturesVectorQuantities() {
     }
 
@@ -196,6 +198,17 @@ public class FeaturesVectorQuantities {
         return featuresVector;
     }
 
-}
+    /**
+     * Return the feature line of a token to be labeled, as printed by printVector() without label.
+     * Token types are very repetitive, so the lines are cached.
+     */
+    public static String printVector(String word,
+                                     boolean isUnitToken,
+                                     boolean isUnitPattern,
+                                     boolean isNumberToken) {
+        int flags = (isUnitToken ? 1 : 0) | (isUnitPattern ? 2 : 0) | (isNumberToken ? 4 : 0);
+        return FEATURE_LINES.get(word, flags,
+            () -> addFeaturesQuantities(word, null, isUnitToken, isUnitPattern, isNumberToken).printVector());
+    }
 
-	
+}
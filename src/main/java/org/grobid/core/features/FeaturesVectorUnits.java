@@ -21,6 +21,8 @@ public class FeaturesVectorUnits {
     // one of NOPUNCT, OPENBRACKET, ENDBRACKET, DOT, COMMA, HYPHEN, QUOTE, ASTERISK, PUNCT (default)
     public String punctType = null;
 
+    private static final FeatureLineCache FEATURE_LINES = new FeatureLineCache("featureLines.units", 3, 5000);
+
     public String printVector() {
         if (isEmpty(value)) {
             return null;
@@ -125,5 +127,16 @@ public class FeaturesVectorUnits {
         return featuresVector;
     }
 
-
+    /**
+     * Return the feature line of a character to be labeled, as printed by printVector() without label.
+     * The lines are cached.
+     */
+    public static String printVector(String character,
+                                     boolean isKnownUnitToken,
+                                     boolean isKnownPrefixToken,
+                                     boolean hasRightAttachment) {
+        int flags = (isKnownUnitToken ? 1 : 0) | (isKnownPrefixToken ? 2 : 0) | (hasRightAttachment ? 4 : 0);
+        return FEATURE_LINES.get(character, flags,
+            () -> addFeaturesUnit(character, null, isKnownUnitToken, isKnownPrefixToken, hasRightAttachment).printVector());
+    }
 }
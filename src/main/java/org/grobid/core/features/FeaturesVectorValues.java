@@ -13,6 +13,8 @@ public class FeaturesVectorValues {
     // one of NOPUNCT, OPENBRACKET, ENDBRACKET, DOT, COMMA, HYPHEN, QUOTE, ASTERISK, PUNCT (default)
     public String punctType = null;
 
+    private static final FeatureLineCache FEATURE_LINES = new FeatureLineCache("featureLines.values", 0, 5000);
+
     public String printVector() {
         if (isEmpty(value)) {
             return null;
@@ -99,4 +101,12 @@ public class FeaturesVectorValues {
 
         return featuresVector;
     }
+
+    /**
+     * Return the feature line of a character to be labeled, as printed by printVector() without label.
+     * The lines are cached.
+     */
+    public static String printVector(String character) {
+        return FEATURE_LINES.get(character, 0, () -> addFeatures(character, null).printVector());
+    }
 }
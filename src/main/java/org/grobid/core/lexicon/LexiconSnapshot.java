@@ -0,0 +1,202 @@
+package org.grobid.core.lexicon;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Binary snapshot of the compiled lexicon (unit automaton, unit tokens, unit maps, inflections, SI units and
+ * number tokens), memory-mapped at startup instead of parsing and expanding the JSON lexicon.
+ * <p>
+ * The snapshot records the format version and a fingerprint of the lexicon resources: it is ignored (and
+ * rebuilt by the lexicon) when one of them has changed.
+ */
+public final class LexiconSnapshot {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LexiconSnapshot.class);
+
+    private static final int MAGIC = 0x47514C58; // GQLX
+    static final int FORMAT_VERSION = 2;
+
+    private LexiconSnapshot() {
+    }
+
+    /**
+     * Write the snapshot of the lexicon, the file is replaced atomically
+     */
+    public static void write(QuantityLexicon lexicon, File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null) {
+            Files.createDirectories(directory.toPath());
+        }
+        File tmpFile = new File(file.getAbsolutePath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            Output output = new Output(out);
+            output.writeString(lexicon.getFingerprint());
+            lexicon.writeSnapshot(output);
+        }
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.info("Lexicon snapshot written in " + file.getAbsolutePath() + " (" + file.length() + " bytes)");
+    }
+
+    /**
+     * Load the snapshot in the lexicon
+     *
+     * @return false when the snapshot is missing, invalid or built from other lexicon resources than the ones of
+     * the fingerprint of the lexicon
+     */
+    static boolean read(QuantityLexicon lexicon, File file) {
+        if (!file.isFile()) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                LOGGER.warn("Invalid lexicon snapshot " + file.getAbsolutePath());
+                return false;
+            }
+            int version = buffer.getInt();
+            Input input = new Input(buffer);
+            if (version != FORMAT_VERSION || !lexicon.getFingerprint().equals(input.readString())) {
+                LOGGER.info("The lexicon snapshot " + file.getAbsolutePath() + " is outdated.");
+                return false;
+            }
+            lexicon.readSnapshot(input);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Cannot read the lexicon snapshot " + file.getAbsolutePath(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Binary writer of the snapshot contents
+     */
+    static final class Output {
+        private final DataOutputStream out;
+
+        private Output(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeInt(int value) throws IOException {
+            out.writeInt(value);
+        }
+
+        void writeBoolean(boolean value) throws IOException {
+            out.writeBoolean(value);
+        }
+
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        void writeStrings(Collection<String> values) throws IOException {
+            if (values == null) {
+                out.writeInt(-1);
+                return;
+            }
+            out.writeInt(values.size());
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+
+        void writeInts(int[] values) throws IOException {
+            out.writeInt(values.length);
+            for (int value : values) {
+                out.writeInt(value);
+            }
+        }
+
+        void writeBooleans(boolean[] values) throws IOException {
+            out.writeInt(values.length);
+            for (boolean value : values) {
+                out.writeBoolean(value);
+            }
+        }
+    }
+
+    /**
+     * Reader of the snapshot contents from the mapped file
+     */
+    static final class Input {
+        private final ByteBuffer buffer;
+
+        private Input(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        int readInt() {
+            return buffer.getInt();
+        }
+
+        boolean readBoolean() {
+            return buffer.get() != 0;
+        }
+
+        String readString() {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, UTF_8);
+        }
+
+        /**
+         * @return null when the list was written as null
+         */
+        List<String> readStrings() {
+            int size = buffer.getInt();
+            if (size < 0) {
+                return null;
+            }
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readString());
+            }
+            return values;
+        }
+
+        int[] readInts() {
+            int[] values = new int[buffer.getInt()];
+            buffer.asIntBuffer().get(values);
+            buffer.position(buffer.position() + values.length * Integer.BYTES);
+            return values;
+        }
+
+        boolean[] readBooleans() {
+            boolean[] values = new boolean[buffer.getInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = buffer.get() != 0;
+            }
+            return values;
+        }
+    }
+}
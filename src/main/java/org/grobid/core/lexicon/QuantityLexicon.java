@@ -1,20 +1,35 @@
 package org.grobid.core.lexicon;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
 import org.grobid.core.analyzers.QuantityAnalyzer;
 import org.grobid.core.data.RegexValueHolder;
 import org.grobid.core.data.Unit;
 import org.grobid.core.data.UnitDefinition;
+import org.grobid.core.exceptions.GrobidResourceException;
 import org.grobid.core.layout.LayoutToken;
 import org.grobid.core.utilities.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.commons.lang3.StringUtils.*;
 import static org.grobid.core.lexicon.LexiconLoader.loadPrefixes;
 import static org.grobid.core.lexicon.LexiconLoader.readJsonFile;
@@ -22,19 +37,34 @@ import static org.grobid.core.lexicon.LexiconLoader.readJsonFile;
 /**
  * Class for managing the measurement lexical resources.
  * <p>
- * To be done: generalize to n different languages
+ * A lexicon is loaded for each language on first use (lexicon/&lt;language&gt;/units.json, with the English
+ * prefixes when the language has none). The number words are only available in English.
  *
  * @author Patrice, Luca
  */
 public class QuantityLexicon {
     private static final Logger LOGGER = LoggerFactory.getLogger(QuantityLexicon.class);
 
-    private static volatile QuantityLexicon instance;
+    public static final String DEFAULT_LANGUAGE = "en";
+
+    // the lexicons in use by language, each one replaced as a whole when it is reloaded
+    private static final Map<String, QuantityLexicon> instances = new ConcurrentHashMap<>();
+    // the language of the lexicon returned by getInstance() in the current thread
+    private static final ThreadLocal<String> currentLanguage = new ThreadLocal<>();
+    // the lexicon of the request being processed in the current thread, kept when the lexicon is reloaded
+    private static final ThreadLocal<QuantityLexicon> currentLexicon = new ThreadLocal<>();
+    private static volatile File snapshotFile = null;
+    private static volatile File lexiconDirectory = null;
+    private static final List<Consumer<QuantityLexicon>> reloadListeners = new CopyOnWriteArrayList<>();
+
+    private static final String LEXICON_PATH = "lexicon/";
+    private static final Pattern LANGUAGE_PATTERN = Pattern.compile("[a-z]{2}");
+
     public static final String PREFIX_FILENAME = "prefix.txt";
-    public static final String PREFIX_EN_PATH = "lexicon/en/" + PREFIX_FILENAME;
+    public static final String PREFIX_EN_PATH = LEXICON_PATH + DEFAULT_LANGUAGE + "/" + PREFIX_FILENAME;
 
     public static final String UNITS_FILENAME = "units.json";
-    public static final String UNITS_EN_PATH = "lexicon/en/" + UNITS_FILENAME;
+    public static final String UNITS_EN_PATH = LEXICON_PATH + DEFAULT_LANGUAGE + "/" + UNITS_FILENAME;
 
     private static final String COMPOSED_UNIT_REGEX = "[^/*]";
     private static final String COMPOSED_UNIT_REGEX_WITH_DELIMITER = String.format("((?<=%1$s)|(?=%1$s))", "[/*]{1}");
@@ -43,7 +73,9 @@ public class QuantityLexicon {
     private Pattern composedUnitPatternWithDelimiter = Pattern.compile(COMPOSED_UNIT_REGEX_WITH_DELIMITER);
 
     // lexical information - for feature generations
-    private FastMatcher unitPattern = null;
+    // the unit terms are collected during the loading, then compiled in the automaton
+    private TermAutomaton.Builder unitTermsBuilder = null;
+    private TermAutomaton unitPattern = null;
     private Set<String> unitTokens = null;
     private Set<String> unitTokensLowerCase = null;
 
@@ -51,6 +83,8 @@ public class QuantityLexicon {
     // this set depends on the language
     private Set<String> numberTokens = null;
 
+    private List<UnitDefinition> units = null;
+
     private Map<String, String> prefixes = null; // map prefix symbol to prefix string
     private Map<String, List<String>> inflection = null; // map a unit string to its morphological inflections
 
@@ -70,38 +104,450 @@ public class QuantityLexicon {
     // altough they are two different representation of the same unit
     private Map<String, String> inflection2name = null;
 
-    private QuantityLexicon() {
-        init();
+    private String fingerprint = null;
+
+    private final String language;
+
+    private QuantityLexicon(String language) {
+        this.language = language;
     }
 
+    /**
+     * @return the lexicon bound to the current thread with {@link #callWithLexicon(QuantityLexicon, Supplier)},
+     * otherwise the lexicon of the language set for the current thread, English by default
+     */
     public static QuantityLexicon getInstance() {
-        if (instance == null) {
-            getNewInstance();
+        String language = getCurrentLanguage();
+        QuantityLexicon lexicon = currentLexicon.get();
+        if (lexicon != null && language.equals(lexicon.language)) {
+            return lexicon;
+        }
+        return getInstance(language);
+    }
+
+    /**
+     * @return the lexicon of the language, loaded on first use
+     */
+    public static QuantityLexicon getInstance(String language) {
+        QuantityLexicon lexicon = instances.get(language);
+        if (lexicon == null) {
+            lexicon = getNewInstance(language);
+        }
+        return lexicon;
+    }
+
+    private static synchronized QuantityLexicon getNewInstance(String language) {
+        QuantityLexicon lexicon = instances.get(language);
+        if (lexicon == null) {
+            if (!isSupportedLanguage(language)) {
+                throw new GrobidResourceException("No lexicon for the language " + language);
+            }
+            lexicon = new QuantityLexicon(language);
+            lexicon.init();
+            instances.put(language, lexicon);
+        }
+        return lexicon;
+    }
+
+    /**
+     * @return true when there is a lexicon for the language
+     */
+    public static boolean isSupportedLanguage(String language) {
+        return language != null && LANGUAGE_PATTERN.matcher(language).matches()
+            && existsResource(resourcePath(language, UNITS_FILENAME));
+    }
+
+    /**
+     * @return the language of the lexicon returned by {@link #getInstance()} in the current thread
+     */
+    public static String getCurrentLanguage() {
+        String language = currentLanguage.get();
+        return language != null ? language : DEFAULT_LANGUAGE;
+    }
+
+    /**
+     * Run the action with the lexicon of the language as the lexicon of the current thread
+     */
+    public static <T> T callWithLanguage(String language, Supplier<T> action) {
+        String previous = currentLanguage.get();
+        currentLanguage.set(language);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                currentLanguage.remove();
+            } else {
+                currentLanguage.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Run the action with the given lexicon as the lexicon of the current thread, so that all the stages of a
+     * request use the same lexicon even if it is reloaded in the meantime
+     */
+    public static <T> T callWithLexicon(QuantityLexicon lexicon, Supplier<T> action) {
+        QuantityLexicon previous = currentLexicon.get();
+        currentLexicon.set(lexicon);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                currentLexicon.remove();
+            } else {
+                currentLexicon.set(previous);
+            }
+        }
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * Build a new lexicon from the lexicon files and replace the current one. The lexicon in use is never
+     * modified: it is read without locking, and the readers get either the previous or the new lexicon.
+     */
+    public static synchronized QuantityLexicon reload(String language) {
+        if (!isSupportedLanguage(language)) {
+            throw new GrobidResourceException("No lexicon for the language " + language);
+        }
+        QuantityLexicon lexicon = new QuantityLexicon(language);
+        lexicon.init();
+        instances.put(language, lexicon);
+        for (Consumer<QuantityLexicon> listener : reloadListeners) {
+            try {
+                listener.accept(lexicon);
+            } catch (RuntimeException e) {
+                LOGGER.error("Error when notifying the reload of the lexicon", e);
+            }
+        }
+        return lexicon;
+    }
+
+    /**
+     * Reload the lexicons of the languages loaded so far, and the default one
+     *
+     * @return the lexicon of the default language
+     */
+    public static synchronized QuantityLexicon reload() {
+        Set<String> languages = new TreeSet<>(instances.keySet());
+        languages.remove(DEFAULT_LANGUAGE);
+        for (String language : languages) {
+            reload(language);
+        }
+        return reload(DEFAULT_LANGUAGE);
+    }
+
+    /**
+     * Listener called with the new lexicon after each reload, e.g. to invalidate the results computed with
+     * the previous lexicon
+     */
+    public static void addReloadListener(Consumer<QuantityLexicon> listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * Directory of the lexicon files (&lt;language&gt;/prefix.txt, &lt;language&gt;/units.json) replacing the
+     * bundled ones, so that they can be edited and reloaded without restart. The bundled files are used for the
+     * files missing in the directory. To be set before the first use of the lexicon, null (the default) for the
+     * bundled lexicon.
+     */
+    public static void setLexiconDirectory(File directory) {
+        lexiconDirectory = directory;
+    }
+
+    static String resourcePath(String language, String filename) {
+        return LEXICON_PATH + language + "/" + filename;
+    }
+
+    /**
+     * The resources the lexicon of the language is built from
+     */
+    static List<String> resources(String language) {
+        String prefixPath = resourcePath(language, PREFIX_FILENAME);
+        return Arrays.asList(existsResource(prefixPath) ? prefixPath : PREFIX_EN_PATH,
+            resourcePath(language, UNITS_FILENAME), WordsToNumber.VALUES_PATH);
+    }
+
+    private static File directoryFile(String path) {
+        File directory = lexiconDirectory;
+        if (directory == null) {
+            return null;
+        }
+        return new File(directory, path.startsWith(LEXICON_PATH) ? path.substring(LEXICON_PATH.length()) :
+            FilenameUtils.getName(path));
+    }
+
+    private static boolean existsResource(String path) {
+        File file = directoryFile(path);
+        return (file != null && file.isFile()) || QuantityLexicon.class.getClassLoader().getResource(path) != null;
+    }
+
+    /**
+     * Open a lexicon resource, from the lexicon directory when it contains the file
+     */
+    static InputStream openResource(String path) {
+        File file = directoryFile(path);
+        if (file != null && file.isFile()) {
+            try {
+                return new FileInputStream(file);
+            } catch (FileNotFoundException e) {
+                throw new GrobidResourceException("Cannot open the lexicon file " + file.getAbsolutePath(), e);
+            }
+        }
+        InputStream is = QuantityLexicon.class.getClassLoader().getResourceAsStream(path);
+        if (is == null) {
+            throw new GrobidResourceException("Cannot find the lexicon resource " + path);
         }
-        return instance;
+        return is;
     }
 
-    private static synchronized void getNewInstance() {
-        instance = new QuantityLexicon();
+    /**
+     * Fingerprint of the current lexicon files of the default language
+     */
+    public static String fingerprintResources() {
+        return fingerprintResources(DEFAULT_LANGUAGE);
+    }
+
+    /**
+     * Fingerprint of the current lexicon files of the language
+     */
+    public static String fingerprintResources(String language) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (String resource : resources(language)) {
+            try (InputStream is = openResource(resource)) {
+                hasher.putString(resource, UTF_8).putBytes(IOUtils.toByteArray(is));
+            } catch (IOException e) {
+                throw new GrobidResourceException("Cannot read the lexicon resource " + resource, e);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Fingerprint of the lexicon files this lexicon was built from
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Binary snapshot of the lexicon loaded at startup instead of the JSON lexicon, written when it is missing
+     * or outdated. The snapshots of the other languages are written next to it (lexicon.fr.bin for lexicon.bin).
+     * To be set before the first use of the lexicon, null (the default) to always load the JSON.
+     */
+    public static void setSnapshotFile(File file) {
+        snapshotFile = file;
+    }
+
+    /**
+     * @return the snapshot file of the language, null when there is no snapshot
+     */
+    static File snapshotFile(File file, String language) {
+        if (file == null || DEFAULT_LANGUAGE.equals(language)) {
+            return file;
+        }
+        String extension = FilenameUtils.getExtension(file.getName());
+        return new File(file.getAbsoluteFile().getParentFile(), FilenameUtils.getBaseName(file.getName()) + "."
+            + language + (extension.isEmpty() ? "" : "." + extension));
+    }
+
+    /**
+     * Load the lexicon of the default language from the JSON resources, ignoring the snapshot
+     */
+    public static QuantityLexicon loadFromResources() {
+        return loadFromResources(DEFAULT_LANGUAGE);
+    }
+
+    /**
+     * Load the lexicon of the language from the JSON resources, ignoring the snapshot
+     */
+    public static QuantityLexicon loadFromResources(String language) {
+        QuantityLexicon lexicon = new QuantityLexicon(language);
+        lexicon.fingerprint = fingerprintResources(language);
+        lexicon.loadResources();
+        lexicon.numberTokens = WordsToNumber.getInstance().getTokenSet();
+        return lexicon;
+    }
+
+    /**
+     * Load the lexicon of the default language from a snapshot
+     *
+     * @return null when the snapshot cannot be used
+     */
+    static QuantityLexicon loadFromSnapshot(File file) {
+        QuantityLexicon lexicon = new QuantityLexicon(DEFAULT_LANGUAGE);
+        lexicon.fingerprint = fingerprintResources(DEFAULT_LANGUAGE);
+        return LexiconSnapshot.read(lexicon, file) ? lexicon : null;
     }
 
     private void init() {
+        long start = System.currentTimeMillis();
+        fingerprint = fingerprintResources(language);
+        File snapshot = snapshotFile(snapshotFile, language);
+        if (snapshot != null && LexiconSnapshot.read(this, snapshot)) {
+            LOGGER.info("Lexicon " + language + " loaded from the snapshot " + snapshot.getAbsolutePath() + " in "
+                + (System.currentTimeMillis() - start) + " ms");
+        } else {
+            loadResources();
+            numberTokens = WordsToNumber.getInstance().getTokenSet();
+            LOGGER.info("Lexicon " + language + " loaded in " + (System.currentTimeMillis() - start) + " ms");
+            if (snapshot != null) {
+                try {
+                    LexiconSnapshot.write(this, snapshot);
+                } catch (IOException e) {
+                    LOGGER.warn("Cannot write the lexicon snapshot " + snapshot.getAbsolutePath(), e);
+                }
+            }
+        }
+    }
+
+    private void loadResources() {
+        units = new ArrayList<>();
+        inflection = null;
+        type2SIUnit = null;
         unitTokens = new HashSet<>();
         unitTokensLowerCase = new HashSet<>();
-        unitPattern = new FastMatcher();
+        unitTermsBuilder = TermAutomaton.builder();
+
+        List<String> resources = resources(language);
+        prefixes = loadPrefixes(openResource(resources.get(0)));
+        createUnitIndexes();
+        readJsonFile(openResource(resources.get(1)), "units", l -> processJsonNode(l));
 
-        prefixes = loadPrefixes(this.getClass().getClassLoader().getResourceAsStream(PREFIX_EN_PATH));
-        readJsonFile(this.getClass().getClassLoader().getResourceAsStream(UNITS_EN_PATH), "units", l -> processJsonNode(l));
+        unitPattern = unitTermsBuilder.build();
+        unitTermsBuilder = null;
+        LOGGER.info("Unit terms: " + unitPattern.size() + ", automaton states: " + unitPattern.getNbStates());
+    }
 
-        numberTokens = WordsToNumber.getInstance().getTokenSet();
+    private void createUnitIndexes() {
+        notation2unit = new HashMap<>();
+        name2unit = new HashMap<>();
+        inflection2name = new HashMap<>();
     }
 
+    void writeSnapshot(LexiconSnapshot.Output out) throws IOException {
+        out.writeInt(prefixes.size());
+        for (Map.Entry<String, String> prefix : prefixes.entrySet()) {
+            out.writeString(prefix.getKey());
+            out.writeString(prefix.getValue());
+        }
+
+        Map<UnitDefinition, Integer> unitIds = new IdentityHashMap<>();
+        out.writeInt(units.size());
+        for (UnitDefinition unit : units) {
+            unitIds.put(unit, unitIds.size());
+            out.writeString(unit.getType() == null ? null : unit.getType().name());
+            out.writeString(unit.getSystem() == null ? null : unit.getSystem().name());
+            out.writeBoolean(unit.isSkipNormalisation());
+            out.writeStrings(unit.getNotations());
+            out.writeStrings(unit.getNames());
+        }
+        writeUnitMap(out, notation2unit, unitIds);
+        writeUnitMap(out, name2unit, unitIds);
+        out.writeInt(inflection2name.size());
+        for (Map.Entry<String, String> entry : inflection2name.entrySet()) {
+            out.writeString(entry.getKey());
+            out.writeString(entry.getValue());
+        }
+
+        out.writeInt(type2SIUnit == null ? -1 : type2SIUnit.size());
+        if (type2SIUnit != null) {
+            for (Map.Entry<String, UnitDefinition> entry : type2SIUnit.entrySet()) {
+                out.writeString(entry.getKey());
+                out.writeInt(unitIds.get(entry.getValue()));
+            }
+        }
+
+        out.writeInt(inflection == null ? -1 : inflection.size());
+        if (inflection != null) {
+            for (Map.Entry<String, List<String>> entry : inflection.entrySet()) {
+                out.writeString(entry.getKey());
+                out.writeStrings(entry.getValue());
+            }
+        }
+
+        out.writeStrings(unitTokens);
+        out.writeStrings(unitTokensLowerCase);
+        unitPattern.write(out);
+        out.writeStrings(numberTokens);
+    }
+
+    void readSnapshot(LexiconSnapshot.Input in) {
+        int nbPrefixes = in.readInt();
+        // the order of the prefixes is the one of the expansions
+        prefixes = new LinkedHashMap<>();
+        for (int i = 0; i < nbPrefixes; i++) {
+            String symbol = in.readString();
+            prefixes.put(symbol, in.readString());
+        }
+
+        int nbUnits = in.readInt();
+        units = new ArrayList<>(nbUnits);
+        for (int i = 0; i < nbUnits; i++) {
+            UnitDefinition unit = new UnitDefinition();
+            String type = in.readString();
+            unit.setType(type == null ? null : UnitUtilities.Unit_Type.valueOf(type));
+            String system = in.readString();
+            unit.setSystem(system == null ? null : UnitUtilities.System_Type.valueOf(system));
+            unit.setSkipNormalisation(in.readBoolean());
+            unit.setNotations(in.readStrings());
+            unit.setNames(in.readStrings());
+            units.add(unit);
+        }
+        createUnitIndexes();
+        readUnitMap(in, notation2unit);
+        readUnitMap(in, name2unit);
+        int nbInflectedForms = in.readInt();
+        for (int i = 0; i < nbInflectedForms; i++) {
+            String inflectedForm = in.readString();
+            inflection2name.put(inflectedForm, in.readString());
+        }
+
+        int nbTypes = in.readInt();
+        type2SIUnit = nbTypes < 0 ? null : new HashMap<>();
+        for (int i = 0; i < nbTypes; i++) {
+            String type = in.readString();
+            type2SIUnit.put(type, units.get(in.readInt()));
+        }
+
+        int nbInflections = in.readInt();
+        inflection = nbInflections < 0 ? null : new HashMap<>();
+        for (int i = 0; i < nbInflections; i++) {
+            String lemma = in.readString();
+            inflection.put(lemma, in.readStrings());
+        }
+
+        unitTokens = new HashSet<>(in.readStrings());
+        unitTokensLowerCase = new HashSet<>(in.readStrings());
+        unitPattern = TermAutomaton.read(in);
+        numberTokens = new HashSet<>(in.readStrings());
+    }
+
+    private static void writeUnitMap(LexiconSnapshot.Output out, Map<String, UnitDefinition> map,
+                                     Map<UnitDefinition, Integer> unitIds) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, UnitDefinition> entry : map.entrySet()) {
+            out.writeString(entry.getKey());
+            out.writeInt(unitIds.get(entry.getValue()));
+        }
+    }
+
+    private void readUnitMap(LexiconSnapshot.Input in, Map<String, UnitDefinition> map) {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            String key = in.readString();
+            map.put(key, units.get(in.readInt()));
+        }
+    }
 
     private void processJsonNode(JsonNode node) {
         UnitUtilities.Unit_Type type = UnitUtilities.Unit_Type.valueOf(node.get("type").asText());
         UnitUtilities.System_Type system = UnitUtilities.System_Type.valueOf(node.get("system").asText());
 
         UnitDefinition unitDefinition = new UnitDefinition();
+        units.add(unitDefinition);
         unitDefinition.setSystem(system);
         unitDefinition.setType(type);
 
@@ -176,9 +622,6 @@ public class QuantityLexicon {
         List<String> notations = unitDefinition.getNotations();
         if ((notations != null) && (notations.size() > 0)) {
             for (int j = 0; j < notations.size(); j++) {
-                if (notation2unit == null) {
-                    notation2unit = new HashMap<>();
-                }
                 notation2unit.put(notations.get(j).trim(), unitDefinition);
             }
         } else {
@@ -190,10 +633,6 @@ public class QuantityLexicon {
         // add unit names in the first map
         List<String> names = unitDefinition.getNames();
         if (CollectionUtils.isNotEmpty(names)) {
-            if (name2unit == null) {
-                name2unit = new HashMap<>();
-            }
-
             for (int j = 0; j < names.size(); j++) {
                 name2unit.put(names.get(j).trim().toLowerCase(), unitDefinition);
             }
@@ -202,9 +641,6 @@ public class QuantityLexicon {
 
     private void processInflections(String notation, UnitDefinition unitDefinition, String lemma, List<String> inflections) {
         UnitUtilities.System_Type system = unitDefinition.getSystem();
-        if (inflection2name == null) {
-            inflection2name = new HashMap<>();
-        }
         for (String inflectedForm : inflections) {
             String name = notation;
             if (isBlank(name) /*&& !name.equals(subPiece)*/) {
@@ -230,7 +666,7 @@ public class QuantityLexicon {
                 for (String derivation : derivations) {
                     unitDefinition.addName(derivation);
                     try {
-                        unitPattern.loadTerm(derivation, QuantityAnalyzer.getInstance());
+                        loadUnitTerm(derivation);
                     } catch (Exception e) {
                         LOGGER.error("invalid unit term: " + derivation);
                     }
@@ -248,7 +684,7 @@ public class QuantityLexicon {
             } else {
                 unitDefinition.addName(inflectedForm);
                 try {
-                    unitPattern.loadTerm(inflectedForm, QuantityAnalyzer.getInstance());
+                    loadUnitTerm(inflectedForm);
                 } catch (Exception e) {
                     LOGGER.error("invalid unit term: " + inflectedForm);
                 }
@@ -269,7 +705,7 @@ public class QuantityLexicon {
         List<String> derivations = derivationalMorphologyExpansion(subPiece, true);
         for (String derivation : derivations) {
             try {
-                unitPattern.loadTerm(derivation, QuantityAnalyzer.getInstance());
+                loadUnitTerm(derivation);
             } catch (Exception e) {
                 LOGGER.error("Invalid unit term: " + derivation);
             }
@@ -287,6 +723,12 @@ public class QuantityLexicon {
         }
     }
 
+    private void loadUnitTerm(String term) {
+        if (isNotBlank(term)) {
+            unitTermsBuilder.addTerm(QuantityAnalyzer.getInstance().tokenize(term));
+        }
+    }
+
     private void addToUnitTokens(String word) {
         word = trim(word);
         if ((word.length() > 0) && !unitTokens.contains(word)) {
@@ -403,29 +845,21 @@ public class QuantityLexicon {
     }
 
     /**
-     * Soft look-up in unit dictionary
+     * Soft look-up in unit dictionary, the positions are the indexes of the tokens of the text
+     * (tokenized with the QuantityAnalyzer)
      */
     public List<OffsetPosition> inUnitNames(String s) {
-        if (unitPattern == null) {
-            init();
-        }
-        List<OffsetPosition> results = unitPattern.matchToken(s);
+        List<OffsetPosition> results = unitPattern.match(QuantityAnalyzer.getInstance().tokenizeWithLayoutToken(s));
         return results;
     }
 
     public List<OffsetPosition> inUnitNames(List<LayoutToken> s) {
-        if (unitPattern == null) {
-            init();
-        }
-        List<OffsetPosition> results = unitPattern.matchLayoutToken(s);
+        List<OffsetPosition> results = unitPattern.match(s);
         return results;
     }
 
     public List<OffsetPosition> inUnitNamesPairs(List<Pair<String, String>> s) {
-        if (unitPattern == null) {
-            init();
-        }
-        List<OffsetPosition> results = unitPattern.matcherPairs(s);
+        List<OffsetPosition> results = unitPattern.match(s, Pair::getA);
         return results;
     }
 
@@ -519,9 +953,6 @@ public class QuantityLexicon {
         if (token == null) {
             return false;
         }
-        if (numberTokens == null) {
-            init();
-        }
         return numberTokens.contains(token.toLowerCase());
     }
 }
\ No newline at end of file
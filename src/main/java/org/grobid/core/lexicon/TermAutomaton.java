@@ -0,0 +1,381 @@
+package org.grobid.core.lexicon;
+
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.utilities.OffsetPosition;
+import org.grobid.core.utilities.TextUtilities;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Token-level Aho-Corasick automaton over a dictionary of terms, giving the same matches as the
+ * {@link FastMatcher} loaded with the same terms, in a single pass over the tokens.
+ * <p>
+ * The FastMatcher follows, from every token, the path of the terms starting with it and reports a match
+ * when the path cannot be extended by the next token and ends a term. The paths followed at a given token
+ * are exactly the failure chain of the current state of the automaton, so the matches are the terminal
+ * states of this chain without a transition on the next token.
+ * <p>
+ * The tokens are mapped to integer symbols and the transitions are stored in a double-array
+ * (base/check): the child of the state s on the symbol c is base[s] + c when check[base[s] + c] == s.
+ * As in the FastMatcher, the spaces and line breaks, and by default the delimiters, are ignored both in
+ * the terms and in the matched tokens.
+ */
+public final class TermAutomaton {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+    private static final int UNKNOWN_SYMBOL = 0;
+
+    private final boolean ignoreDelimiters;
+    private final boolean caseSensitive;
+
+    private final Map<String, Integer> symbols;
+    private final int[] base;
+    private final int[] check;
+    private final int[] fail;
+    // closest terminal state in the failure chain (excluding the state itself)
+    private final int[] outputLink;
+    private final int[] depth;
+    private final boolean[] terminal;
+    private final int maxDepth;
+    private final int nbTerms;
+
+    private TermAutomaton(boolean ignoreDelimiters, boolean caseSensitive, int nbTerms, Map<String, Integer> symbols,
+                          int[] base, int[] check, int[] fail, int[] outputLink, int[] depth, boolean[] terminal,
+                          int maxDepth) {
+        this.ignoreDelimiters = ignoreDelimiters;
+        this.caseSensitive = caseSensitive;
+        this.nbTerms = nbTerms;
+        this.symbols = symbols;
+        this.base = base;
+        this.check = check;
+        this.fail = fail;
+        this.outputLink = outputLink;
+        this.depth = depth;
+        this.terminal = terminal;
+        this.maxDepth = maxDepth;
+    }
+
+    public static Builder builder() {
+        return new Builder(true, true);
+    }
+
+    public static Builder builder(boolean ignoreDelimiters, boolean caseSensitive) {
+        return new Builder(ignoreDelimiters, caseSensitive);
+    }
+
+    public List<OffsetPosition> match(List<LayoutToken> tokens) {
+        return match(tokens, LayoutToken::getText);
+    }
+
+    /**
+     * Match the terms in the tokens, the positions are the indexes of the first and last tokens of the terms.
+     */
+    public <T> List<OffsetPosition> match(List<T> tokens, Function<T, String> tokenText) {
+        List<OffsetPosition> results = new ArrayList<>();
+        if (tokens == null || tokens.isEmpty() || maxDepth == 0) {
+            return results;
+        }
+
+        // positions of the last matched tokens, enough to find the start of the longest term
+        int[] positions = new int[maxDepth];
+        int nbMatched = 0;
+        int lastPosition = NONE;
+        int state = ROOT;
+        for (int position = 0; position < tokens.size(); position++) {
+            String text = tokenText.apply(tokens.get(position));
+            if (text == null || isIgnored(text)) {
+                continue;
+            }
+            int symbol = symbol(text);
+
+            // the terms which cannot be extended with this token end at the previous one
+            if (lastPosition != NONE) {
+                addEndedTerms(results, state, symbol, positions, nbMatched, lastPosition);
+            }
+
+            int next = NONE;
+            if (symbol != UNKNOWN_SYMBOL) {
+                while ((next = child(state, symbol)) == NONE && state != ROOT) {
+                    state = fail[state];
+                }
+            }
+            state = next == NONE ? ROOT : next;
+
+            positions[nbMatched % maxDepth] = position;
+            nbMatched++;
+            lastPosition = position;
+        }
+
+        // the terms still followed at the end of the tokens
+        if (lastPosition != NONE) {
+            addEndedTerms(results, state, UNKNOWN_SYMBOL, positions, nbMatched, lastPosition);
+        }
+        return results;
+    }
+
+    /**
+     * Add the terms ending at the state (and its failure chain) which have no transition on the symbol,
+     * from the longest to the shortest, i.e. in the order of their start.
+     */
+    private void addEndedTerms(List<OffsetPosition> results, int state, int symbol, int[] positions, int nbMatched,
+                               int lastPosition) {
+        int current = terminal[state] ? state : outputLink[state];
+        while (current != NONE) {
+            if (symbol == UNKNOWN_SYMBOL || child(current, symbol) == NONE) {
+                int start = positions[(nbMatched - depth[current]) % maxDepth];
+                results.add(new OffsetPosition(start, lastPosition));
+            }
+            current = outputLink[current];
+        }
+    }
+
+    private int child(int state, int symbol) {
+        int next = base[state] + symbol;
+        if (next < check.length && check[next] == state) {
+            return next;
+        }
+        return NONE;
+    }
+
+    private int symbol(String text) {
+        Integer symbol = symbols.get(caseSensitive ? text : text.toLowerCase());
+        return symbol == null ? UNKNOWN_SYMBOL : symbol;
+    }
+
+    private boolean isIgnored(String token) {
+        return isIgnored(token, ignoreDelimiters);
+    }
+
+    private static boolean isIgnored(String token, boolean ignoreDelimiters) {
+        return token.equals(" ") || token.equals("\n")
+            || (ignoreDelimiters && TextUtilities.delimiters.indexOf(token) != -1);
+    }
+
+    /**
+     * Number of distinct terms
+     */
+    public int size() {
+        return nbTerms;
+    }
+
+    /**
+     * Number of states of the automaton, including the root
+     */
+    public int getNbStates() {
+        int nbStates = 1;
+        for (int i = 1; i < check.length; i++) {
+            if (check[i] >= 0) {
+                nbStates++;
+            }
+        }
+        return nbStates;
+    }
+
+    void write(LexiconSnapshot.Output out) throws IOException {
+        out.writeBoolean(ignoreDelimiters);
+        out.writeBoolean(caseSensitive);
+        out.writeInt(nbTerms);
+        out.writeInt(maxDepth);
+        // the symbols are numbered from 1 in the order of their first occurrence
+        String[] symbolTexts = new String[symbols.size()];
+        for (Map.Entry<String, Integer> symbol : symbols.entrySet()) {
+            symbolTexts[symbol.getValue() - 1] = symbol.getKey();
+        }
+        out.writeStrings(Arrays.asList(symbolTexts));
+        out.writeInts(base);
+        out.writeInts(check);
+        out.writeInts(fail);
+        out.writeInts(outputLink);
+        out.writeInts(depth);
+        out.writeBooleans(terminal);
+    }
+
+    static TermAutomaton read(LexiconSnapshot.Input in) {
+        boolean ignoreDelimiters = in.readBoolean();
+        boolean caseSensitive = in.readBoolean();
+        int nbTerms = in.readInt();
+        int maxDepth = in.readInt();
+        List<String> symbolTexts = in.readStrings();
+        Map<String, Integer> symbols = new HashMap<>(symbolTexts.size() * 2);
+        for (int i = 0; i < symbolTexts.size(); i++) {
+            symbols.put(symbolTexts.get(i), i + 1);
+        }
+        return new TermAutomaton(ignoreDelimiters, caseSensitive, nbTerms, symbols, in.readInts(), in.readInts(),
+            in.readInts(), in.readInts(), in.readInts(), in.readBooleans(), maxDepth);
+    }
+
+    /**
+     * Collect the terms in a trie, then build the automaton
+     */
+    public static final class Builder {
+        private final boolean ignoreDelimiters;
+        private final boolean caseSensitive;
+
+        private final Map<String, Integer> symbols = new HashMap<>();
+        // children of the trie nodes by symbol, sorted for the placement in the double-array
+        private final List<TreeMap<Integer, Integer>> children = new ArrayList<>();
+        private final List<Boolean> terminals = new ArrayList<>();
+        private int nbTerms = 0;
+
+        private Builder(boolean ignoreDelimiters, boolean caseSensitive) {
+            this.ignoreDelimiters = ignoreDelimiters;
+            this.caseSensitive = caseSensitive;
+            newNode();
+        }
+
+        private int newNode() {
+            children.add(new TreeMap<>());
+            terminals.add(false);
+            return children.size() - 1;
+        }
+
+        /**
+         * Add a term given as its tokens, a term without any token to match is ignored
+         */
+        public Builder addTerm(List<String> tokens) {
+            int node = ROOT;
+            for (String token : tokens) {
+                if (token == null || token.isEmpty() || isIgnored(token, ignoreDelimiters)) {
+                    continue;
+                }
+                String key = caseSensitive ? token : token.toLowerCase();
+                Integer symbol = symbols.get(key);
+                if (symbol == null) {
+                    symbol = symbols.size() + 1;
+                    symbols.put(key, symbol);
+                }
+                Integer next = children.get(node).get(symbol);
+                if (next == null) {
+                    next = newNode();
+                    children.get(node).put(symbol, next);
+                }
+                node = next;
+            }
+            if (node != ROOT && !terminals.get(node)) {
+                terminals.set(node, true);
+                nbTerms++;
+            }
+            return this;
+        }
+
+        public TermAutomaton build() {
+            int nbNodes = children.size();
+            int[] index = new int[nbNodes];
+            int capacity = Math.max(16, nbNodes * 2 + symbols.size());
+            int[] base = new int[capacity];
+            int[] check = new int[capacity];
+            Arrays.fill(check, NONE);
+            check[ROOT] = ROOT;
+            int maxDepth = 0;
+            int[] depth = new int[capacity];
+
+            // placement of the children of each node, breadth first: the first child is put in the first free
+            // slot (after its symbol) where all the other children fit
+            BitSet used = new BitSet(capacity);
+            used.set(ROOT);
+            Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(ROOT);
+            index[ROOT] = ROOT;
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                int state = index[node];
+                TreeMap<Integer, Integer> nodeChildren = children.get(node);
+                if (nodeChildren.isEmpty()) {
+                    continue;
+                }
+                int firstSymbol = nodeChildren.firstKey();
+                int offset;
+                int slot = used.nextClearBit(firstSymbol + 1);
+                while (true) {
+                    offset = slot - firstSymbol;
+                    boolean fits = true;
+                    for (int symbol : nodeChildren.keySet()) {
+                        if (used.get(offset + symbol)) {
+                            fits = false;
+                            break;
+                        }
+                    }
+                    if (fits) {
+                        break;
+                    }
+                    slot = used.nextClearBit(slot + 1);
+                }
+                int lastSlot = offset + nodeChildren.lastKey();
+                if (lastSlot >= check.length) {
+                    int newCapacity = Math.max(check.length * 2, lastSlot + 1);
+                    base = Arrays.copyOf(base, newCapacity);
+                    depth = Arrays.copyOf(depth, newCapacity);
+                    int oldLength = check.length;
+                    check = Arrays.copyOf(check, newCapacity);
+                    Arrays.fill(check, oldLength, newCapacity, NONE);
+                }
+                base[state] = offset;
+                for (Map.Entry<Integer, Integer> child : nodeChildren.entrySet()) {
+                    int childState = offset + child.getKey();
+                    check[childState] = state;
+                    used.set(childState);
+                    depth[childState] = depth[state] + 1;
+                    maxDepth = Math.max(maxDepth, depth[childState]);
+                    index[child.getValue()] = childState;
+                    queue.add(child.getValue());
+                }
+            }
+
+            int length = 1;
+            for (int i = check.length - 1; i > 0; i--) {
+                if (check[i] != NONE) {
+                    length = i + 1;
+                    break;
+                }
+            }
+            base = Arrays.copyOf(base, length);
+            check = Arrays.copyOf(check, length);
+            depth = Arrays.copyOf(depth, length);
+            boolean[] terminal = new boolean[length];
+            for (int node = 0; node < nbNodes; node++) {
+                terminal[index[node]] = terminals.get(node);
+            }
+
+            // failure and output links, breadth first so that the links of the shorter states are known
+            int[] fail = new int[length];
+            int[] outputLink = new int[length];
+            Arrays.fill(outputLink, NONE);
+            TermAutomaton automaton = new TermAutomaton(ignoreDelimiters, caseSensitive, nbTerms, symbols, base, check,
+                fail, outputLink, depth, terminal, maxDepth);
+            queue.add(ROOT);
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                int state = index[node];
+                for (Map.Entry<Integer, Integer> child : children.get(node).entrySet()) {
+                    int symbol = child.getKey();
+                    int childState = index[child.getValue()];
+                    int target = ROOT;
+                    if (state != ROOT) {
+                        int current = fail[state];
+                        int next;
+                        while ((next = automaton.child(current, symbol)) == NONE && current != ROOT) {
+                            current = fail[current];
+                        }
+                        target = next == NONE ? ROOT : next;
+                    }
+                    fail[childState] = target;
+                    outputLink[childState] = terminal[target] ? target : outputLink[target];
+                    queue.add(child.getValue());
+                }
+            }
+
+            return automaton;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.grobid.core.sax;
+
+import org.codehaus.stax2.XMLStreamReader2;
+
+import javax.xml.stream.XMLStreamException;
+import java.util.Arrays;
+
+/**
+ * Text of a chunk accumulated from the text events of an XML input (line breaks and tabs are replaced by
+ * spaces, nothing is collapsed), with the span in the XML of each segment of the text.
+ * <p>
+ * The parser expands the entity and character references and normalises the line breaks, so the text of an
+ * event can be shorter than its span in the XML. When the raw XML is available, each reference and each CRLF
+ * gets its own segment and the text between them is mapped character by character. Otherwise each event is a
+ * single segment and the offsets following a reference in the event are shifted.
+ */
+class ChunkTextBuilder {
+
+    private final StringBuilder text = new StringBuilder();
+
+    // start of each segment in the chunk, and its span in the XML input
+    private int[] chunkOffsets = new int[16];
+    private int[] xmlStarts = new int[16];
+    private int[] xmlEnds = new int[16];
+    private int segments = 0;
+
+    void append(XMLStreamReader2 reader, RawXmlReader rawXml) {
+        int length = reader.getTextLength();
+        if (length == 0) {
+            return;
+        }
+        char[] buffer = reader.getTextCharacters();
+        int start = reader.getTextStart();
+        int xmlStart = (int) reader.getLocationInfo().getStartingCharOffset();
+
+        String raw = null;
+        if (rawXml != null) {
+            try {
+                raw = rawXml.getText(xmlStart, reader.getLocationInfo().getEndingCharOffset());
+            } catch (XMLStreamException e) {
+                // the end of the event is unknown, the event is then mapped as a single segment
+            }
+        }
+        if (raw == null || raw.length() == length || !alignSegments(buffer, start, length, raw, xmlStart)) {
+            addSegment(text.length(), xmlStart, xmlStart + length);
+        }
+
+        for (int i = start; i < start + length; i++) {
+            char c = buffer[i];
+            if (c == '\n' || c == '\r' || c == '\t') {
+                text.append(' ');
+            } else {
+                text.append(c);
+            }
+        }
+    }
+
+    /**
+     * Add the segments of an event whose raw XML is longer than its text, the segments being left unchanged
+     * when the raw XML does not correspond to the text
+     */
+    private boolean alignSegments(char[] buffer, int start, int length, String raw, int xmlStart) {
+        int segmentsBefore = segments;
+        int chunkStart = text.length();
+
+        // start of the current run of characters identical in the text and in the XML
+        int runText = 0;
+        int runRaw = 0;
+        int i = 0;
+        int j = 0;
+        while (i < length && j < raw.length()) {
+            char c = raw.charAt(j);
+            int referenceEnd = -1;
+            int referenceLength = 0;
+            if (c == '&') {
+                referenceEnd = raw.indexOf(';', j) + 1;
+                referenceLength = referenceEnd > 0 ? referenceLength(raw.substring(j + 1, referenceEnd - 1)) : 0;
+            } else if (c == '\r' && j + 1 < raw.length() && raw.charAt(j + 1) == '\n') {
+                referenceEnd = j + 2;
+                referenceLength = 1;
+            }
+
+            if (referenceEnd == -1) {
+                char expected = c == '\r' ? '\n' : c;
+                if (buffer[start + i] != expected) {
+                    segments = segmentsBefore;
+                    return false;
+                }
+                i++;
+                j++;
+                continue;
+            }
+            if (referenceLength == 0) {
+                segments = segmentsBefore;
+                return false;
+            }
+
+            if (i > runText) {
+                addSegment(chunkStart + runText, xmlStart + runRaw, xmlStart + j);
+            }
+            addSegment(chunkStart + i, xmlStart + j, xmlStart + referenceEnd);
+            i += referenceLength;
+            j = referenceEnd;
+            runText = i;
+            runRaw = j;
+        }
+
+        if (i != length || j != raw.length()) {
+            segments = segmentsBefore;
+            return false;
+        }
+        if (i > runText) {
+            addSegment(chunkStart + runText, xmlStart + runRaw, xmlStart + j);
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of characters of the text of a reference (&amp;name; or &amp;#code;), 0 when it is not
+     * a reference
+     */
+    private static int referenceLength(String name) {
+        if (name.isEmpty()) {
+            return 0;
+        }
+        if (name.charAt(0) != '#') {
+            return 1;
+        }
+        try {
+            int codePoint = name.length() > 1 && (name.charAt(1) == 'x' || name.charAt(1) == 'X') ?
+                Integer.parseInt(name.substring(2), 16) : Integer.parseInt(name.substring(1));
+            return Character.isValidCodePoint(codePoint) ? Character.charCount(codePoint) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void addSegment(int chunkOffset, int xmlStart, int xmlEnd) {
+        if (segments == chunkOffsets.length) {
+            chunkOffsets = Arrays.copyOf(chunkOffsets, segments * 2);
+            xmlStarts = Arrays.copyOf(xmlStarts, segments * 2);
+            xmlEnds = Arrays.copyOf(xmlEnds, segments * 2);
+        }
+        chunkOffsets[segments] = chunkOffset;
+        xmlStarts[segments] = xmlStart;
+        xmlEnds[segments] = xmlEnd;
+        segments++;
+    }
+
+    int length() {
+        return text.length();
+    }
+
+    boolean isBlank() {
+        return text.toString().trim().isEmpty();
+    }
+
+    void reset() {
+        text.setLength(0);
+        segments = 0;
+    }
+
+    String getText() {
+        return text.toString();
+    }
+
+    int[] getChunkOffsets() {
+        return Arrays.copyOf(chunkOffsets, segments);
+    }
+
+    int[] getXmlStarts() {
+        return Arrays.copyOf(xmlStarts, segments);
+    }
+
+    int[] getXmlEnds() {
+        return Arrays.copyOf(xmlEnds, segments);
+    }
+}
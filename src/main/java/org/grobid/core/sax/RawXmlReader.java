@@ -0,0 +1,175 @@
+package org.grobid.core.sax;
+
+import java.io.BufferedInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reader of an XML input keeping the characters read, so that the text of a text event can be compared with
+ * the XML it comes from (entity and character references, line breaks). The characters before a released
+ * offset are dropped, so that only the current part of the document is kept in memory.
+ */
+public class RawXmlReader extends FilterReader {
+
+    // bytes read to find the encoding of the XML declaration
+    private static final int DECLARATION_LENGTH = 1024;
+    private static final Pattern ENCODING_PATTERN = Pattern.compile("encoding\\s*=\\s*[\"']([A-Za-z0-9._:-]+)[\"']");
+
+    private final StringBuilder buffer = new StringBuilder();
+    // offset in the input of the first character of the buffer
+    private long bufferStart = 0;
+
+    public RawXmlReader(Reader reader) {
+        super(reader);
+    }
+
+    /**
+     * Decode an XML input with the encoding of its byte order mark or its XML declaration, UTF-8 by default
+     */
+    public static RawXmlReader of(InputStream inputStream) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(inputStream);
+        in.mark(DECLARATION_LENGTH);
+        byte[] head = new byte[DECLARATION_LENGTH];
+        int length = 0;
+        int read;
+        while (length < head.length && (read = in.read(head, length, head.length - length)) > 0) {
+            length += read;
+        }
+        in.reset();
+
+        Charset charset = UTF_8;
+        int bomLength = 0;
+        if (startsWith(head, length, 0xEF, 0xBB, 0xBF)) {
+            bomLength = 3;
+        } else if (startsWith(head, length, 0xFE, 0xFF)) {
+            charset = UTF_16BE;
+            bomLength = 2;
+        } else if (startsWith(head, length, 0xFF, 0xFE)) {
+            charset = UTF_16LE;
+            bomLength = 2;
+        } else if (startsWith(head, length, 0x00, 0x3C, 0x00, 0x3F)) {
+            charset = UTF_16BE;
+        } else if (startsWith(head, length, 0x3C, 0x00, 0x3F, 0x00)) {
+            charset = UTF_16LE;
+        } else {
+            charset = declaredCharset(new String(head, 0, length, ISO_8859_1));
+        }
+
+        long skipped = 0;
+        while (skipped < bomLength) {
+            skipped += in.skip(bomLength - skipped);
+        }
+        return new RawXmlReader(new InputStreamReader(in, charset));
+    }
+
+    private static Charset declaredCharset(String head) {
+        if (!head.startsWith("<?xml")) {
+            return UTF_8;
+        }
+        int end = head.indexOf("?>");
+        Matcher matcher = ENCODING_PATTERN.matcher(end == -1 ? head : head.substring(0, end));
+        if (!matcher.find()) {
+            return UTF_8;
+        }
+        try {
+            return Charset.forName(matcher.group(1));
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return UTF_8;
+        }
+    }
+
+    private static boolean startsWith(byte[] bytes, int length, int... prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int c = super.read();
+        if (c != -1) {
+            buffer.append((char) c);
+        }
+        return c;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        int read = super.read(cbuf, off, len);
+        if (read > 0) {
+            buffer.append(cbuf, off, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // the skipped characters are kept as well, so that the offsets stay aligned with the input
+        char[] skipped = new char[(int) Math.min(n, 8192)];
+        int read = read(skipped, 0, skipped.length);
+        return Math.max(read, 0);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(int readAheadLimit) throws IOException {
+        throw new IOException("mark() not supported");
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("reset() not supported");
+    }
+
+    /**
+     * @return the characters of the input between the offsets, null when they have been released or not read yet
+     */
+    public String getText(long start, long end) {
+        if (start < bufferStart || start > end || end > bufferStart + buffer.length()) {
+            return null;
+        }
+        return buffer.substring((int) (start - bufferStart), (int) (end - bufferStart));
+    }
+
+    /**
+     * Drop the characters before the offset, they are not needed anymore
+     */
+    public void release(long offset) {
+        long released = Math.min(offset, bufferStart + buffer.length()) - bufferStart;
+        // the buffer is compacted only when the released part is large enough, so that the copies stay cheap
+        if (released > 0 && released >= buffer.length() / 2) {
+            buffer.delete(0, (int) released);
+            bufferStart += released;
+        }
+    }
+
+    /**
+     * @return the number of characters currently kept
+     */
+    int getBufferedLength() {
+        return buffer.length();
+    }
+}
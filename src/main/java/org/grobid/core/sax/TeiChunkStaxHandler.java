@@ -0,0 +1,312 @@
+package org.grobid.core.sax;
+
+import org.codehaus.stax2.XMLStreamReader2;
+import org.grobid.core.analyzers.QuantityAnalyzer;
+import org.grobid.core.layout.BoundingBox;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.layout.Page;
+import org.grobid.trainer.stax.StaxParserContentHandler;
+import org.grobid.trainer.stax.StaxUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Identify in a GROBID TEI document the textual parts of interest for the quantities (title, abstract,
+ * keywords, section heads, body and annex paragraphs, figure and table head and description), the same parts
+ * the PDF processing is using. Each part is passed to a consumer as soon as it is read.
+ * <p>
+ * When the TEI has been generated with coordinates, the bounding boxes of the coords attributes are
+ * distributed over the tokens of each part, so that the measurements can be annotated on the PDF.
+ * Citation, figure and table markers and formulas are ignored, as in the PDF processing.
+ * <p>
+ * The offsets following the entity and character references are mapped to the XML input when the raw XML is
+ * given with {@link #setRawXml(RawXmlReader)}.
+ */
+public class TeiChunkStaxHandler implements StaxParserContentHandler {
+
+    private static final List<String> IGNORED_ELEMENTS = Arrays.asList("ref", "formula");
+
+    private final Consumer<TeiChunk> consumer;
+
+    private List<Page> pages = new ArrayList<>();
+
+    private Deque<ElementContext> elements = new ArrayDeque<>();
+    private int chunkDepth = -1;
+    private int ignoredDepth = 0;
+    private int annexDepth = 0;
+
+    private ChunkTextBuilder accumulator = new ChunkTextBuilder();
+
+    private RawXmlReader rawXml;
+
+    // start of each part of the chunk sharing the same coordinates
+    private List<Integer> coordinatesOffsets = new ArrayList<>();
+    private List<List<BoundingBox>> coordinates = new ArrayList<>();
+
+    public TeiChunkStaxHandler(Consumer<TeiChunk> consumer) {
+        this.consumer = consumer;
+    }
+
+    public List<Page> getPages() {
+        return pages;
+    }
+
+    /**
+     * @param rawXml the reader the TEI is parsed from, to map the offsets following the entity and character
+     *               references
+     */
+    public void setRawXml(RawXmlReader rawXml) {
+        this.rawXml = rawXml;
+    }
+
+    @Override
+    public void onStartDocument(XMLStreamReader2 reader) {
+    }
+
+    @Override
+    public void onEndDocument(XMLStreamReader2 reader) {
+    }
+
+    @Override
+    public void onStartElement(XMLStreamReader2 reader) {
+        String localName = reader.getName().getLocalPart();
+        String parent = elements.isEmpty() ? "" : elements.peek().name;
+
+        if ("surface".equals(localName)) {
+            Page page = toPage(reader);
+            if (page != null) {
+                pages.add(page);
+            }
+        }
+
+        boolean annex = "div".equals(localName) && "annex".equals(StaxUtils.getAttributeByLocalName(reader, "type"));
+        if (annex) {
+            annexDepth++;
+        }
+
+        List<BoundingBox> boxes = parseCoordinates(StaxUtils.getAttributeByLocalName(reader, "coords"));
+        if (boxes.isEmpty() && !elements.isEmpty()) {
+            boxes = elements.peek().coordinates;
+        }
+        elements.push(new ElementContext(localName, boxes, annex));
+
+        if (chunkDepth != -1) {
+            if (IGNORED_ELEMENTS.contains(localName)) {
+                ignoredDepth++;
+            }
+        } else {
+            if (rawXml != null) {
+                rawXml.release(reader.getLocationInfo().getStartingCharOffset());
+            }
+            if (isChunk(localName, parent)) {
+                chunkDepth = elements.size();
+                reset();
+            }
+        }
+    }
+
+    @Override
+    public void onEndElement(XMLStreamReader2 reader) {
+        if (elements.isEmpty()) {
+            return;
+        }
+
+        if (chunkDepth != -1 && elements.size() > chunkDepth && IGNORED_ELEMENTS.contains(elements.peek().name)) {
+            ignoredDepth--;
+        }
+
+        if (elements.size() == chunkDepth) {
+            if (!accumulator.isBlank()) {
+                consumer.accept(new TeiChunk(accumulator, toArray(coordinatesOffsets), new ArrayList<>(coordinates)));
+            }
+            chunkDepth = -1;
+            ignoredDepth = 0;
+            reset();
+        }
+
+        ElementContext element = elements.pop();
+        if (element.annex) {
+            annexDepth--;
+        }
+    }
+
+    @Override
+    public void onCharacter(XMLStreamReader2 reader) {
+        if (chunkDepth == -1 || ignoredDepth > 0 || reader.getTextLength() == 0) {
+            return;
+        }
+
+        List<BoundingBox> boxes = elements.peek().coordinates;
+        if (coordinates.isEmpty() || coordinates.get(coordinates.size() - 1) != boxes) {
+            coordinatesOffsets.add(accumulator.length());
+            coordinates.add(boxes);
+        }
+        accumulator.append(reader, rawXml);
+    }
+
+    private boolean isChunk(String localName, String parent) {
+        switch (localName) {
+            case "title":
+                return "titleStmt".equals(parent);
+            case "term":
+                return "keywords".equals(parent);
+            case "head":
+                return "figure".equals(parent) || ("div".equals(parent) && (isInside("body") || isInside("back")));
+            case "figDesc":
+                return "figure".equals(parent);
+            case "p":
+                return (isInside("abstract") || isInside("body") || annexDepth > 0) && !isInside("figure");
+            default:
+                return false;
+        }
+    }
+
+    private boolean isInside(String localName) {
+        for (ElementContext element : elements) {
+            if (element.name.equals(localName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reset() {
+        accumulator.reset();
+        coordinatesOffsets.clear();
+        coordinates.clear();
+    }
+
+    /**
+     * @return the page of a surface element, null when its number or its dimensions are missing or invalid
+     */
+    private static Page toPage(XMLStreamReader2 reader) {
+        String number = StaxUtils.getAttributeByLocalName(reader, "n");
+        String ulx = StaxUtils.getAttributeByLocalName(reader, "ulx");
+        String uly = StaxUtils.getAttributeByLocalName(reader, "uly");
+        String lrx = StaxUtils.getAttributeByLocalName(reader, "lrx");
+        String lry = StaxUtils.getAttributeByLocalName(reader, "lry");
+        if (isBlank(number) || isBlank(ulx) || isBlank(uly) || isBlank(lrx) || isBlank(lry)) {
+            return null;
+        }
+        try {
+            Page page = new Page(Integer.parseInt(number.trim()));
+            page.setWidth(Double.parseDouble(lrx) - Double.parseDouble(ulx));
+            page.setHeight(Double.parseDouble(lry) - Double.parseDouble(uly));
+            return page;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse a GROBID coords attribute, e.g. "1,72.00,94.13,451.06,10.00;1,72.00,106.09,230.85,10.00"
+     */
+    static List<BoundingBox> parseCoordinates(String coords) {
+        if (isBlank(coords)) {
+            return Collections.emptyList();
+        }
+        List<BoundingBox> boxes = new ArrayList<>();
+        for (String box : coords.split(";")) {
+            if (isNotBlank(box)) {
+                boxes.add(BoundingBox.fromString(box.trim()));
+            }
+        }
+        return boxes;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        return list.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static class ElementContext {
+        private final String name;
+        private final List<BoundingBox> coordinates;
+        private final boolean annex;
+
+        ElementContext(String name, List<BoundingBox> coordinates, boolean annex) {
+            this.name = name;
+            this.coordinates = coordinates;
+            this.annex = annex;
+        }
+    }
+
+    /**
+     * A textual part of the TEI document, with the mapping of its offsets to the XML input and its coordinates
+     */
+    public static class TeiChunk extends TextChunkStaxHandler.TextChunk {
+        private final int[] coordinatesOffsets;
+        private final List<List<BoundingBox>> coordinates;
+
+        TeiChunk(ChunkTextBuilder builder, int[] coordinatesOffsets, List<List<BoundingBox>> coordinates) {
+            super(builder);
+            this.coordinatesOffsets = coordinatesOffsets;
+            this.coordinates = coordinates;
+        }
+
+        /**
+         * Tokenize the chunk, with offsets relative to the chunk text. The bounding boxes of each part of the
+         * chunk are considered as consecutive lines and each token is placed proportionally to its position
+         * in the part.
+         */
+        public List<LayoutToken> getLayoutTokens() {
+            List<LayoutToken> tokens = QuantityAnalyzer.getInstance().tokenizeWithLayoutToken(getText());
+
+            int part = 0;
+            for (LayoutToken token : tokens) {
+                if (isBlank(token.getText())) {
+                    continue;
+                }
+                while (part + 1 < coordinatesOffsets.length && coordinatesOffsets[part + 1] <= token.getOffset()) {
+                    part++;
+                }
+                List<BoundingBox> boxes = coordinates.get(part);
+                if (boxes.isEmpty()) {
+                    continue;
+                }
+
+                int partStart = coordinatesOffsets[part];
+                int partEnd = part + 1 < coordinatesOffsets.length ? coordinatesOffsets[part + 1] : getText().length();
+                setCoordinates(token, boxes, partStart, partEnd);
+            }
+
+            return tokens;
+        }
+
+        private static void setCoordinates(LayoutToken token, List<BoundingBox> boxes, int partStart, int partEnd) {
+            double totalWidth = 0;
+            for (BoundingBox box : boxes) {
+                totalWidth += box.getWidth();
+            }
+            double length = Math.max(1, partEnd - partStart);
+            double tokenStart = totalWidth * (token.getOffset() - partStart) / length;
+            double tokenEnd = totalWidth * (token.getOffset() + token.getText().length() - partStart) / length;
+
+            // find the line where the token starts, a token does not continue on the next line
+            double lineStart = 0;
+            int index = 0;
+            while (index < boxes.size() - 1 && tokenStart >= lineStart + boxes.get(index).getWidth()) {
+                lineStart += boxes.get(index).getWidth();
+                index++;
+            }
+            BoundingBox line = boxes.get(index);
+
+            double x = line.getX() + Math.min(tokenStart - lineStart, line.getWidth());
+            double width = Math.min(tokenEnd - lineStart, line.getWidth()) - (x - line.getX());
+
+            token.setPage(line.getPage());
+            token.setX(x);
+            token.setY(line.getY());
+            token.setWidth(Math.max(width, 0));
+            token.setHeight(line.getHeight());
+        }
+    }
+}
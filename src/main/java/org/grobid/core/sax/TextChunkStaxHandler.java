@@ -0,0 +1,199 @@
+package org.grobid.core.sax;
+
+import org.codehaus.stax2.XMLStreamReader2;
+import org.grobid.trainer.stax.StaxParserContentHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming counterpart of {@link TextChunkSaxHandler}: identify the paragraphs (p, paragraph) and pass each
+ * of them to a consumer as soon as its end is read, so that only one chunk is kept in memory.
+ * <p>
+ * In the chunk text, line breaks and tabs are replaced by spaces and nothing is collapsed. Each chunk maps its
+ * offsets back to the character offsets in the XML input, the entity and character references included when
+ * the raw XML is given with {@link #setRawXml(RawXmlReader)}.
+ */
+public class TextChunkStaxHandler implements StaxParserContentHandler {
+
+    private final Consumer<TextChunk> consumer;
+
+    private List<String> filteredTags = new ArrayList<>();
+
+    private ChunkTextBuilder accumulator = new ChunkTextBuilder();
+
+    private RawXmlReader rawXml;
+
+    private int paragraphDepth = 0;
+    private int filteredDepth = 0;
+
+    public TextChunkStaxHandler(Consumer<TextChunk> consumer) {
+        this.consumer = consumer;
+    }
+
+    public void setFilteredTags(List<String> filteredTags) {
+        this.filteredTags = filteredTags;
+    }
+
+    public void addFilteredTag(String filteredTag) {
+        filteredTags.add(filteredTag);
+    }
+
+    /**
+     * @param rawXml the reader the XML is parsed from, to map the offsets following the entity and character
+     *               references
+     */
+    public void setRawXml(RawXmlReader rawXml) {
+        this.rawXml = rawXml;
+    }
+
+    @Override
+    public void onStartDocument(XMLStreamReader2 reader) {
+    }
+
+    @Override
+    public void onEndDocument(XMLStreamReader2 reader) {
+    }
+
+    @Override
+    public void onStartElement(XMLStreamReader2 reader) {
+        releaseRawXml(reader);
+        String localName = reader.getName().getLocalPart();
+        if (filteredTags.contains(localName)) {
+            filteredDepth++;
+        }
+
+        if (isParagraph(localName)) {
+            if (paragraphDepth == 0) {
+                reset();
+            }
+            paragraphDepth++;
+        }
+    }
+
+    @Override
+    public void onEndElement(XMLStreamReader2 reader) {
+        String localName = reader.getName().getLocalPart();
+        if (isParagraph(localName) && paragraphDepth > 0) {
+            paragraphDepth--;
+            if (paragraphDepth == 0) {
+                if (!accumulator.isBlank()) {
+                    consumer.accept(new TextChunk(accumulator));
+                }
+                reset();
+            }
+        }
+
+        if (filteredTags.contains(localName) && filteredDepth > 0) {
+            filteredDepth--;
+        }
+        releaseRawXml(reader);
+    }
+
+    @Override
+    public void onCharacter(XMLStreamReader2 reader) {
+        if (paragraphDepth == 0) {
+            releaseRawXml(reader);
+            return;
+        }
+        if (filteredDepth > 0) {
+            return;
+        }
+
+        accumulator.append(reader, rawXml);
+    }
+
+    private void reset() {
+        accumulator.reset();
+    }
+
+    /**
+     * Outside the paragraphs, the raw XML read before the current event is not needed anymore, so that only
+     * the current paragraph is kept in memory whatever the size of the document
+     */
+    private void releaseRawXml(XMLStreamReader2 reader) {
+        if (rawXml != null && paragraphDepth == 0) {
+            rawXml.release(reader.getLocationInfo().getStartingCharOffset());
+        }
+    }
+
+    private static boolean isParagraph(String localName) {
+        return localName.equals("p") || localName.equals("paragraph");
+    }
+
+    /**
+     * A paragraph of text, with the mapping of its offsets to the XML input
+     */
+    public static class TextChunk {
+        private final String text;
+        // start of each segment in the chunk, and its span in the XML input
+        private final int[] chunkOffsets;
+        private final int[] xmlStarts;
+        private final int[] xmlEnds;
+
+        TextChunk(ChunkTextBuilder builder) {
+            this.text = builder.getText();
+            this.chunkOffsets = builder.getChunkOffsets();
+            this.xmlStarts = builder.getXmlStarts();
+            this.xmlEnds = builder.getXmlEnds();
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Convert an offset in the chunk text into a character offset in the XML input, an offset inside an
+         * entity or character reference is mapped to the start of the reference
+         */
+        public int toXmlOffset(int offset) {
+            int index = segmentOf(offset);
+            if (index < 0) {
+                return offset;
+            }
+            int inSegment = offset - chunkOffsets[index];
+            if (isLinear(index) || inSegment == 0) {
+                return xmlStarts[index] + inSegment;
+            }
+            int segmentLength = segmentLength(index);
+            return inSegment >= segmentLength ? xmlEnds[index] + inSegment - segmentLength : xmlStarts[index];
+        }
+
+        /**
+         * Convert an exclusive end offset in the chunk text, an end falling at the boundary of a text segment
+         * stays attached to the segment it closes
+         */
+        public int toXmlEndOffset(int endOffset) {
+            if (endOffset <= 0) {
+                return toXmlOffset(endOffset);
+            }
+            int index = segmentOf(endOffset - 1);
+            if (index < 0) {
+                return endOffset;
+            }
+            int inSegment = endOffset - chunkOffsets[index];
+            if (isLinear(index)) {
+                return xmlStarts[index] + inSegment;
+            }
+            return xmlEnds[index] + Math.max(0, inSegment - segmentLength(index));
+        }
+
+        private int segmentOf(int offset) {
+            int index = Arrays.binarySearch(chunkOffsets, offset);
+            return index < 0 ? -index - 2 : index;
+        }
+
+        private int segmentLength(int index) {
+            return (index + 1 < chunkOffsets.length ? chunkOffsets[index + 1] : text.length()) - chunkOffsets[index];
+        }
+
+        /**
+         * @return true when the text of the segment has the same length as in the XML, e.g. not a reference
+         */
+        private boolean isLinear(int index) {
+            return xmlEnds[index] - xmlStarts[index] == segmentLength(index);
+        }
+    }
+}
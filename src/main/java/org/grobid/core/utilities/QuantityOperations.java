@@ -7,12 +7,15 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.assertj.core.data.Offset;
 import org.grobid.core.data.Measurement;
+import org.grobid.core.data.QuantifiedObject;
 import org.grobid.core.data.Quantity;
+import org.grobid.core.data.Unit;
 import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.layout.BoundingBox;
 import org.grobid.core.layout.LayoutToken;
 
 import java.util.*;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
 
 import static org.apache.commons.collections4.CollectionUtils.isEmpty;
@@ -132,6 +135,47 @@ public class QuantityOperations {
         return quantitiesList;
     }
 
+    /**
+     * Convert all the offsets of a measurement (raw offsets, quantities, units and quantified object), using
+     * separate conversions for the start and the (exclusive) end offsets. Objects shared between quantities
+     * are converted only once.
+     */
+    public static void remapOffsets(Measurement measurement, IntUnaryOperator startMapping, IntUnaryOperator endMapping) {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        OffsetPosition rawOffsets = measurement.getRawOffsets();
+        if (rawOffsets != null && rawOffsets.start > -1 && rawOffsets.end > -1) {
+            rawOffsets.start = startMapping.applyAsInt(rawOffsets.start);
+            rawOffsets.end = endMapping.applyAsInt(rawOffsets.end);
+        }
+
+        for (Quantity quantity : toQuantityList(measurement)) {
+            if (quantity == null || !visited.add(quantity)) {
+                continue;
+            }
+            if (quantity.getOffsetStart() > -1) {
+                quantity.setOffsetStart(startMapping.applyAsInt(quantity.getOffsetStart()));
+                quantity.setOffsetEnd(endMapping.applyAsInt(quantity.getOffsetEnd()));
+            }
+            remapOffsets(quantity.getRawUnit(), visited, startMapping, endMapping);
+            remapOffsets(quantity.getParsedUnit(), visited, startMapping, endMapping);
+        }
+
+        QuantifiedObject quantifiedObject = measurement.getQuantifiedObject();
+        if (quantifiedObject != null && quantifiedObject.getOffsetStart() > -1) {
+            quantifiedObject.setOffsetStart(startMapping.applyAsInt(quantifiedObject.getOffsetStart()));
+            quantifiedObject.setOffsetEnd(endMapping.applyAsInt(quantifiedObject.getOffsetEnd()));
+        }
+    }
+
+    private static void remapOffsets(Unit unit, Set<Object> visited, IntUnaryOperator startMapping, IntUnaryOperator endMapping) {
+        if (unit == null || !visited.add(unit) || unit.getOffsetStart() < 0) {
+            return;
+        }
+        unit.setOffsetStart(startMapping.applyAsInt(unit.getOffsetStart()));
+        unit.setOffsetEnd(endMapping.applyAsInt(unit.getOffsetEnd()));
+    }
+
     public static List<OffsetPosition> getOffset(Measurement measurement) {
         return toQuantityList(measurement)
                 .stream()
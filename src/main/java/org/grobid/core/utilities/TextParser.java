@@ -64,8 +64,10 @@ public class TextParser {
     }
 
     private static synchronized void getNewInstance() throws Exception {
-        logger.debug("Get new instance of TextParser");
-        instance = new TextParser();
+        if (instance == null) {
+            logger.debug("Get new instance of TextParser");
+            instance = new TextParser();
+        }
     }
 
     /**
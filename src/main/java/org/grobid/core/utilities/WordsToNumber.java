@@ -26,7 +26,7 @@ public class WordsToNumber {
 
     private static volatile WordsToNumber instance;
 
-    private final String VALUES_PATH = "lexicon/en/values.json";
+    public static final String VALUES_PATH = "lexicon/en/values.json";
 
     private static List<String> bases = null; 
     private static List<String> tens = null; 
@@ -46,7 +46,9 @@ public class WordsToNumber {
     }
 
     private static synchronized void getNewInstance() {
-        instance = new WordsToNumber();
+        if (instance == null) {
+            instance = new WordsToNumber();
+        }
     }
 
     private WordsToNumber() {
@@ -1,20 +1,35 @@
 package org.grobid.service;
 
 import com.google.common.collect.ImmutableList;
+import org.grobid.core.data.normalization.QuantityNormalizer;
+import org.grobid.core.engines.ParallelInitialiser;
+import org.grobid.core.engines.QuantifiedObjectParser;
+import org.grobid.core.engines.QuantitiesWarmup;
+import org.grobid.core.engines.QuantityParser;
+import org.grobid.core.engines.UnitParser;
+import org.grobid.core.engines.ValueParser;
+import org.grobid.core.lexicon.QuantityLexicon;
 import org.grobid.core.main.GrobidHomeFinder;
 import org.grobid.core.main.LibraryLoader;
 import org.grobid.core.utilities.GrobidProperties;
+import org.grobid.core.utilities.TextParser;
+import org.grobid.core.utilities.WordsToNumber;
 import org.grobid.service.configuration.GrobidQuantitiesConfiguration;
+import org.grobid.service.configuration.WarmupConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.io.File;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 @Singleton
 public class GrobidEngineInitialiser {
     private static final Logger LOGGER = LoggerFactory.getLogger(GrobidEngineInitialiser.class);
 
+    private final ParallelInitialiser initialiser;
 
     @Inject
     public GrobidEngineInitialiser(GrobidQuantitiesConfiguration configuration) {
@@ -22,5 +37,36 @@ public class GrobidEngineInitialiser {
         GrobidHomeFinder grobidHomeFinder = new GrobidHomeFinder(ImmutableList.of(configuration.getGrobidHome()));
         GrobidProperties.getInstance(grobidHomeFinder);
         LibraryLoader.load();
+        if (isNotBlank(configuration.getLexiconDirectory())) {
+            QuantityLexicon.setLexiconDirectory(new File(configuration.getLexiconDirectory()));
+        }
+        if (isNotBlank(configuration.getLexiconSnapshot())) {
+            QuantityLexicon.setSnapshotFile(new File(configuration.getLexiconSnapshot()));
+        }
+
+        // the components are loaded in the background, the parsers after the resources they use
+        initialiser = new ParallelInitialiser()
+            .add("lexicon", QuantityLexicon::getInstance)
+            .add("wordsToNumber", WordsToNumber::getInstance)
+            .add("unitFormats", QuantityNormalizer::loadUnitFormats)
+            .add("textParser", TextParser::getInstance)
+            .add("valueParser", ValueParser::getInstance)
+            .add("unitParser", UnitParser::getInstance)
+            .add("quantifiedObjectParser", QuantifiedObjectParser::getInstance)
+            .add("quantityParser", QuantityParser::getInstance);
+        WarmupConfiguration warmup = configuration.getWarmup();
+        if (warmup != null && warmup.isEnabled()) {
+            // the warm-up waits for the parsers and runs before the service is ready
+            initialiser.add("warmup",
+                () -> new QuantitiesWarmup(QuantitiesWarmup.loadCorpus(warmup.getCorpus())).run(warmup.getIterations()));
+        }
+        initialiser.start(configuration.getInitialisationThreads());
+    }
+
+    /**
+     * The initialisation of the lexicons, models and parsers, the service is ready when it is finished
+     */
+    public ParallelInitialiser getInitialiser() {
+        return initialiser;
     }
 }
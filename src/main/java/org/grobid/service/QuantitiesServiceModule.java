@@ -10,6 +10,7 @@ import org.grobid.core.engines.QuantityParser;
 import org.grobid.service.configuration.GrobidQuantitiesConfiguration;
 import org.grobid.service.controller.AnnotationController;
 import org.grobid.service.controller.HealthCheck;
+import org.grobid.service.controller.ReadinessCheck;
 import org.grobid.service.exceptions.mapper.GrobidExceptionMapper;
 import org.grobid.service.exceptions.mapper.GrobidExceptionsTranslationUtility;
 import org.grobid.service.exceptions.mapper.GrobidServiceExceptionMapper;
@@ -26,6 +27,7 @@ public class QuantitiesServiceModule extends DropwizardAwareModule<GrobidQuantit
         // -- Generic modules --
         binder.bind(GrobidEngineInitialiser.class);
         binder.bind(HealthCheck.class);
+        binder.bind(ReadinessCheck.class);
 
         //Services
         binder.bind(QuantityParser.class);
@@ -0,0 +1,77 @@
+package org.grobid.service.command;
+
+import io.dropwizard.cli.ConfiguredCommand;
+import io.dropwizard.setup.Bootstrap;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+import org.grobid.core.engines.QuantitiesEngine;
+import org.grobid.service.configuration.GrobidQuantitiesConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+import static org.grobid.service.command.TrainingGenerationCommand.*;
+
+public class BatchProcessingCommand extends ConfiguredCommand<GrobidQuantitiesConfiguration> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchProcessingCommand.class);
+    public final static String THREADS = "threads";
+
+    public BatchProcessingCommand() {
+        super("batch", "Process text, XML and PDF files in batch");
+    }
+
+    @Override
+    public void configure(Subparser subparser) {
+        super.configure(subparser);
+
+        subparser.addArgument("-dIn")
+            .dest(INPUT_DIRECTORY)
+            .type(Arguments.fileType().verifyExists().verifyCanRead().verifyIsDirectory())
+            .required(true)
+            .help("Input directory");
+
+        subparser.addArgument("-dOut")
+            .dest(OUTPUT_DIRECTORY)
+            .type(Arguments.fileType().verifyIsDirectory().verifyCanWrite().or().verifyNotExists().verifyCanCreate())
+            .required(true)
+            .help("Output directory, a batch restarted with the same output directory resumes where it stopped");
+
+        subparser.addArgument("-gH")
+            .dest(GROBID_HOME_DIRECTORY)
+            .type(Arguments.fileType().verifyExists().verifyCanRead().verifyIsDirectory())
+            .required(false)
+            .help("Override the grobid-home directory from the configuration. ");
+
+        subparser.addArgument("-r")
+            .dest(RECURSIVE)
+            .type(Boolean.class)
+            .setDefault(false)
+            .required(false)
+            .help("Recursive processing");
+
+        subparser.addArgument("-n")
+            .dest(THREADS)
+            .type(Integer.class)
+            .setDefault(Runtime.getRuntime().availableProcessors())
+            .required(false)
+            .help("Number of files processed in parallel");
+    }
+
+    @Override
+    protected void run(Bootstrap bootstrap, Namespace namespace, GrobidQuantitiesConfiguration configuration) throws Exception {
+        File grobidHomeOverride = namespace.get(GROBID_HOME_DIRECTORY);
+        String grobidHome = configuration.getGrobidHome();
+        initGrobidHome(grobidHome, grobidHomeOverride);
+
+        File inputDirectory = namespace.get(INPUT_DIRECTORY);
+        File outputDirectory = namespace.get(OUTPUT_DIRECTORY);
+        boolean isRecursive = namespace.get(RECURSIVE);
+        int threads = namespace.get(THREADS);
+
+        LOGGER.info("Processing " + inputDirectory.getAbsolutePath() + " with " + threads + " threads");
+        new QuantitiesEngine(configuration, bootstrap.getMetricRegistry())
+            .batchProcess(inputDirectory.getAbsolutePath(), outputDirectory.getAbsolutePath(), isRecursive, threads);
+    }
+}
@@ -0,0 +1,166 @@
+package org.grobid.service.command;
+
+import io.dropwizard.cli.ConfiguredCommand;
+import io.dropwizard.setup.Bootstrap;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+import org.grobid.core.data.MeasurementsResponse;
+import org.grobid.core.engines.QuantitiesEngine;
+import org.grobid.core.engines.QuantitiesWarmup;
+import org.grobid.core.engines.QuantityParser;
+import org.grobid.core.engines.benchmark.BenchmarkReport;
+import org.grobid.core.engines.benchmark.PipelineBenchmark;
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.service.configuration.GrobidQuantitiesConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.grobid.service.command.TrainingGenerationCommand.GROBID_HOME_DIRECTORY;
+import static org.grobid.service.command.TrainingGenerationCommand.initGrobidHome;
+
+public class BenchmarkCommand extends ConfiguredCommand<GrobidQuantitiesConfiguration> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BenchmarkCommand.class);
+
+    private final static String INPUT = "input";
+    private final static String PDF = "pdf";
+    private final static String THREADS = "threads";
+    private final static String WARMUP_ITERATIONS = "warmupIterations";
+    private final static String ITERATIONS = "iterations";
+    private final static String OUTPUT_FILE = "outputFile";
+    private final static String BASELINE_FILE = "baselineFile";
+    private final static String TOLERANCE = "tolerance";
+
+    public BenchmarkCommand() {
+        super("benchmark", "Measure the throughput and latency of the text or PDF processing in-process");
+    }
+
+    @Override
+    public void configure(Subparser subparser) {
+        super.configure(subparser);
+
+        subparser.addArgument("-in")
+            .dest(INPUT)
+            .type(Arguments.fileType().verifyExists().verifyCanRead())
+            .required(false)
+            .help("Text corpus with a document per line (the bundled sample corpus by default), "
+                + "or directory of PDF files with -pdf");
+
+        subparser.addArgument("-pdf")
+            .dest(PDF)
+            .type(Boolean.class)
+            .setDefault(false)
+            .required(false)
+            .help("Process the PDF files of the input directory instead of a text corpus");
+
+        subparser.addArgument("-gH")
+            .dest(GROBID_HOME_DIRECTORY)
+            .type(Arguments.fileType().verifyExists().verifyCanRead().verifyIsDirectory())
+            .required(false)
+            .help("Override the grobid-home directory from the configuration. ");
+
+        subparser.addArgument("-n")
+            .dest(THREADS)
+            .type(Integer.class)
+            .setDefault(Runtime.getRuntime().availableProcessors())
+            .required(false)
+            .help("Number of documents processed in parallel");
+
+        subparser.addArgument("-w")
+            .dest(WARMUP_ITERATIONS)
+            .type(Integer.class)
+            .setDefault(3)
+            .required(false)
+            .help("Number of iterations over the corpus before the measures");
+
+        subparser.addArgument("-i")
+            .dest(ITERATIONS)
+            .type(Integer.class)
+            .setDefault(10)
+            .required(false)
+            .help("Number of measured iterations over the corpus");
+
+        subparser.addArgument("-o")
+            .dest(OUTPUT_FILE)
+            .type(File.class)
+            .required(true)
+            .help("JSON report file");
+
+        subparser.addArgument("-baseline")
+            .dest(BASELINE_FILE)
+            .type(Arguments.fileType().verifyExists().verifyCanRead())
+            .required(false)
+            .help("JSON report of a baseline run, the command fails when the results regress beyond the tolerance");
+
+        subparser.addArgument("-tolerance")
+            .dest(TOLERANCE)
+            .type(Double.class)
+            .setDefault(0.1)
+            .required(false)
+            .help("Allowed relative difference with the baseline");
+    }
+
+    @Override
+    protected void run(Bootstrap bootstrap, Namespace namespace, GrobidQuantitiesConfiguration configuration) throws Exception {
+        File grobidHomeOverride = namespace.get(GROBID_HOME_DIRECTORY);
+        String grobidHome = configuration.getGrobidHome();
+        initGrobidHome(grobidHome, grobidHomeOverride);
+
+        File input = namespace.get(INPUT);
+        boolean isPdf = namespace.get(PDF);
+        int threads = namespace.get(THREADS);
+        int warmupIterations = namespace.get(WARMUP_ITERATIONS);
+        int iterations = namespace.get(ITERATIONS);
+        File outputFile = namespace.get(OUTPUT_FILE);
+
+        // every document is processed: no stored result, and no computation shared between identical documents
+        configuration.setPdfResultStore(null);
+        QuantitiesEngine engine = new QuantitiesEngine(configuration, bootstrap.getMetricRegistry());
+        BenchmarkReport report;
+        if (isPdf) {
+            if (input == null || !input.isDirectory()) {
+                throw new GrobidException("The PDF benchmark needs a directory of PDF files as input.");
+            }
+            report = new PipelineBenchmark<>(listPdfFiles(input.toPath()),
+                pdfFile -> engine.processPdf(pdfFile).toJson(), threads).run(warmupIterations, iterations);
+            report.setMode("pdf");
+        } else {
+            List<String> texts = QuantitiesWarmup.loadCorpus(input == null ? null : input.getAbsolutePath());
+            QuantityParser parser = QuantityParser.getInstance();
+            report = new PipelineBenchmark<>(texts, text -> new MeasurementsResponse(parser.process(text)).toJson(),
+                threads).run(warmupIterations, iterations);
+            report.setMode("text");
+        }
+
+        report.write(outputFile);
+        LOGGER.info("Benchmark report written in " + outputFile.getAbsolutePath());
+
+        File baselineFile = namespace.get(BASELINE_FILE);
+        if (baselineFile != null) {
+            List<String> regressions = report.compareTo(BenchmarkReport.read(baselineFile), namespace.get(TOLERANCE));
+            if (!regressions.isEmpty()) {
+                throw new GrobidException("Regressions compared to the baseline " + baselineFile.getAbsolutePath()
+                    + ": " + String.join("; ", regressions));
+            }
+            LOGGER.info("No regression compared to the baseline " + baselineFile.getAbsolutePath());
+        }
+    }
+
+    private static List<File> listPdfFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(f -> f.getFileName().toString().toLowerCase().endsWith(".pdf"))
+                .sorted()
+                .map(Path::toFile)
+                .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.grobid.service.command;
+
+import io.dropwizard.cli.ConfiguredCommand;
+import io.dropwizard.setup.Bootstrap;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+import org.grobid.core.lexicon.LexiconSnapshot;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.service.configuration.GrobidQuantitiesConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+public class LexiconSnapshotCommand extends ConfiguredCommand<GrobidQuantitiesConfiguration> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LexiconSnapshotCommand.class);
+
+    private final static String OUTPUT_FILE = "outputFile";
+
+    public LexiconSnapshotCommand() {
+        super("buildLexiconSnapshot", "Compile the lexicon in the binary snapshot loaded at startup");
+    }
+
+    @Override
+    public void configure(Subparser subparser) {
+        super.configure(subparser);
+
+        subparser.addArgument("-o")
+            .dest(OUTPUT_FILE)
+            .type(File.class)
+            .required(false)
+            .help("Snapshot file, overriding the lexiconSnapshot file of the configuration");
+    }
+
+    @Override
+    protected void run(Bootstrap bootstrap, Namespace namespace, GrobidQuantitiesConfiguration configuration) throws Exception {
+        File outputFile = namespace.get(OUTPUT_FILE);
+        if (outputFile == null) {
+            if (isBlank(configuration.getLexiconSnapshot())) {
+                System.err.println("No snapshot file: use -o or set lexiconSnapshot in the configuration.");
+                return;
+            }
+            outputFile = new File(configuration.getLexiconSnapshot());
+        }
+
+        if (isNotBlank(configuration.getLexiconDirectory())) {
+            QuantityLexicon.setLexiconDirectory(new File(configuration.getLexiconDirectory()));
+        }
+        LOGGER.info("Building the lexicon snapshot " + outputFile.getAbsolutePath());
+        LexiconSnapshot.write(QuantityLexicon.loadFromResources(), outputFile);
+    }
+}
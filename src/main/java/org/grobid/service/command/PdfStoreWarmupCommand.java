@@ -0,0 +1,60 @@
+package org.grobid.service.command;
+
+import io.dropwizard.cli.ConfiguredCommand;
+import io.dropwizard.setup.Bootstrap;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+import org.grobid.core.engines.QuantitiesEngine;
+import org.grobid.service.configuration.GrobidQuantitiesConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+import static org.grobid.service.command.TrainingGenerationCommand.*;
+
+public class PdfStoreWarmupCommand extends ConfiguredCommand<GrobidQuantitiesConfiguration> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PdfStoreWarmupCommand.class);
+
+    public PdfStoreWarmupCommand() {
+        super("warmPdfStore", "Process a directory of PDF files and fill the PDF result store");
+    }
+
+    @Override
+    public void configure(Subparser subparser) {
+        super.configure(subparser);
+
+        subparser.addArgument("-dIn")
+            .dest(INPUT_DIRECTORY)
+            .type(Arguments.fileType().verifyExists().verifyCanRead().verifyIsDirectory())
+            .required(true)
+            .help("Input directory containing the PDF files");
+
+        subparser.addArgument("-gH")
+            .dest(GROBID_HOME_DIRECTORY)
+            .type(Arguments.fileType().verifyExists().verifyCanRead().verifyIsDirectory())
+            .required(false)
+            .help("Override the grobid-home directory from the configuration. ");
+
+        subparser.addArgument("-r")
+            .dest(RECURSIVE)
+            .type(Boolean.class)
+            .setDefault(false)
+            .required(false)
+            .help("Recursive processing");
+    }
+
+    @Override
+    protected void run(Bootstrap bootstrap, Namespace namespace, GrobidQuantitiesConfiguration configuration) throws Exception {
+        File grobidHomeOverride = namespace.get(GROBID_HOME_DIRECTORY);
+        String grobidHome = configuration.getGrobidHome();
+        initGrobidHome(grobidHome, grobidHomeOverride);
+
+        File inputDirectory = namespace.get(INPUT_DIRECTORY);
+        boolean isRecursive = namespace.get(RECURSIVE);
+
+        LOGGER.info("Filling the PDF result store from " + inputDirectory.getAbsolutePath());
+        new QuantitiesEngine(configuration, bootstrap.getMetricRegistry()).warmPdfResultStore(inputDirectory.getAbsolutePath(), isRecursive);
+    }
+}
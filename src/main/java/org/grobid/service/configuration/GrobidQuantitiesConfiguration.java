@@ -3,6 +3,9 @@ package org.grobid.service.configuration;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.dropwizard.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class GrobidQuantitiesConfiguration extends Configuration {
 
     private String grobidHome;
@@ -14,6 +17,26 @@ public class GrobidQuantitiesConfiguration extends Configuration {
     @JsonProperty
     private String corsAllowedHeaders = "X-Requested-With,Content-Type,Accept,Origin";
 
+    @JsonProperty
+    private PdfResultStoreConfiguration pdfResultStore = new PdfResultStoreConfiguration();
+
+    @JsonProperty
+    private List<String> javaCrfModels = new ArrayList<>();
+
+    @JsonProperty
+    private LabelingBatchConfiguration labelingBatch = new LabelingBatchConfiguration();
+
+    @JsonProperty
+    private String lexiconSnapshot;
+
+    @JsonProperty
+    private String lexiconDirectory;
+
+    @JsonProperty
+    private int initialisationThreads = Runtime.getRuntime().availableProcessors();
+
+    @JsonProperty
+    private WarmupConfiguration warmup = new WarmupConfiguration();
 
     public String getGrobidHome() {
         return grobidHome;
@@ -46,4 +69,60 @@ public class GrobidQuantitiesConfiguration extends Configuration {
     public void setCorsAllowedHeaders(String corsAllowedHeaders) {
         this.corsAllowedHeaders = corsAllowedHeaders;
     }
+
+    public PdfResultStoreConfiguration getPdfResultStore() {
+        return pdfResultStore;
+    }
+
+    public void setPdfResultStore(PdfResultStoreConfiguration pdfResultStore) {
+        this.pdfResultStore = pdfResultStore;
+    }
+
+    public List<String> getJavaCrfModels() {
+        return javaCrfModels;
+    }
+
+    public void setJavaCrfModels(List<String> javaCrfModels) {
+        this.javaCrfModels = javaCrfModels;
+    }
+
+    public LabelingBatchConfiguration getLabelingBatch() {
+        return labelingBatch;
+    }
+
+    public void setLabelingBatch(LabelingBatchConfiguration labelingBatch) {
+        this.labelingBatch = labelingBatch;
+    }
+
+    public String getLexiconSnapshot() {
+        return lexiconSnapshot;
+    }
+
+    public void setLexiconSnapshot(String lexiconSnapshot) {
+        this.lexiconSnapshot = lexiconSnapshot;
+    }
+
+    public String getLexiconDirectory() {
+        return lexiconDirectory;
+    }
+
+    public void setLexiconDirectory(String lexiconDirectory) {
+        this.lexiconDirectory = lexiconDirectory;
+    }
+
+    public int getInitialisationThreads() {
+        return initialisationThreads;
+    }
+
+    public void setInitialisationThreads(int initialisationThreads) {
+        this.initialisationThreads = initialisationThreads;
+    }
+
+    public WarmupConfiguration getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(WarmupConfiguration warmup) {
+        this.warmup = warmup;
+    }
 }
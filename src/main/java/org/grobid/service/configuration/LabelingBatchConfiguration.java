@@ -0,0 +1,64 @@
+package org.grobid.service.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the micro-batching of the labeling calls. The batching is disabled for the models
+ * not listed.
+ */
+public class LabelingBatchConfiguration {
+
+    @JsonProperty
+    private List<String> models = new ArrayList<>();
+
+    // maximum number of labeling calls grouped in a batch
+    @JsonProperty
+    private int maxBatchSize = 32;
+
+    // maximum time a labeling call waits for other calls
+    @JsonProperty
+    private long maxDelayMs = 2;
+
+    // number of batches of the same model labeled at the same time
+    @JsonProperty
+    private int workers = 1;
+
+    public List<String> getModels() {
+        return models;
+    }
+
+    public void setModels(List<String> models) {
+        this.models = models;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    public void setMaxDelayMs(long maxDelayMs) {
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public boolean isEnabled() {
+        return models != null && !models.isEmpty();
+    }
+}
@@ -0,0 +1,60 @@
+package org.grobid.service.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Configuration of the on-disk store of PDF results. The store is disabled when no directory is set.
+ */
+public class PdfResultStoreConfiguration {
+
+    @JsonProperty
+    private String directory;
+
+    // maximum number of stored responses, used only when maxSizeMb is not set
+    @JsonProperty
+    private long maxEntries = 10000;
+
+    // maximum size of the store on disk, the least recently used entries are evicted first
+    @JsonProperty
+    private long maxSizeMb = 0;
+
+    // entries older than this are evicted, 0 means no expiration
+    @JsonProperty
+    private long maxAgeHours = 0;
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getMaxSizeMb() {
+        return maxSizeMb;
+    }
+
+    public void setMaxSizeMb(long maxSizeMb) {
+        this.maxSizeMb = maxSizeMb;
+    }
+
+    public long getMaxAgeHours() {
+        return maxAgeHours;
+    }
+
+    public void setMaxAgeHours(long maxAgeHours) {
+        this.maxAgeHours = maxAgeHours;
+    }
+
+    public boolean isEnabled() {
+        return directory != null && directory.trim().length() > 0;
+    }
+}
@@ -0,0 +1,38 @@
+package org.grobid.service.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Configuration of the JIT warm-up run at startup, before the service is ready. The warm-up is disabled
+ * when no iteration is set.
+ */
+public class WarmupConfiguration {
+
+    // number of passes of the text pipeline over the corpus
+    @JsonProperty
+    private int iterations = 0;
+
+    // text file with a paragraph per line, the bundled sample corpus when not set
+    @JsonProperty
+    private String corpus;
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public String getCorpus() {
+        return corpus;
+    }
+
+    public void setCorpus(String corpus) {
+        this.corpus = corpus;
+    }
+
+    public boolean isEnabled() {
+        return iterations > 0;
+    }
+}
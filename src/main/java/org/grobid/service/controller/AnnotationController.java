@@ -7,6 +7,7 @@ import org.grobid.core.data.MeasurementsResponse;
 import org.grobid.core.data.UnitBlock;
 import org.grobid.core.engines.QuantitiesEngine;
 import org.grobid.core.engines.QuantityParser;
+import org.grobid.core.lexicon.QuantityLexicon;
 import org.grobid.service.configuration.GrobidQuantitiesConfiguration;
 
 import javax.inject.Inject;
@@ -14,6 +15,7 @@ import javax.inject.Singleton;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.InputStream;
 import java.util.List;
 
@@ -26,6 +28,7 @@ public class AnnotationController {
     private static final String PATH_QUANTITY_TEXT = "processQuantityText";
     private static final String PATH_UNITS_TEXT = "processUnitsText";
     private static final String PATH_QUANTITY_XML = "processQuantityXML";
+    private static final String PATH_QUANTITY_TEI = "processQuantityTEI";
     private static final String PATH_ANNOTATE_QUANTITY_PDF = "annotateQuantityPDF";
     private static final String PATH_PARSE_MEASURE = "parseMeasure";
 
@@ -63,9 +66,28 @@ public class AnnotationController {
     @Consumes(MediaType.MULTIPART_FORM_DATA)
     @Produces(MediaType.APPLICATION_JSON)
     @POST
-    public String processPDF(@FormDataParam("input") InputStream uploadedInputStream,
+    public StreamingOutput processPDF(@FormDataParam("input") InputStream uploadedInputStream,
+                                      @FormDataParam("input") FormDataContentDisposition fileDetail,
+                                      @DefaultValue("false") @FormDataParam("profile") boolean profile) {
+        return engine.processPdfAsJson(uploadedInputStream, profile);
+    }
+
+    @Path(PATH_QUANTITY_XML)
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces(MediaType.APPLICATION_JSON)
+    @POST
+    public StreamingOutput processXML(@FormDataParam("input") InputStream uploadedInputStream,
+                                      @FormDataParam("input") FormDataContentDisposition fileDetail) {
+        return engine.processXmlAsJson(uploadedInputStream);
+    }
+
+    @Path(PATH_QUANTITY_TEI)
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces(MediaType.APPLICATION_JSON)
+    @POST
+    public String processTEI(@FormDataParam("input") InputStream uploadedInputStream,
                              @FormDataParam("input") FormDataContentDisposition fileDetail) {
-        MeasurementsResponse response = engine.processPdf(uploadedInputStream);
+        MeasurementsResponse response = engine.processTEI(uploadedInputStream);
         return response.toJson();
     }
 
@@ -73,9 +95,11 @@ public class AnnotationController {
     @Consumes(MediaType.MULTIPART_FORM_DATA)
     @Produces(MediaType.APPLICATION_JSON)
     @POST
-    public String processText(@FormDataParam("text") String text) {
+    public String processText(@FormDataParam("text") String text,
+                              @DefaultValue(QuantityLexicon.DEFAULT_LANGUAGE) @FormDataParam("language") String language,
+                              @DefaultValue("false") @FormDataParam("profile") boolean profile) {
 
-        MeasurementsResponse response = engine.processText(text);
+        MeasurementsResponse response = engine.processText(text, language, profile);
 
         return response.toJson();
     }
@@ -83,8 +107,8 @@ public class AnnotationController {
     @Path(PATH_PARSE_MEASURE)
     @Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
     @POST
-    public String parseMeasure_post(String json) {
-        MeasurementsResponse response = engine.processJson(json);
+    public String parseMeasure_post(String json, @DefaultValue("false") @QueryParam("profile") boolean profile) {
+        MeasurementsResponse response = engine.processJson(json, profile);
 
         return response.toJson();
     }
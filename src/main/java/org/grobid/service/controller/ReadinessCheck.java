@@ -0,0 +1,48 @@
+package org.grobid.service.controller;
+
+import org.grobid.core.engines.ParallelInitialiser;
+import org.grobid.service.GrobidEngineInitialiser;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+
+/**
+ * Readiness of the service: unlike the liveness ({@link HealthCheck}), the service is ready only once the lexicons,
+ * models and parsers are loaded.
+ */
+@Path("ready")
+@Singleton
+@Produces(APPLICATION_JSON)
+public class ReadinessCheck {
+
+    private final ParallelInitialiser initialiser;
+
+    @Inject
+    public ReadinessCheck(GrobidEngineInitialiser engineInitialiser) {
+        this.initialiser = engineInitialiser.getInitialiser();
+    }
+
+    @GET
+    public Response ready() {
+        boolean ready = initialiser.isReady();
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ready", ready);
+        status.put("pending", initialiser.getPending());
+        status.put("failures", initialiser.getFailures());
+        status.put("loadTimes", initialiser.getLoadTimes());
+        status.put("totalTime", initialiser.getTotalTime());
+
+        return Response.status(ready ? Response.Status.OK : Response.Status.SERVICE_UNAVAILABLE)
+            .entity(status)
+            .build();
+    }
+}
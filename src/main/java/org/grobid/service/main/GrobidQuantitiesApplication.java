@@ -10,10 +10,15 @@ import io.dropwizard.setup.Bootstrap;
 import io.dropwizard.setup.Environment;
 import org.eclipse.jetty.servlets.CrossOriginFilter;
 import org.grobid.service.QuantitiesServiceModule;
+import org.grobid.service.command.BatchProcessingCommand;
+import org.grobid.service.command.BenchmarkCommand;
+import org.grobid.service.command.LexiconSnapshotCommand;
+import org.grobid.service.command.PdfStoreWarmupCommand;
 import org.grobid.service.command.RunTrainingCommand;
 import org.grobid.service.command.UnitBatchProcessingCommand;
 import org.grobid.service.command.TrainingGenerationCommand;
 import org.grobid.service.configuration.GrobidQuantitiesConfiguration;
+import org.grobid.service.task.LexiconReloadTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,12 +53,17 @@ public class GrobidQuantitiesApplication extends Application<GrobidQuantitiesCon
         bootstrap.addCommand(new TrainingGenerationCommand());
         bootstrap.addCommand(new UnitBatchProcessingCommand());
         bootstrap.addCommand(new RunTrainingCommand());
+        bootstrap.addCommand(new PdfStoreWarmupCommand());
+        bootstrap.addCommand(new BatchProcessingCommand());
+        bootstrap.addCommand(new LexiconSnapshotCommand());
+        bootstrap.addCommand(new BenchmarkCommand());
     }
 
     @Override
     public void run(GrobidQuantitiesConfiguration configuration, Environment environment) {
         LOGGER.info("Service config={}", configuration);
         environment.jersey().setUrlPattern(RESOURCES + "/*");
+        environment.admin().addTask(new LexiconReloadTask());
 
         String allowedOrigins = configuration.getCorsAllowedOrigins();
         String allowedMethods = configuration.getCorsAllowedMethods();
@@ -0,0 +1,33 @@
+package org.grobid.service.task;
+
+import com.google.common.collect.ImmutableMultimap;
+import io.dropwizard.servlets.tasks.Task;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintWriter;
+
+/**
+ * Admin task rebuilding the lexicons from the lexicon files and replacing the ones in use, without restart:
+ * {@code POST /tasks/reload-lexicon} on the admin port, {@code ?language=fr} for a single language. The requests
+ * keep using the previous lexicon until the new one is built.
+ */
+public class LexiconReloadTask extends Task {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LexiconReloadTask.class);
+
+    public LexiconReloadTask() {
+        super("reload-lexicon");
+    }
+
+    @Override
+    public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) throws Exception {
+        long start = System.currentTimeMillis();
+        String language = parameters.get("language").stream().findFirst().orElse(null);
+        QuantityLexicon lexicon = language == null ? QuantityLexicon.reload() : QuantityLexicon.reload(language);
+        String message = "Lexicon " + (language == null ? "" : language + " ") + "reloaded in " + (System.currentTimeMillis() - start) + " ms, fingerprint "
+            + lexicon.getFingerprint();
+        LOGGER.info(message);
+        output.println(message);
+    }
+}
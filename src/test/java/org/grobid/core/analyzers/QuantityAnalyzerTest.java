@@ -2,13 +2,19 @@ package org.grobid.core.analyzers;
 
 import org.grobid.core.layout.LayoutToken;
 import org.grobid.core.utilities.LayoutTokensUtil;
+import org.grobid.core.utilities.UnicodeUtil;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.StringTokenizer;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.junit.Assert.*;
 
@@ -76,4 +82,92 @@ public class QuantityAnalyzerTest {
         assertThat(tokens.get(10).getText(), is("0"));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testScan_shouldMatchTheRegexTokenization() throws Exception {
+        List<String> inputs = Arrays.asList("",
+            "This is a sample text, with 1.5m of intelligence.",
+            "1m74 and 25kg/m2, 10^-3 s, x2y3z, 3.5×10⁵ Pa, 20°C–30°C",
+            "ab12cd34 5é6 é5 ½3 ٣4a \u00A0 12\t\n\r9",
+            "(a)[b]{c}100%‰ ≈ ±3 \"quoted\" ‘single’ “double” $5 ♦♥♣♠");
+
+        for (String input : inputs) {
+            assertThat(input, target.tokenize(input), is(referenceTokenize(input)));
+        }
+
+        Random random = new Random(42);
+        String alphabet = "aZ09 .-é5x/%\u00A0µ²";
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < random.nextInt(30); j++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String input = sb.toString();
+            assertThat(input, target.tokenize(input), is(referenceTokenize(input)));
+        }
+    }
+
+    @Test
+    public void testScan_offsets() throws Exception {
+        TokenOffsets tokens = target.scan("1m74 high");
+
+        assertThat(tokens.size(), is(5));
+        assertThat(tokens.getToken(2), is("74"));
+        assertThat(tokens.getStart(2), is(2));
+        assertThat(tokens.getEnd(2), is(4));
+        assertThat(tokens.getLayoutToken(4).getText(), is("high"));
+        assertThat(tokens.getLayoutToken(4).getOffset(), is(5));
+    }
+
+    @Test
+    public void testTokenizeLayoutToken_shouldKeepTheStartingIndex() throws Exception {
+        LayoutToken chunk = new LayoutToken("12kg");
+
+        List<LayoutToken> tokens = target.tokenize(chunk, 10);
+
+        assertThat(tokens, hasSize(2));
+        assertThat(tokens.get(0).getText(), is("12"));
+        assertThat(tokens.get(0).getOffset(), is(10));
+        assertThat(tokens.get(1).getText(), is("kg"));
+        assertThat(tokens.get(1).getOffset(), is(12));
+    }
+
+    @Test
+    public void testTokenizeWithLayoutTokenByCharacter_repeatedCharacters() throws Exception {
+        List<LayoutToken> tokens = target.tokenizeWithLayoutTokenByCharacter("10 m/10 s");
+
+        assertThat(tokens, hasSize(9));
+        assertThat(LayoutTokensUtil.toText(tokens), is("10 m/10 s"));
+        assertThat(tokens.get(5).getText(), is("1"));
+        assertThat(tokens.get(5).getOffset(), is(5));
+        assertThat(tokens.get(8).getOffset(), is(8));
+    }
+
+    @Test
+    public void testNormaliseToken_ascii_shouldReturnTheSameInstance() throws Exception {
+        String token = "kg/m3";
+
+        assertThat(QuantityAnalyzer.normaliseToken(token), sameInstance(token));
+    }
+
+    @Test
+    public void testNormaliseToken_shouldMatchTheNormalisedText() throws Exception {
+        for (String token : Arrays.asList("µm", "°C", "×", "10−3", "a\u00A0b", " ", "\n", "20 kg")) {
+            assertThat(QuantityAnalyzer.normaliseToken(token), is(UnicodeUtil.normaliseText(token)));
+            // second time from the cache
+            assertThat(QuantityAnalyzer.normaliseToken(token), is(UnicodeUtil.normaliseText(token)));
+        }
+    }
+
+    /**
+     * The previous tokenization, based on StringTokenizer and a regex
+     */
+    private static List<String> referenceTokenize(String text) {
+        List<String> result = new ArrayList<>();
+        StringTokenizer st = new StringTokenizer(text, QuantityAnalyzer.DELIMITERS, true);
+        while (st.hasMoreTokens()) {
+            result.addAll(Arrays.asList(st.nextToken().split("(?<=[a-zA-Z])(?=\\d)|(?<=\\d)(?=\\D)")));
+        }
+        return result;
+    }
+
+}
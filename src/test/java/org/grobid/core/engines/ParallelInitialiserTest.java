@@ -0,0 +1,85 @@
+package org.grobid.core.engines;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+public class ParallelInitialiserTest {
+
+    @Test
+    public void testStart_shouldLoadAllTheComponents() throws Exception {
+        AtomicInteger loaded = new AtomicInteger();
+        ParallelInitialiser target = new ParallelInitialiser()
+            .add("a", loaded::incrementAndGet)
+            .add("b", loaded::incrementAndGet)
+            .add("c", loaded::incrementAndGet);
+
+        assertThat(target.isReady(), is(false));
+        assertThat(target.getPending(), is(new LinkedHashSet<>(Arrays.asList("a", "b", "c"))));
+
+        target.start(2);
+
+        assertThat(target.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(loaded.get(), is(3));
+        assertThat(target.isReady(), is(true));
+        assertThat(target.getPending().isEmpty(), is(true));
+        assertThat(target.getLoadTimes().keySet(), is(new LinkedHashSet<>(Arrays.asList("a", "b", "c"))));
+        assertThat(target.getTotalTime(), is(not(-1L)));
+    }
+
+    @Test
+    public void testStart_componentsLoadedInParallel() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        ParallelInitialiser target = new ParallelInitialiser()
+            .add("a", () -> {
+                bothStarted.countDown();
+                return bothStarted.await(10, TimeUnit.SECONDS);
+            })
+            .add("b", () -> {
+                bothStarted.countDown();
+                return bothStarted.await(10, TimeUnit.SECONDS);
+            });
+
+        target.start(2);
+
+        assertThat(target.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(target.isReady(), is(true));
+        assertThat(bothStarted.getCount(), is(0L));
+    }
+
+    @Test
+    public void testStart_failingComponent_shouldNotBeReady() throws Exception {
+        ParallelInitialiser target = new ParallelInitialiser()
+            .add("a", () -> true)
+            .add("b", () -> {
+                throw new IllegalStateException("missing model");
+            });
+
+        target.start(1);
+
+        assertThat(target.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(target.isDone(), is(true));
+        assertThat(target.isReady(), is(false));
+        assertThat(target.getFailures(), is(Collections.singletonMap("b", "missing model")));
+        assertThat(target.getLoadTimes().keySet(), is(Collections.singleton("a")));
+    }
+
+    @Test
+    public void testStart_noComponent_shouldBeReady() throws Exception {
+        ParallelInitialiser target = new ParallelInitialiser();
+
+        target.start(4);
+
+        assertThat(target.isReady(), is(true));
+        assertThat(target.getTotalTime(), is(0L));
+    }
+}
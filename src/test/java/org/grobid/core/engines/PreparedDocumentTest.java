@@ -0,0 +1,59 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.analyzers.QuantityAnalyzer;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.core.utilities.OffsetPosition;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.easymock.EasyMock.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.Assert.assertThat;
+
+public class PreparedDocumentTest {
+
+    @Test
+    public void testPrepare_shouldRetokenizeWithoutModifyingTheInput() throws Exception {
+        LayoutToken token = new LayoutToken("20kg of ingot");
+        token.setOffset(10);
+        List<LayoutToken> input = Collections.singletonList(token);
+
+        QuantityLexicon lexiconMock = createMock(QuantityLexicon.class);
+        expect(lexiconMock.inUnitNames(anyObject(List.class)))
+            .andReturn(Collections.singletonList(new OffsetPosition(1, 1)));
+        replay(lexiconMock);
+
+        PreparedDocument document = PreparedDocument.prepare(input, lexiconMock);
+
+        verify(lexiconMock);
+        assertThat(document.getText(), is("20kg of ingot"));
+        assertThat(document.getTokens(), hasSize(6));
+        assertThat(document.getTokens().get(1).getText(), is("kg"));
+        assertThat(document.getTokens().get(1).getOffset(), is(12));
+        assertThat(document.getTokens().get(0), is(not(sameInstance(token))));
+        assertThat(document.getUnitPositions(), hasSize(1));
+        assertThat(document.getLexicon(), is(sameInstance(lexiconMock)));
+
+        assertThat(token.getText(), is("20kg of ingot"));
+        assertThat(token.getOffset(), is(10));
+    }
+
+    @Test
+    public void testPrepare_emptyInput_shouldNotCallTheLexicon() throws Exception {
+        QuantityLexicon lexiconMock = createMock(QuantityLexicon.class);
+        replay(lexiconMock);
+
+        PreparedDocument document = PreparedDocument.prepare(QuantityAnalyzer.getInstance().tokenizeWithLayoutToken(""), lexiconMock);
+
+        verify(lexiconMock);
+        assertThat(document.isEmpty(), is(true));
+        assertThat(document.getText(), is(""));
+        assertThat(document.getUnitPositions(), hasSize(0));
+    }
+}
@@ -0,0 +1,34 @@
+package org.grobid.core.engines;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.grobid.core.engines.metrics.RequestProfile;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class QuantitiesEngineTest {
+
+    @Test
+    public void testWithProfile_shouldAddTheProfileAndReplaceTheRuntime() throws Exception {
+        RequestProfile profile = new RequestProfile();
+        profile.addCacheLookup("pdfResultStore", true);
+        String stored = "{ \"measurements\": [{\"value\": 0.000010}], \"runtime\" : 1534, \"note\": \"}\"}";
+
+        String json = QuantitiesEngine.withProfile(stored, profile, 3);
+
+        JsonNode response = new ObjectMapper().readTree(json);
+        assertThat(response.get("runtime").asLong(), is(3L));
+        assertThat(response.get("note").asText(), is("}"));
+        assertThat(response.get("profile").get("caches").get("pdfResultStore").get("hits").asInt(), is(1));
+        assertThat(json.contains("0.000010"), is(true));
+    }
+
+    @Test(expected = IOException.class)
+    public void testWithProfile_invalidStoredResponse_shouldThrowException() throws Exception {
+        QuantitiesEngine.withProfile("[1, 2]", new RequestProfile(), 3);
+    }
+}
@@ -0,0 +1,45 @@
+package org.grobid.core.engines;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertThat;
+
+public class QuantitiesWarmupTest {
+
+    @Test
+    public void testRun_shouldProcessTheCorpusAtEachIteration() throws Exception {
+        List<String> processed = new ArrayList<>();
+        QuantitiesWarmup target = new QuantitiesWarmup(Arrays.asList("3 km", "20 °C"), text -> {
+            processed.add(text);
+            return text;
+        });
+
+        long[] times = target.run(3);
+
+        assertThat(times.length, is(3));
+        assertThat(processed, is(Arrays.asList("3 km", "20 °C", "3 km", "20 °C", "3 km", "20 °C")));
+    }
+
+    @Test
+    public void testRun_noIteration() throws Exception {
+        QuantitiesWarmup target = new QuantitiesWarmup(Arrays.asList("3 km"), text -> {
+            throw new IllegalStateException();
+        });
+
+        assertThat(target.run(0).length, is(0));
+    }
+
+    @Test
+    public void testLoadCorpus_sampleCorpus() throws Exception {
+        List<String> texts = QuantitiesWarmup.loadCorpus(null);
+
+        assertThat(texts.size(), greaterThan(10));
+        assertThat(texts.stream().allMatch(text -> !text.trim().isEmpty()), is(true));
+    }
+}
@@ -0,0 +1,34 @@
+package org.grobid.core.engines.batch;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BatchCheckpointTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMarkCompleted_shouldBeReloaded() throws Exception {
+        Path output = folder.getRoot().toPath();
+
+        try (BatchCheckpoint checkpoint = new BatchCheckpoint(output)) {
+            checkpoint.markCompleted("a/file1.pdf");
+            checkpoint.markCompleted("file2.txt");
+            checkpoint.markCompleted("file2.txt");
+        }
+
+        try (BatchCheckpoint checkpoint = new BatchCheckpoint(output)) {
+            assertThat(checkpoint.size(), is(2));
+            assertThat(checkpoint.isCompleted("a/file1.pdf"), is(true));
+            assertThat(checkpoint.isCompleted("file2.txt"), is(true));
+            assertThat(checkpoint.isCompleted("file3.xml"), is(false));
+        }
+    }
+}
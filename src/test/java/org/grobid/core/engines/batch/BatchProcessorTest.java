@@ -0,0 +1,126 @@
+package org.grobid.core.engines.batch;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BatchProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path input;
+    private Path output;
+
+    // the files processed, and the files failing when processed
+    private final Set<String> processedFiles = ConcurrentHashMap.newKeySet();
+    private final Set<String> failingFiles = ConcurrentHashMap.newKeySet();
+
+    private final BatchProcessor.FileProcessor processor = (inputFile, os) -> {
+        String relativePath = BatchProcessor.relativePath(input, inputFile);
+        processedFiles.add(relativePath);
+        // the failure happens once part of the output is written
+        os.write("{".getBytes(UTF_8));
+        if (failingFiles.contains(relativePath)) {
+            throw new IOException("Cannot process " + relativePath);
+        }
+        os.write(("\"text\": \"" + new String(Files.readAllBytes(inputFile), UTF_8) + "\"}").getBytes(UTF_8));
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        input = folder.newFolder("input").toPath();
+        output = folder.getRoot().toPath().resolve("output");
+        write("a.txt", "text a");
+        write("b.xml", "<p>text b</p>");
+        write("sub/a.txt", "text sub a");
+        write("sub/c.tei.xml", "<TEI/>");
+        write("ignored.doc", "not processed");
+    }
+
+    private void write(String relativePath, String content) throws IOException {
+        FileUtils.writeStringToFile(input.resolve(relativePath).toFile(), content, UTF_8);
+    }
+
+    private List<String> outputFiles() throws IOException {
+        try (Stream<Path> stream = Files.walk(output)) {
+            return stream
+                .filter(Files::isRegularFile)
+                .map(p -> BatchProcessor.relativePath(output, p))
+                .collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testRun_shouldMirrorTheRelativePaths() throws Exception {
+        BatchProcessor target = new BatchProcessor(processor, ".json", 2);
+
+        target.run(input, output, true, ".txt", ".xml");
+
+        assertThat(target.getProcessed(), is(4));
+        assertThat(target.getFailed(), is(0));
+        assertThat(outputFiles(), containsInAnyOrder("a.txt.json", "b.xml.json", "sub/a.txt.json",
+            "sub/c.tei.xml.json", BatchCheckpoint.MANIFEST_NAME));
+        assertThat(new String(Files.readAllBytes(output.resolve("sub/a.txt.json")), UTF_8),
+            is("{\"text\": \"text sub a\"}"));
+    }
+
+    @Test
+    public void testRun_notRecursive_shouldSkipTheSubDirectories() throws Exception {
+        BatchProcessor target = new BatchProcessor(processor, ".json", 2);
+
+        target.run(input, output, false, ".txt", ".xml");
+
+        assertThat(target.getProcessed(), is(2));
+        assertThat(processedFiles, containsInAnyOrder("a.txt", "b.xml"));
+    }
+
+    @Test
+    public void testRun_failingFile_shouldBeCountedWithoutOutput() throws Exception {
+        failingFiles.add("b.xml");
+        BatchProcessor target = new BatchProcessor(processor, ".json", 2);
+
+        target.run(input, output, true, ".txt", ".xml");
+
+        assertThat(target.getProcessed(), is(4));
+        assertThat(target.getFailed(), is(1));
+        // neither the output nor its temporary file are left behind
+        assertThat(outputFiles(), containsInAnyOrder("a.txt.json", "sub/a.txt.json", "sub/c.tei.xml.json",
+            BatchCheckpoint.MANIFEST_NAME));
+    }
+
+    @Test
+    public void testRun_afterPartialRun_shouldResumeWithTheRemainingFiles() throws Exception {
+        failingFiles.add("b.xml");
+        failingFiles.add("sub/c.tei.xml");
+        new BatchProcessor(processor, ".json", 2).run(input, output, true, ".txt", ".xml");
+
+        failingFiles.clear();
+        processedFiles.clear();
+        BatchProcessor target = new BatchProcessor(processor, ".json", 2);
+        target.run(input, output, true, ".txt", ".xml");
+
+        assertThat(target.getSkipped(), is(2));
+        assertThat(target.getProcessed(), is(2));
+        assertThat(target.getFailed(), is(0));
+        assertThat(processedFiles, containsInAnyOrder("b.xml", "sub/c.tei.xml"));
+        assertThat(outputFiles(), containsInAnyOrder("a.txt.json", "b.xml.json", "sub/a.txt.json",
+            "sub/c.tei.xml.json", BatchCheckpoint.MANIFEST_NAME));
+    }
+}
@@ -0,0 +1,104 @@
+package org.grobid.core.engines.benchmark;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+public class PipelineBenchmarkTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRun_shouldProcessEachDocumentOncePerIteration() throws Exception {
+        ConcurrentHashMap<String, AtomicInteger> processed = new ConcurrentHashMap<>();
+        PipelineBenchmark<String> target = new PipelineBenchmark<>(Arrays.asList("3 km", "20 °C", "5 kg"),
+            text -> processed.computeIfAbsent(text, t -> new AtomicInteger()).incrementAndGet(), 2);
+
+        BenchmarkReport report = target.run(1, 4);
+
+        // the warm-up iteration is not recorded
+        assertThat(processed.get("3 km").get(), is(5));
+        assertThat(processed.get("20 °C").get(), is(5));
+        assertThat(processed.get("5 kg").get(), is(5));
+        assertThat(report.getProcessed(), is(12L));
+        assertThat(report.getErrors(), is(0L));
+        assertThat(report.getDocuments(), is(3));
+        assertThat(report.getThreads(), is(2));
+        assertThat(report.getThroughput(), greaterThan(0.0));
+        assertThat(report.getLatencyMs().getMax(), greaterThanOrEqualTo(report.getLatencyMs().getP50()));
+    }
+
+    @Test
+    public void testRun_failingDocuments_shouldBeCountedAsErrors() throws Exception {
+        PipelineBenchmark<String> target = new PipelineBenchmark<>(Arrays.asList("3 km", "fail"), text -> {
+            if (text.equals("fail")) {
+                throw new IllegalStateException();
+            }
+        }, 1);
+
+        BenchmarkReport report = target.run(0, 3);
+
+        assertThat(report.getProcessed(), is(3L));
+        assertThat(report.getErrors(), is(3L));
+    }
+
+    @Test
+    public void testCompareTo_shouldReportTheRegressionsBeyondTheTolerance() throws Exception {
+        BenchmarkReport baseline = report(100, 10, 1000);
+
+        assertThat(report(95, 10.5, 1050).compareTo(baseline, 0.1), hasSize(0));
+
+        List<String> regressions = report(80, 12, 1050).compareTo(baseline, 0.1);
+        assertThat(regressions, hasSize(2));
+        assertThat(regressions.get(0), startsWith("throughput"));
+        assertThat(regressions.get(1), startsWith("p99 latency"));
+    }
+
+    @Test
+    public void testCompareTo_allocationNotMeasured_shouldBeIgnored() throws Exception {
+        BenchmarkReport baseline = report(100, 10, -1);
+
+        assertThat(report(100, 10, 5000).compareTo(baseline, 0.1), is(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void testWriteRead() throws Exception {
+        BenchmarkReport report = report(100, 10, 1000);
+        report.setMode("text");
+        File file = folder.newFile("report.json");
+
+        report.write(file);
+        BenchmarkReport read = BenchmarkReport.read(file);
+
+        assertThat(read.getMode(), is("text"));
+        assertThat(read.getThroughput(), is(100.0));
+        assertThat(read.getLatencyMs().getP99(), is(10.0));
+        assertThat(read.getAllocatedBytesPerDocument(), is(1000L));
+    }
+
+    private static BenchmarkReport report(double throughput, double p99, long allocatedBytesPerDocument) {
+        BenchmarkReport report = new BenchmarkReport();
+        report.setThroughput(throughput);
+        BenchmarkReport.Latency latency = new BenchmarkReport.Latency();
+        latency.setP99(p99);
+        report.setLatencyMs(latency);
+        report.setCpuMsPerDocument(-1);
+        report.setAllocatedBytesPerDocument(allocatedBytesPerDocument);
+        return report;
+    }
+}
@@ -0,0 +1,127 @@
+package org.grobid.core.engines.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class InFlightRequestsTest {
+    private InFlightRequests<String, String> target;
+
+    @Before
+    public void setUp() throws Exception {
+        target = new InFlightRequests<>();
+    }
+
+    @Test
+    public void testExecute_concurrentIdenticalRequests_shouldComputeOnce() throws Exception {
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> target.execute("key", () -> {
+                computations.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "result";
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            Future<String> second = executor.submit(() -> target.execute("key", () -> {
+                computations.incrementAndGet();
+                return "other";
+            }));
+            while (target.getCoalescedCount() == 0) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS), is("result"));
+            assertThat(second.get(5, TimeUnit.SECONDS), is("result"));
+            assertThat(computations.get(), is(1));
+            assertThat(target.getCoalescedCount(), is(1L));
+            assertThat(target.size(), is(0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecute_withCopy_shouldGiveACopyToTheWaitingRequests() throws Exception {
+        InFlightRequests<String, List<String>> target = new InFlightRequests<>(ArrayList::new);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<String>> first = executor.submit(() -> target.execute("key", () -> {
+                started.countDown();
+                await(release);
+                return new ArrayList<>(Arrays.asList("a", "b"));
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            Future<List<String>> second = executor.submit(() -> target.execute("key", ArrayList::new));
+            while (target.getCoalescedCount() == 0) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            List<String> firstResult = first.get(5, TimeUnit.SECONDS);
+            List<String> secondResult = second.get(5, TimeUnit.SECONDS);
+            assertThat(secondResult, is(not(sameInstance(firstResult))));
+            firstResult.add("c");
+            assertThat(secondResult, contains("a", "b"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecute_sequentialRequests_shouldNotCoalesce() throws Exception {
+        assertThat(target.execute("key", () -> "a"), is("a"));
+        assertThat(target.execute("key", () -> "b"), is("b"));
+
+        assertThat(target.getCoalescedCount(), is(0L));
+    }
+
+    @Test
+    public void testExecute_failingComputation_shouldReleaseTheKey() throws Exception {
+        try {
+            target.execute("key", () -> {
+                throw new IllegalStateException("failure");
+            });
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("failure"));
+        }
+
+        assertThat(target.size(), is(0));
+        assertThat(target.execute("key", () -> "a"), is("a"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
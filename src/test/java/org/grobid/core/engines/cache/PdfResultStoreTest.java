@@ -0,0 +1,198 @@
+package org.grobid.core.engines.cache;
+
+import com.google.common.base.Ticker;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class PdfResultStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String KEY_1 = "aa" + repeat('1');
+    private static final String KEY_2 = "bb" + repeat('2');
+    private static final String KEY_3 = "cc" + repeat('3');
+
+    private static String repeat(char c) {
+        return String.join("", Collections.nCopies(62, String.valueOf(c)));
+    }
+
+    private PdfResultStore newStore(long maxEntries, long maxSizeBytes) {
+        return new PdfResultStore(folder.getRoot().toPath(), "v1", maxEntries, maxSizeBytes, 0);
+    }
+
+    private List<Path> files(String extension) throws Exception {
+        try (Stream<Path> stream = Files.walk(folder.getRoot().toPath())) {
+            return stream
+                .filter(p -> p.getFileName().toString().endsWith(extension))
+                .collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testPutLookup() throws Exception {
+        PdfResultStore target = newStore(10, 0);
+
+        target.put(KEY_1, "{\"measurements\": []}");
+
+        Path entry = target.lookup(KEY_1);
+        assertThat(entry, is(notNullValue()));
+        assertThat(new String(Files.readAllBytes(entry), UTF_8), is("{\"measurements\": []}"));
+        assertThat(target.contains(KEY_2), is(false));
+        assertThat(target.size(), is(1L));
+    }
+
+    @Test
+    public void testPut_shouldWriteThroughATemporaryFile() throws Exception {
+        PdfResultStore target = newStore(10, 0);
+
+        target.put(KEY_1, "first");
+        target.put(KEY_1, "second");
+
+        assertThat(files(".tmp"), hasSize(0));
+        assertThat(files(".json"), hasSize(1));
+        assertThat(new String(Files.readAllBytes(target.lookup(KEY_1)), UTF_8), is("second"));
+    }
+
+    @Test
+    public void testEviction_byEntryCount_shouldDeleteTheLeastRecentlyUsed() throws Exception {
+        PdfResultStore target = newStore(2, 0);
+
+        target.put(KEY_1, "1");
+        target.put(KEY_2, "2");
+        // KEY_1 becomes the most recently used
+        target.lookup(KEY_1);
+        target.put(KEY_3, "3");
+
+        assertThat(target.size(), is(2L));
+        assertThat(target.lookup(KEY_1), is(notNullValue()));
+        assertThat(target.lookup(KEY_2), is(nullValue()));
+        assertThat(target.lookup(KEY_3), is(notNullValue()));
+        assertThat(files(".json"), hasSize(2));
+    }
+
+    @Test
+    public void testEviction_bySize_shouldDeleteTheFiles() throws Exception {
+        PdfResultStore target = newStore(0, 19);
+
+        target.put(KEY_1, "01234567");
+        target.put(KEY_2, "01234567");
+        target.put(KEY_3, "01234567");
+
+        assertThat(target.lookup(KEY_1), is(nullValue()));
+        assertThat(target.lookup(KEY_3), is(notNullValue()));
+        assertThat(files(".json"), hasSize(2));
+    }
+
+    @Test
+    public void testExpiry_byAge_shouldDeleteTheFiles() throws Exception {
+        AtomicLong nanos = new AtomicLong();
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+        PdfResultStore target = new PdfResultStore(folder.getRoot().toPath(), "v1", 10, 0, 1, ticker);
+
+        target.put(KEY_1, "1");
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(30));
+        target.put(KEY_2, "2");
+        assertThat(target.lookup(KEY_1), is(notNullValue()));
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(31));
+        // the expired entries are cleaned up on write
+        target.put(KEY_3, "3");
+
+        assertThat(target.lookup(KEY_1), is(nullValue()));
+        assertThat(target.lookup(KEY_2), is(notNullValue()));
+        assertThat(files(".json"), hasSize(2));
+    }
+
+    @Test
+    public void testLoad_shouldRebuildTheIndexFromTheDirectory() throws Exception {
+        PdfResultStore previous = newStore(10, 0);
+        previous.put(KEY_1, "1");
+        previous.put(KEY_2, "2");
+
+        PdfResultStore target = newStore(10, 0);
+
+        assertThat(target.size(), is(2L));
+        assertThat(target.lookup(KEY_1), is(notNullValue()));
+        assertThat(target.lookup(KEY_2), is(notNullValue()));
+    }
+
+    @Test
+    public void testLoad_expiredEntries_shouldBeDeleted() throws Exception {
+        PdfResultStore previous = new PdfResultStore(folder.getRoot().toPath(), "v1", 10, 0, 1);
+        previous.put(KEY_1, "1");
+        previous.put(KEY_2, "2");
+        File expired = previous.lookup(KEY_1).toFile();
+        expired.setLastModified(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(61));
+
+        PdfResultStore target = new PdfResultStore(folder.getRoot().toPath(), "v1", 10, 0, 1);
+
+        assertThat(target.size(), is(1L));
+        assertThat(target.lookup(KEY_1), is(nullValue()));
+        assertThat(target.lookup(KEY_2), is(notNullValue()));
+        assertThat(expired.exists(), is(false));
+    }
+
+    @Test
+    public void testLookup_deletedFile_shouldBeRemovedFromTheIndex() throws Exception {
+        PdfResultStore target = newStore(10, 0);
+        target.put(KEY_1, "1");
+
+        Files.delete(target.lookup(KEY_1));
+
+        assertThat(target.lookup(KEY_1), is(nullValue()));
+        assertThat(target.size(), is(0L));
+    }
+
+    @Test
+    public void testKeyFor_shouldDependOnTheContentAndTheVersion() throws Exception {
+        PdfResultStore target = newStore(10, 0);
+        File pdf1 = folder.newFile("1.pdf");
+        File pdf2 = folder.newFile("2.pdf");
+        Files.write(pdf1.toPath(), "%PDF-1.4 one".getBytes(UTF_8));
+        Files.write(pdf2.toPath(), "%PDF-1.4 two".getBytes(UTF_8));
+
+        String key1 = target.keyFor(pdf1);
+        assertThat(target.keyFor(pdf1), is(key1));
+        assertThat(target.keyFor(pdf2), is(not(key1)));
+
+        target.put(key1, "1");
+        target.setVersion("v2");
+
+        assertThat(target.keyFor(pdf1), is(not(key1)));
+        assertThat(target.contains(target.keyFor(pdf1)), is(false));
+    }
+
+    @Test
+    public void testFingerprint_shouldDependOnTheLexiconAndTheOptions() throws Exception {
+        String fingerprint = PdfResultStore.fingerprint(Collections.emptyList(), "lexicon", "options");
+
+        assertThat(PdfResultStore.fingerprint(Collections.emptyList(), "lexicon", "options"), is(fingerprint));
+        assertThat(PdfResultStore.fingerprint(Collections.emptyList(), "lexicon2", "options"), is(not(fingerprint)));
+        assertThat(PdfResultStore.fingerprint(Collections.emptyList(), "lexicon", "options2"), is(not(fingerprint)));
+    }
+}
@@ -0,0 +1,97 @@
+package org.grobid.core.engines.crf;
+
+import org.grobid.core.engines.AbstractParser;
+import org.grobid.core.engines.QuantitiesModels;
+import org.grobid.core.engines.UnitParser;
+import org.grobid.core.engines.ValueParser;
+import org.grobid.core.main.LibraryLoader;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Compare the labels of the Java decoder with the ones of Wapiti on the evaluation corpus of the models
+ */
+public class LinearChainCrfIntegrationTest {
+
+    @Before
+    public void setUp() throws Exception {
+        LibraryLoader.load();
+        JavaCrfModels.getInstance().disable(QuantitiesModels.VALUES);
+        JavaCrfModels.getInstance().disable(QuantitiesModels.UNITS);
+    }
+
+    @Test
+    public void testLabel_values_shouldBeIdenticalToWapiti() throws Exception {
+        assertSameLabels(ValueParser.getInstance(), "resources/models/values");
+    }
+
+    @Test
+    public void testLabel_units_shouldBeIdenticalToWapiti() throws Exception {
+        assertSameLabels(UnitParser.getInstance(), "resources/models/units");
+    }
+
+    private static void assertSameLabels(AbstractParser parser, String modelDirectory) throws Exception {
+        LinearChainCrf crf = LinearChainCrf.load(new File(modelDirectory, "model.wapiti"));
+
+        List<String> sequences = readSequences(Paths.get(modelDirectory, "model.wapiti.evaluation.txt").toFile());
+        assertThat(sequences.isEmpty(), is(false));
+        for (String features : sequences) {
+            assertThat(features, labels(crf.label(features)), is(labels(parser.label(features))));
+        }
+    }
+
+    private static List<String> labels(String result) {
+        List<String> labels = new ArrayList<>();
+        for (String line : result.split("\n")) {
+            String[] fields = line.trim().split("\\s+");
+            if (!fields[0].isEmpty()) {
+                labels.add(fields[fields.length - 1]);
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * The sequences of the raw results of the evaluation, without the expected and predicted labels
+     */
+    private static List<String> readSequences(File evaluation) throws Exception {
+        List<String> sequences = new ArrayList<>();
+        StringBuilder features = new StringBuilder();
+        boolean inResults = false;
+        for (String line : Files.readAllLines(evaluation.toPath(), UTF_8)) {
+            if (line.startsWith("===")) {
+                inResults = line.startsWith("=== START RAW");
+                continue;
+            }
+            if (!inResults) {
+                continue;
+            }
+            if (line.trim().isEmpty()) {
+                if (features.length() > 0) {
+                    sequences.add(features.toString());
+                    features.setLength(0);
+                }
+                continue;
+            }
+            String[] columns = line.split("\t");
+            for (int i = 0; i < columns.length - 2; i++) {
+                features.append(i == 0 ? "" : " ").append(columns[i]);
+            }
+            features.append("\n");
+        }
+        if (features.length() > 0) {
+            sequences.add(features.toString());
+        }
+        return sequences;
+    }
+}
@@ -0,0 +1,166 @@
+package org.grobid.core.engines.crf;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LinearChainCrfTest {
+
+    private static final String[] LABELS = {"<a>", "<b>", "<c>"};
+    private static final String[] PATTERNS = {"u00:%x[0,0]", "u01:%X[-1,1]/%x[0,1]", "*02:%x[1,1]", "b"};
+    private static final String[] TOKENS = {"1", "2", "x", "E", "e", "-", "."};
+    private static final String[] CLASSES = {"DIGIT", "ALPHA", "PUNCT"};
+
+    private final Map<String, Integer> unigramOffsets = new HashMap<>();
+    private final Map<String, Integer> bigramOffsets = new HashMap<>();
+    private double[] weights;
+    private LinearChainCrf target;
+
+    @Before
+    public void setUp() throws Exception {
+        // all the observations of the patterns on the tokens, with random weights
+        List<String> observations = new ArrayList<>();
+        for (String token : TOKENS) {
+            observations.add("u00:" + token);
+        }
+        for (String previous : CLASSES) {
+            for (String current : CLASSES) {
+                observations.add("u01:" + previous.toLowerCase() + "/" + current);
+            }
+        }
+        observations.add("u01:_x-1/DIGIT");
+        for (String next : CLASSES) {
+            observations.add("*02:" + next);
+        }
+        observations.add("*02:_x+1");
+        observations.add("b");
+
+        int nbFeatures = 0;
+        for (String observation : observations) {
+            if (observation.charAt(0) != 'b') {
+                unigramOffsets.put(observation, nbFeatures);
+                nbFeatures += LABELS.length;
+            }
+            if (observation.charAt(0) != 'u') {
+                bigramOffsets.put(observation, nbFeatures);
+                nbFeatures += LABELS.length * LABELS.length;
+            }
+        }
+        Random random = new Random(42);
+        weights = new double[nbFeatures];
+        for (int i = 0; i < nbFeatures; i++) {
+            weights[i] = random.nextGaussian();
+        }
+
+        StringBuilder model = new StringBuilder();
+        model.append("#mdl#2#").append(nbFeatures).append("\n");
+        model.append("#rdr#").append(PATTERNS.length).append("/2/0\n");
+        appendStrings(model, Arrays.asList(PATTERNS), false);
+        appendStrings(model, Arrays.asList(LABELS), true);
+        appendStrings(model, observations, true);
+        for (int i = 0; i < nbFeatures; i++) {
+            model.append(i).append('=').append(Double.toHexString(weights[i])).append("\n");
+        }
+
+        target = LinearChainCrf.load(new ByteArrayInputStream(model.toString().getBytes(UTF_8)));
+    }
+
+    private static void appendStrings(StringBuilder model, List<String> strings, boolean withHeader) {
+        if (withHeader) {
+            model.append("#qrk#").append(strings.size()).append("\n");
+        }
+        for (String string : strings) {
+            model.append(string.getBytes(UTF_8).length).append(':').append(string).append(",\n");
+        }
+    }
+
+    @Test
+    public void testLabelIndexes_shouldFindTheBestSequence() throws Exception {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            int length = 1 + random.nextInt(6);
+            String[][] rows = new String[length][];
+            StringBuilder features = new StringBuilder();
+            for (int t = 0; t < length; t++) {
+                rows[t] = new String[]{TOKENS[random.nextInt(TOKENS.length)], CLASSES[random.nextInt(CLASSES.length)]};
+                features.append(rows[t][0]).append(' ').append(rows[t][1]).append("\n");
+            }
+
+            assertThat(features.toString(), target.labelIndexes(features.toString()), is(bruteForce(rows)));
+        }
+    }
+
+    @Test
+    public void testLabel_shouldReturnTheRowsWithTheirLabel() throws Exception {
+        String features = "1 DIGIT\nx ALPHA\n\n- PUNCT\n";
+
+        String result = target.label(features);
+
+        int[] first = target.labelIndexes("1 DIGIT\nx ALPHA\n");
+        int[] second = target.labelIndexes("- PUNCT\n");
+        assertThat(result, is("1 DIGIT\t" + LABELS[first[0]] + "\n"
+            + "x ALPHA\t" + LABELS[first[1]] + "\n"
+            + "\n"
+            + "- PUNCT\t" + LABELS[second[0]] + "\n"
+            + "\n"));
+    }
+
+    @Test
+    public void testGetLabels() throws Exception {
+        assertThat(target.getLabels(), is(Arrays.asList(LABELS)));
+    }
+
+    /**
+     * Score all the label sequences with the observations expanded by hand
+     */
+    private int[] bruteForce(String[][] rows) {
+        int length = rows.length;
+        int nbLabels = LABELS.length;
+        int nbSequences = (int) Math.pow(nbLabels, length);
+
+        int[] best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int s = 0; s < nbSequences; s++) {
+            int[] sequence = new int[length];
+            int code = s;
+            for (int t = length - 1; t >= 0; t--) {
+                sequence[t] = code % nbLabels;
+                code /= nbLabels;
+            }
+
+            double score = 0;
+            for (int t = 0; t < length; t++) {
+                String previous = t == 0 ? "_x-1" : rows[t - 1][1].toLowerCase();
+                String next = t == length - 1 ? "_x+1" : rows[t + 1][1];
+                List<String> observations = Arrays.asList("u00:" + rows[t][0], "u01:" + previous + "/" + rows[t][1],
+                    "*02:" + next, "b");
+                for (String observation : observations) {
+                    Integer unigram = unigramOffsets.get(observation);
+                    if (unigram != null) {
+                        score += weights[unigram + sequence[t]];
+                    }
+                    Integer bigram = bigramOffsets.get(observation);
+                    if (bigram != null && t > 0) {
+                        score += weights[bigram + sequence[t - 1] * nbLabels + sequence[t]];
+                    }
+                }
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = sequence;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,74 @@
+package org.grobid.core.engines.label;
+
+import org.grobid.core.analyzers.QuantityAnalyzer;
+import org.grobid.core.engines.QuantitiesModels;
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.utilities.LayoutTokensUtil;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.Assert.assertThat;
+
+public class LabeledTokenSequenceTest {
+
+    @Test
+    public void testParse_shouldAlignRowsAndSkipSpaces() throws Exception {
+        List<LayoutToken> tokens = QuantityAnalyzer.getInstance().tokenizeWithLayoutToken("20 kg of ingot");
+        String result = "20 20 2 0 I-<valueAtomic>\n" +
+            "kg kg k 1 <unitLeft>\n" +
+            "of of o 0 <other>\n" +
+            "ingot ingot i 0 <other>\n";
+
+        LabeledTokenSequence target = LabeledTokenSequence.parse(QuantitiesModels.QUANTITIES, result, tokens);
+
+        assertThat(target.size(), is(4));
+        assertThat(target.getLabels(), hasSize(3));
+        assertThat(target.getLabel(0).getLabel(), is("<valueAtomic>"));
+        assertThat(target.isBeginning(0), is(true));
+        assertThat(target.getLabelIndex(2), is(target.getLabelIndex(3)));
+
+        List<LabeledTokenSequence.Cluster> clusters = target.cluster();
+        assertThat(clusters, hasSize(3));
+        assertThat(LayoutTokensUtil.toText(clusters.get(0).concatTokens()), is("20"));
+        assertThat(clusters.get(0).isTrailingSpace(), is(true));
+        assertThat(LayoutTokensUtil.toText(clusters.get(1).concatTokens()), is(" kg"));
+        assertThat(clusters.get(1).getTaggingLabel().getLabel(), is("<unitLeft>"));
+        assertThat(LayoutTokensUtil.toText(clusters.get(2).concatTokens()), is(" of ingot"));
+        assertThat(clusters.get(2).isTrailingSpace(), is(false));
+    }
+
+    @Test
+    public void testCluster_beginningLabel_shouldStartANewCluster() throws Exception {
+        List<LayoutToken> tokens = QuantityAnalyzer.getInstance().tokenizeWithLayoutToken("2 3");
+        String result = "2\tI-<valueAtomic>\n3\tI-<valueAtomic>\n";
+
+        List<LabeledTokenSequence.Cluster> clusters = LabeledTokenSequence.parse(QuantitiesModels.QUANTITIES, result, tokens).cluster();
+
+        assertThat(clusters, hasSize(2));
+        assertThat(clusters.get(1).getFirstRow(), is(1));
+        assertThat(LayoutTokensUtil.toText(clusters.get(1).concatTokens()), is(" 3"));
+    }
+
+    @Test
+    public void testParse_lineBreaks_shouldBeAttachedToTheNextRow() throws Exception {
+        List<LayoutToken> tokens = QuantityAnalyzer.getInstance().tokenizeWithLayoutToken("20\n kg");
+        String result = "20\t<valueAtomic>\nkg\t<unitLeft>\n";
+
+        List<LabeledTokenSequence.Cluster> clusters = LabeledTokenSequence.parse(QuantitiesModels.QUANTITIES, result, tokens).cluster();
+
+        assertThat(clusters, hasSize(2));
+        assertThat(LayoutTokensUtil.toText(clusters.get(1).concatTokens()), is("\n kg"));
+    }
+
+    @Test(expected = GrobidException.class)
+    public void testParse_mismatchingToken_shouldThrowException() throws Exception {
+        List<LayoutToken> tokens = QuantityAnalyzer.getInstance().tokenizeWithLayoutToken("20 g kg");
+        String result = "20\t<valueAtomic>\nkg\t<unitLeft>\n";
+
+        LabeledTokenSequence.parse(QuantitiesModels.QUANTITIES, result, tokens);
+    }
+}
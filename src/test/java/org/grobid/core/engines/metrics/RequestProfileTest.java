@@ -0,0 +1,54 @@
+package org.grobid.core.engines.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import org.grobid.core.engines.metrics.StageMetrics.Count;
+import org.grobid.core.engines.metrics.StageMetrics.Stage;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+public class RequestProfileTest {
+
+    @Test
+    public void testRecord_shouldCollectTheStagesOfTheThread() throws Exception {
+        StageMetrics metrics = new StageMetrics(new MetricRegistry());
+        RequestProfile target = new RequestProfile();
+
+        String result = target.record(() -> {
+            metrics.time(Stage.FEATURES, () -> "features");
+            metrics.time(Stage.EXTRACTION, () -> metrics.time(Stage.FEATURES, () -> "nested"));
+            metrics.count(Count.TOKENS, 5);
+            metrics.count(Count.TOKENS, 2);
+            return "done";
+        });
+        // not recorded outside of the profiled action
+        metrics.time(Stage.NORMALISATION, () -> "other");
+        metrics.count(Count.TOKENS, 100);
+
+        assertThat(result, is("done"));
+        assertThat(RequestProfile.current(), is(nullValue()));
+        assertThat(new ArrayList<>(target.getTimes().keySet()), is(Arrays.asList("features", "extractMeasurement")));
+        assertThat(target.getCounts().get("tokens"), is(7L));
+    }
+
+    @Test
+    public void testToJson() throws Exception {
+        RequestProfile target = new RequestProfile();
+        target.addTime("features", 1500000);
+        target.addCount("tokens", 12);
+        target.addCacheLookup("pdfResultStore", false);
+
+        assertThat(target.toJson(), is("{\"total\": null, \"stages\": {\"features\": 1.500}, \"counts\": {\"tokens\": 12}, "
+            + "\"caches\": {\"pdfResultStore\": {\"hits\": 0, \"misses\": 1}}}"));
+
+        target.record(() -> null);
+        assertThat(target.toJson(), not(startsWith("{\"total\": null")));
+    }
+}
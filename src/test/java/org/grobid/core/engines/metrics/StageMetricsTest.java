@@ -0,0 +1,60 @@
+package org.grobid.core.engines.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import org.grobid.core.GrobidModel;
+import org.grobid.core.engines.QuantitiesModels;
+import org.grobid.core.engines.metrics.StageMetrics.Count;
+import org.grobid.core.engines.metrics.StageMetrics.Stage;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StageMetricsTest {
+
+    private MetricRegistry registry;
+    private StageMetrics target;
+
+    @Before
+    public void setUp() throws Exception {
+        registry = new MetricRegistry();
+        target = new StageMetrics(new MetricRegistry());
+        target.setMetricRegistry(registry);
+    }
+
+    @Test
+    public void testRegistration_shouldRegisterAllTheStagesAndCounters() throws Exception {
+        for (Stage stage : Stage.values()) {
+            assertThat(registry.getTimers().containsKey(MetricRegistry.name(StageMetrics.class, stage.getName())),
+                is(true));
+        }
+        for (Count count : Count.values()) {
+            assertThat(registry.getCounters().containsKey(MetricRegistry.name(StageMetrics.class, count.getName())),
+                is(true));
+        }
+    }
+
+    @Test
+    public void testTime_shouldUpdateTheTimerOfTheStage() throws Exception {
+        String result = target.time(Stage.FEATURES, () -> "features");
+        try (StageMetrics.Timing ignored = target.time(Stage.FEATURES)) {
+            target.count(Count.TOKENS, 12);
+        }
+
+        assertThat(result, is("features"));
+        assertThat(registry.timer(MetricRegistry.name(StageMetrics.class, "features")).getCount(), is(2L));
+        assertThat(registry.timer(MetricRegistry.name(StageMetrics.class, "unitParsing")).getCount(), is(0L));
+        assertThat(registry.counter(MetricRegistry.name(StageMetrics.class, "tokens")).getCount(), is(12L));
+    }
+
+    @Test
+    public void testTimeLabel_shouldUseATimerPerModel() throws Exception {
+        GrobidModel model = QuantitiesModels.UNITS;
+        target.timeLabel(model).close();
+        target.timeLabel(model).close();
+
+        assertThat(registry.timer(MetricRegistry.name(StageMetrics.class, "label", model.getModelName())).getCount(),
+            is(2L));
+    }
+}
@@ -0,0 +1,131 @@
+package org.grobid.core.engines.tagging;
+
+import com.codahale.metrics.MetricRegistry;
+import org.grobid.core.exceptions.GrobidException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class LabelingBatcherTest {
+
+    private final List<String> inputs = new CopyOnWriteArrayList<>();
+
+    // labels each row with the upper case of its first column, failing on the rows "error"
+    private final Function<String, String> labeler = features -> {
+        inputs.add(features);
+        StringBuilder result = new StringBuilder();
+        for (String line : features.split("\n", -1)) {
+            if (line.trim().isEmpty()) {
+                result.append("\n");
+            } else if (line.startsWith("error")) {
+                throw new GrobidException("Invalid features");
+            } else {
+                result.append(line).append("\t").append(line.split(" ")[0].toUpperCase()).append("\n");
+            }
+        }
+        return result.toString();
+    };
+
+    private LabelingBatcher target;
+
+    @After
+    public void tearDown() throws Exception {
+        if (target != null) {
+            target.close();
+        }
+    }
+
+    @Test
+    public void testCountSequences() throws Exception {
+        assertThat(LabelingBatcher.countSequences(""), is(0));
+        assertThat(LabelingBatcher.countSequences("\n \n"), is(0));
+        assertThat(LabelingBatcher.countSequences("a x\nb x\n"), is(1));
+        assertThat(LabelingBatcher.countSequences("\na x\n\n\nb x\nc x"), is(2));
+    }
+
+    @Test
+    public void testSplitSequences() throws Exception {
+        assertThat(LabelingBatcher.splitSequences("a\tA\n\nb\tB\nc\tC\n\n"), is(Arrays.asList("a\tA\n", "b\tB\nc\tC\n")));
+    }
+
+    @Test
+    public void testLabel_concurrentCalls_shouldBeLabeledInASingleBatch() throws Exception {
+        MetricRegistry metricRegistry = new MetricRegistry();
+        int nbCalls = 4;
+        target = new LabelingBatcher("test", labeler, nbCalls, TimeUnit.SECONDS.toNanos(10), 1, metricRegistry);
+
+        ExecutorService executor = Executors.newFixedThreadPool(nbCalls);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < nbCalls; i++) {
+                String features = "a" + i + " x\nb" + i + " y\n";
+                results.add(executor.submit(() -> target.label(features)));
+            }
+
+            for (int i = 0; i < nbCalls; i++) {
+                assertThat(results.get(i).get(5, TimeUnit.SECONDS), is("a" + i + " x\tA" + i + "\nb" + i + " y\tB" + i + "\n\n"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(inputs.size(), is(1));
+        assertThat(LabelingBatcher.countSequences(inputs.get(0)), is(nbCalls));
+        assertThat(metricRegistry.histogram(MetricRegistry.name(LabelingBatcher.class, "test", "batchSize")).getSnapshot().getMax(), is(4L));
+        assertThat(metricRegistry.timer(MetricRegistry.name(LabelingBatcher.class, "test", "queueDelay")).getCount(), is(4L));
+    }
+
+    @Test
+    public void testLabel_singleCall_shouldBeLabeledAfterTheDelay() throws Exception {
+        target = new LabelingBatcher("test", labeler, 8, TimeUnit.MILLISECONDS.toNanos(1), 1, new MetricRegistry());
+
+        assertThat(target.label("a x\n"), is("a x\tA\n\n"));
+        assertThat(inputs, is(Arrays.asList("a x\n")));
+    }
+
+    @Test
+    public void testLabel_invalidCallInBatch_shouldOnlyFailThisCall() throws Exception {
+        int nbCalls = 3;
+        target = new LabelingBatcher("test", labeler, nbCalls, TimeUnit.SECONDS.toNanos(10), 1, new MetricRegistry());
+
+        ExecutorService executor = Executors.newFixedThreadPool(nbCalls);
+        try {
+            Future<String> first = executor.submit(() -> target.label("a x\n"));
+            Future<String> invalid = executor.submit(() -> target.label("error x\n"));
+            Future<String> last = executor.submit(() -> target.label("b x\n"));
+
+            assertThat(first.get(5, TimeUnit.SECONDS), is("a x\tA\n\n"));
+            assertThat(last.get(5, TimeUnit.SECONDS), is("b x\tB\n\n"));
+            try {
+                invalid.get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause() instanceof GrobidException, is(true));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLabel_afterClose_shouldLabelDirectly() throws Exception {
+        target = new LabelingBatcher("test", labeler, 8, TimeUnit.SECONDS.toNanos(10), 1, new MetricRegistry());
+        target.close();
+
+        assertThat(target.label("a x\n"), is("a x\tA\n\n"));
+    }
+}
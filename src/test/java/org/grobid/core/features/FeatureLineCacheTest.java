@@ -0,0 +1,61 @@
+package org.grobid.core.features;
+
+import org.grobid.core.engines.metrics.RequestProfile;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class FeatureLineCacheTest {
+
+    private FeatureLineCache target;
+
+    @Before
+    public void setUp() throws Exception {
+        target = new FeatureLineCache("test", 2, 100);
+    }
+
+    @Test
+    public void testGet_shouldComputeOnlyOnce() throws Exception {
+        AtomicInteger computed = new AtomicInteger();
+
+        assertThat(target.get("kg", 1, () -> "kg " + computed.incrementAndGet()), is("kg 1"));
+        assertThat(target.get("kg", 1, () -> "kg " + computed.incrementAndGet()), is("kg 1"));
+
+        assertThat(computed.get(), is(1));
+        assertThat(target.size(), is(1L));
+    }
+
+    @Test
+    public void testGet_differentFlags_shouldBeCachedSeparately() throws Exception {
+        assertThat(target.get("m", 0, () -> "m 0"), is("m 0"));
+        assertThat(target.get("m", 3, () -> "m 1"), is("m 1"));
+        assertThat(target.get("m", 0, () -> "other"), is("m 0"));
+
+        assertThat(target.size(), is(2L));
+    }
+
+    @Test
+    public void testGet_nullLine_shouldNotBeCached() throws Exception {
+        assertThat(target.get(" ", 0, () -> null), is(nullValue()));
+
+        assertThat(target.size(), is(0L));
+    }
+
+    @Test
+    public void testGet_profiledRequest_shouldRecordTheHitsAndMisses() throws Exception {
+        RequestProfile profile = new RequestProfile();
+        profile.record(() -> {
+            target.get("kg", 0, () -> "kg");
+            target.get("kg", 0, () -> "kg");
+            return target.get("g", 0, () -> "g");
+        });
+
+        assertThat(profile.getCacheHits("test"), is(1L));
+        assertThat(profile.getCacheMisses("test"), is(2L));
+    }
+}
@@ -0,0 +1,82 @@
+package org.grobid.core.lexicon;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class LexiconSnapshotIntegrationTest {
+
+    private static final List<String> KEYS = Arrays.asList("m", "km", "meter", "kilometers", "Kilometers",
+        "m/s", "km/ms", "mol/L", "°C", "pa", "Pa", "hPa", "kmeter", "hour", "one", "twenty", "xyz", "");
+
+    private static final List<String> TEXTS = Arrays.asList("10 km/h and 3 meters per second",
+        "a pressure of 1013 hPa at 20 °C", "twenty kilograms of flour", "nothing to match here");
+
+    private static QuantityLexicon lexicon;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUpClass() {
+        lexicon = QuantityLexicon.loadFromResources();
+    }
+
+    @Test
+    public void testWriteAndRead_shouldGiveTheSameLexicon() throws Exception {
+        File file = new File(folder.getRoot(), "lexicon.bin");
+        LexiconSnapshot.write(lexicon, file);
+
+        QuantityLexicon target = QuantityLexicon.loadFromSnapshot(file);
+
+        assertThat(target, is(notNullValue()));
+        for (String key : KEYS) {
+            assertThat(key, String.valueOf(target.getUnitByNotation(key)), is(String.valueOf(lexicon.getUnitByNotation(key))));
+            assertThat(key, String.valueOf(target.getUnitbyName(key)), is(String.valueOf(lexicon.getUnitbyName(key))));
+            assertThat(key, target.getNameByInflection(key), is(lexicon.getNameByInflection(key)));
+            assertThat(key, target.inUnitDictionary(key), is(lexicon.inUnitDictionary(key)));
+            assertThat(key, target.inUnitDictionaryCaseInsensitive(key), is(lexicon.inUnitDictionaryCaseInsensitive(key)));
+            assertThat(key, target.inPrefixDictionary(key), is(lexicon.inPrefixDictionary(key)));
+            assertThat(key, target.isNumberToken(key), is(lexicon.isNumberToken(key)));
+        }
+        for (String text : TEXTS) {
+            assertThat(text, target.inUnitNames(text).toString(), is(lexicon.inUnitNames(text).toString()));
+        }
+        assertThat(String.valueOf(target.getSIUnitByType("LENGTH")), is(String.valueOf(lexicon.getSIUnitByType("LENGTH"))));
+        assertThat(target.getInflectionsByTerm("meter"), is(lexicon.getInflectionsByTerm("meter")));
+        assertThat(target.derivationalMorphologyExpansion("g", true), is(lexicon.derivationalMorphologyExpansion("g", true)));
+    }
+
+    @Test
+    public void testRead_invalidSnapshot_shouldBeIgnored() throws Exception {
+        File file = folder.newFile("lexicon.bin");
+        Files.write(file.toPath(), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+
+        assertThat(QuantityLexicon.loadFromSnapshot(file), is(nullValue()));
+        assertThat(QuantityLexicon.loadFromSnapshot(new File(folder.getRoot(), "missing.bin")), is(nullValue()));
+    }
+
+    @Test
+    public void testRead_outdatedSnapshot_shouldBeIgnored() throws Exception {
+        File file = new File(folder.getRoot(), "lexicon.bin");
+        LexiconSnapshot.write(lexicon, file);
+
+        // the fingerprint of the lexicon resources follows the magic number and the version
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        bytes[12] = (byte) (bytes[12] == 'a' ? 'b' : 'a');
+        Files.write(file.toPath(), bytes);
+
+        assertThat(QuantityLexicon.loadFromSnapshot(file), is(nullValue()));
+    }
+}
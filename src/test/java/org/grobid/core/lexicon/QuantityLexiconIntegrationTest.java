@@ -153,6 +153,14 @@ public class QuantityLexiconIntegrationTest {
         assertThat(output, is("km"));
     }
 
+    @Test
+    public void testLookupUnit_prefixedUnits_shouldGiveTheBaseUnit() throws Exception {
+        assertThat(target.getUnitByNotation("km"), is(target.getUnitByNotation("m")));
+        assertThat(target.getUnitByNotation("km/s"), is(target.getUnitByNotation("m/s")));
+        assertThat(target.getUnitbyName("Kilometers"), is(target.getUnitbyName("meters")));
+        assertThat(target.getNameByInflection("kmeters"), is("km"));
+    }
+
     @Test
     public void testDerivationalMorphologyExpansion_simpleNotation() throws Exception {
         List<String> output = target.derivationalMorphologyExpansion("m", true);
@@ -0,0 +1,65 @@
+package org.grobid.core.lexicon;
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class QuantityLexiconLanguageIntegrationTest {
+
+    @Test
+    public void testGetInstance_shouldLoadTheLexiconOfTheLanguage() throws Exception {
+        QuantityLexicon english = QuantityLexicon.getInstance();
+        QuantityLexicon french = QuantityLexicon.getInstance("fr");
+
+        assertThat(english.getLanguage(), is("en"));
+        assertThat(french.getLanguage(), is("fr"));
+        assertThat(QuantityLexicon.getInstance("fr"), is(sameInstance(french)));
+        assertThat(french.getFingerprint(), is(not(english.getFingerprint())));
+
+        assertThat(french.getNameByInflection("mètres"), is("m"));
+        assertThat(english.getNameByInflection("mètres"), is(nullValue()));
+        assertThat(french.getUnitByNotation("km"), is(notNullValue()));
+    }
+
+    @Test
+    public void testGetInstance_missingPrefixes_shouldUseTheEnglishOnes() throws Exception {
+        assertThat(QuantityLexicon.resources("de").get(0), is(QuantityLexicon.PREFIX_EN_PATH));
+        assertThat(QuantityLexicon.resources("fr").get(0), is("lexicon/fr/prefix.txt"));
+
+        assertThat(QuantityLexicon.getInstance("de").getUnitByNotation("km"), is(notNullValue()));
+    }
+
+    @Test
+    public void testCallWithLanguage_shouldSelectTheLexiconOfTheThread() throws Exception {
+        QuantityLexicon lexicon = QuantityLexicon.callWithLanguage("fr", () -> QuantityLexicon.getInstance());
+
+        assertThat(lexicon, is(sameInstance(QuantityLexicon.getInstance("fr"))));
+        assertThat(QuantityLexicon.getCurrentLanguage(), is("en"));
+        assertThat(QuantityLexicon.getInstance(), is(sameInstance(QuantityLexicon.getInstance("en"))));
+    }
+
+    @Test
+    public void testIsSupportedLanguage() throws Exception {
+        assertThat(QuantityLexicon.isSupportedLanguage("en"), is(true));
+        assertThat(QuantityLexicon.isSupportedLanguage("fr"), is(true));
+        assertThat(QuantityLexicon.isSupportedLanguage("xx"), is(false));
+        assertThat(QuantityLexicon.isSupportedLanguage("../en"), is(false));
+        assertThat(QuantityLexicon.isSupportedLanguage(null), is(false));
+    }
+
+    @Test
+    public void testSnapshotFile_shouldBeNextToTheDefaultOne() throws Exception {
+        File file = new File("data", "lexicon.bin");
+
+        assertThat(QuantityLexicon.snapshotFile(file, "en"), is(file));
+        assertThat(QuantityLexicon.snapshotFile(file, "fr").getName(), is("lexicon.fr.bin"));
+        assertThat(QuantityLexicon.snapshotFile(null, "fr"), is(nullValue()));
+    }
+}
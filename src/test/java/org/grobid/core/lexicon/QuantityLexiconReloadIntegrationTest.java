@@ -0,0 +1,104 @@
+package org.grobid.core.lexicon;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class QuantityLexiconReloadIntegrationTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        QuantityLexicon.setLexiconDirectory(null);
+        QuantityLexicon.reload();
+    }
+
+    /**
+     * Write the bundled units with an additional unit in the lexicon directory
+     */
+    private void writeUnits(File directory) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root;
+        try (InputStream is = this.getClass().getClassLoader().getResourceAsStream(QuantityLexicon.UNITS_EN_PATH)) {
+            root = (ObjectNode) mapper.readTree(is);
+        }
+        ObjectNode unit = ((ArrayNode) root.get("units")).addObject();
+        unit.putArray("notations").addObject().put("raw", "zq");
+        unit.put("type", "LENGTH");
+        unit.put("system", "NON_SI");
+        ObjectNode name = unit.putArray("names").addObject();
+        name.put("lemma", "zorkmeter");
+        name.putArray("inflections").add("zorkmeters");
+
+        File languageDirectory = new File(directory, QuantityLexicon.DEFAULT_LANGUAGE);
+        languageDirectory.mkdirs();
+        mapper.writeValue(new File(languageDirectory, QuantityLexicon.UNITS_FILENAME), root);
+    }
+
+    @Test
+    public void testReload_shouldReplaceTheLexicon() throws Exception {
+        QuantityLexicon previous = QuantityLexicon.getInstance();
+        AtomicReference<QuantityLexicon> notified = new AtomicReference<>();
+        QuantityLexicon.addReloadListener(notified::set);
+
+        writeUnits(folder.getRoot());
+        QuantityLexicon.setLexiconDirectory(folder.getRoot());
+        QuantityLexicon reloaded = QuantityLexicon.reload();
+
+        assertThat(QuantityLexicon.getInstance(), is(sameInstance(reloaded)));
+        assertThat(notified.get(), is(sameInstance(reloaded)));
+        assertThat(reloaded.getFingerprint(), is(not(previous.getFingerprint())));
+
+        assertThat(reloaded.getUnitByNotation("zq"), is(notNullValue()));
+        assertThat(reloaded.getNameByInflection("zorkmeters"), is("zq"));
+        assertThat(reloaded.getUnitByNotation("km"), is(notNullValue()));
+
+        // the previous lexicon is not modified
+        assertThat(previous.getUnitByNotation("zq"), is(nullValue()));
+        assertThat(previous.getNameByInflection("zorkmeters"), is(nullValue()));
+    }
+
+    @Test
+    public void testReload_missingFiles_shouldUseTheBundledOnes() throws Exception {
+        String bundledFingerprint = QuantityLexicon.fingerprintResources();
+
+        QuantityLexicon.setLexiconDirectory(folder.getRoot());
+
+        assertThat(QuantityLexicon.fingerprintResources(), is(bundledFingerprint));
+        assertThat(QuantityLexicon.reload().getUnitByNotation("km"), is(notNullValue()));
+    }
+
+    @Test
+    public void testReload_duringARequest_shouldKeepTheLexiconOfTheRequest() throws Exception {
+        QuantityLexicon previous = QuantityLexicon.getInstance();
+        writeUnits(folder.getRoot());
+        QuantityLexicon.setLexiconDirectory(folder.getRoot());
+
+        QuantityLexicon used = QuantityLexicon.callWithLexicon(previous, () -> {
+            QuantityLexicon.reload();
+            return QuantityLexicon.getInstance();
+        });
+
+        assertThat(used, is(sameInstance(previous)));
+        assertThat(QuantityLexicon.getInstance(), is(not(sameInstance(previous))));
+        assertThat(QuantityLexicon.callWithLanguage("fr", () -> QuantityLexicon.callWithLexicon(previous,
+            QuantityLexicon::getInstance)).getLanguage(), is("fr"));
+    }
+}
@@ -0,0 +1,116 @@
+package org.grobid.core.lexicon;
+
+import org.grobid.core.analyzers.QuantityAnalyzer;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.utilities.OffsetPosition;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TermAutomatonTest {
+
+    private static final List<String> TERMS = Arrays.asList("m", "m/s", "km", "km/h", "kilometer per hour",
+        "meter", "meters per second", "square meter", "m2", "Pa", "hPa", "mol", "mol/L", "degree Celsius",
+        "per", "h", "s", "kg", "kg m-2");
+
+    private static final String[] WORDS = {"m", "km", "/", "s", "h", "per", "hour", "second", "kilometer",
+        "meter", "meters", "square", "2", "Pa", "pa", "hPa", "mol", "L", "degree", "Celsius", "of", "the",
+        "kg", "-", "m-2", "10", ".", "(", ")"};
+
+    private static TermAutomaton buildAutomaton(List<String> terms) {
+        TermAutomaton.Builder builder = TermAutomaton.builder();
+        for (String term : terms) {
+            builder.addTerm(QuantityAnalyzer.getInstance().tokenize(term));
+        }
+        return builder.build();
+    }
+
+    private static String toString(List<OffsetPosition> positions) {
+        StringBuilder sb = new StringBuilder();
+        for (OffsetPosition position : positions) {
+            sb.append("[").append(position.start).append(",").append(position.end).append("]");
+        }
+        return sb.toString();
+    }
+
+    private static String match(TermAutomaton automaton, String text) {
+        return toString(automaton.match(QuantityAnalyzer.getInstance().tokenizeWithLayoutToken(text)));
+    }
+
+    @Test
+    public void testMatch_simpleTerms() throws Exception {
+        TermAutomaton target = buildAutomaton(Arrays.asList("km", "m", "meter"));
+
+        // tokens: 10, " ", km, " ", and, " ", meter
+        assertThat(match(target, "10 km and meter"), is("[2,2][6,6]"));
+        assertThat(match(target, ""), is(""));
+        assertThat(match(target, "nothing here"), is(""));
+    }
+
+    @Test
+    public void testMatch_termFollowedByALongerPrefix_shouldOnlyMatchTheLongestPath() throws Exception {
+        TermAutomaton target = buildAutomaton(Arrays.asList("kilometer", "kilometer per hour", "per", "hour"));
+
+        // the matches are reported when their path ends: "per" at "hour", the others at the end
+        assertThat(match(target, "kilometer per hour"), is("[2,2][0,4][4,4]"));
+        // the path stops after "per", which does not end a term: as in the FastMatcher "kilometer" is lost
+        assertThat(match(target, "kilometer per second"), is("[2,2]"));
+    }
+
+    @Test
+    public void testMatch_delimitersAreIgnored() throws Exception {
+        TermAutomaton target = buildAutomaton(Arrays.asList("m/s"));
+
+        assertThat(match(target, "10 m/s"), is("[2,4]"));
+        assertThat(match(target, "10 m s"), is("[2,4]"));
+    }
+
+    @Test
+    public void testMatch_caseSensitive() throws Exception {
+        TermAutomaton target = buildAutomaton(Arrays.asList("Pa"));
+        assertThat(match(target, "10 Pa or pa"), is("[2,2]"));
+
+        TermAutomaton.Builder builder = TermAutomaton.builder(true, false);
+        builder.addTerm(QuantityAnalyzer.getInstance().tokenize("Pa"));
+        assertThat(match(builder.build(), "10 Pa or pa"), is("[2,2][6,6]"));
+    }
+
+    @Test
+    public void testMatch_shouldGiveTheSameResultsAsTheFastMatcher() throws Exception {
+        FastMatcher fastMatcher = new FastMatcher();
+        for (String term : TERMS) {
+            fastMatcher.loadTerm(term, QuantityAnalyzer.getInstance());
+        }
+        TermAutomaton target = buildAutomaton(TERMS);
+        assertThat(target.size(), is(TERMS.size()));
+
+        Random random = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = 1 + random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                text.append(WORDS[random.nextInt(WORDS.length)]);
+                if (random.nextBoolean()) {
+                    text.append(" ");
+                }
+            }
+            List<LayoutToken> tokens = QuantityAnalyzer.getInstance().tokenizeWithLayoutToken(text.toString());
+
+            assertThat(text.toString(), toString(target.match(tokens)), is(toString(fastMatcher.matchLayoutToken(tokens))));
+        }
+    }
+
+    @Test
+    public void testMatch_stringTokens() throws Exception {
+        TermAutomaton target = buildAutomaton(Arrays.asList("km/h"));
+        List<String> tokens = new ArrayList<>(Arrays.asList("at", " ", "50", " ", "km", "/", "h"));
+
+        assertThat(toString(target.match(tokens, token -> token)), is("[4,6]"));
+    }
+}
@@ -0,0 +1,62 @@
+package org.grobid.core.sax;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class RawXmlReaderTest {
+
+    @Test
+    public void testGetText_shouldReturnTheCharactersRead() throws Exception {
+        RawXmlReader target = new RawXmlReader(new StringReader("<p>a &amp; b</p>"));
+        char[] buffer = new char[8];
+        target.read(buffer, 0, 8);
+
+        assertThat(target.getText(3, 8), is("a &am"));
+        assertThat(target.getText(3, 9), is(nullValue()));
+    }
+
+    @Test
+    public void testRelease_shouldDropTheCharactersBefore() throws Exception {
+        RawXmlReader target = new RawXmlReader(new StringReader("<doc><p>10 km</p></doc>"));
+        IOUtils.toString(target);
+
+        target.release(17);
+
+        assertThat(target.getText(5, 8), is(nullValue()));
+        assertThat(target.getText(17, 23), is("</doc>"));
+    }
+
+    @Test
+    public void testOf_shouldUseTheDeclaredEncoding() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><p>20 °C</p>";
+
+        assertThat(IOUtils.toString(RawXmlReader.of(new ByteArrayInputStream(xml.getBytes(ISO_8859_1)))), is(xml));
+    }
+
+    @Test
+    public void testOf_shouldSkipTheByteOrderMark() throws Exception {
+        String xml = "<p>20 °C</p>";
+        byte[] utf8 = ("\uFEFF" + xml).getBytes(UTF_8);
+        byte[] utf16 = ("\uFEFF" + xml).getBytes(UTF_16LE);
+
+        assertThat(IOUtils.toString(RawXmlReader.of(new ByteArrayInputStream(utf8))), is(xml));
+        assertThat(IOUtils.toString(RawXmlReader.of(new ByteArrayInputStream(utf16))), is(xml));
+    }
+
+    @Test
+    public void testOf_withoutDeclaration_shouldDecodeUtf8() throws Exception {
+        String xml = "<p>20 °C</p>";
+
+        assertThat(IOUtils.toString(RawXmlReader.of(new ByteArrayInputStream(xml.getBytes(UTF_8)))), is(xml));
+    }
+}
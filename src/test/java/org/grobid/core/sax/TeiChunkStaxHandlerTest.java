@@ -0,0 +1,138 @@
+package org.grobid.core.sax;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+import org.codehaus.stax2.XMLStreamReader2;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.trainer.stax.StaxUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class TeiChunkStaxHandlerTest {
+
+    private static final String TEI = "<TEI><teiHeader><fileDesc><titleStmt>" +
+        "<title level=\"a\" type=\"main\" coords=\"1,100,50,200,12\">Heating at 300 K</title></titleStmt>" +
+        "</fileDesc><profileDesc><textClass><keywords><term>temperature</term></keywords></textClass>" +
+        "<abstract><div><p>A sample of 5 g.</p></div></abstract></profileDesc></teiHeader>" +
+        "<facsimile><surface n=\"1\" ulx=\"0.0\" uly=\"0.0\" lrx=\"612.0\" lry=\"792.0\"/></facsimile>" +
+        "<text><body><div><head>Introduction</head>" +
+        "<p><s coords=\"1,50,100,100,10;1,50,112,100,10\">It weighs 10 kg and it is long</s> " +
+        "<ref type=\"bibr\">[1]</ref>.</p>" +
+        "<figure><head>Figure 1</head><figDesc>Length of 3 m.</figDesc></figure></div></body>" +
+        "<back><div type=\"references\"><listBibl><biblStruct><title>Not processed</title></biblStruct></listBibl></div>" +
+        "<div type=\"annex\"><p>Annex with 2 L.</p></div></back></text></TEI>";
+
+    private WstxInputFactory inputFactory = new WstxInputFactory();
+
+    private List<TeiChunkStaxHandler.TeiChunk> chunks;
+    private TeiChunkStaxHandler target;
+
+    @Before
+    public void setUp() throws Exception {
+        chunks = new ArrayList<>();
+        target = new TeiChunkStaxHandler(chunks::add);
+        XMLStreamReader2 reader = (XMLStreamReader2) inputFactory.createXMLStreamReader(new StringReader(TEI));
+        StaxUtils.traverse(reader, target);
+    }
+
+    @Test
+    public void testChunks_shouldSelectTheSamePartsAsThePdfProcessing() throws Exception {
+        List<String> texts = new ArrayList<>();
+        chunks.forEach(c -> texts.add(c.getText()));
+
+        assertThat(texts, contains("Heating at 300 K", "temperature", "A sample of 5 g.", "Introduction",
+            "It weighs 10 kg and it is long .", "Figure 1", "Length of 3 m.", "Annex with 2 L."));
+        assertThat(target.getPages(), hasSize(1));
+        assertThat(target.getPages().get(0).getWidth(), is(612.0));
+    }
+
+    @Test
+    public void testOffsets_shouldReferToTheTei() throws Exception {
+        TeiChunkStaxHandler.TeiChunk paragraph = chunks.get(4);
+        int start = paragraph.getText().indexOf("10 kg");
+
+        assertThat(TEI.substring(paragraph.toXmlOffset(start), paragraph.toXmlEndOffset(start + 5)), is("10 kg"));
+    }
+
+    @Test
+    public void testHeads_ofTheBodyAndBackSections_shouldBeChunks() throws Exception {
+        List<String> texts = parseTexts("<TEI><text><body><div><head>Results at 300 K</head><p>A paragraph.</p>" +
+            "<div><head>Heating of 5 g</head></div></div></body>" +
+            "<back><div type=\"acknowledgement\"><head>Funding of 3 years</head></div></back></text></TEI>");
+
+        assertThat(texts, contains("Results at 300 K", "A paragraph.", "Heating of 5 g", "Funding of 3 years"));
+    }
+
+    @Test
+    public void testPages_withMissingOrInvalidDimensions_shouldBeSkipped() throws Exception {
+        TeiChunkStaxHandler handler = new TeiChunkStaxHandler(chunk -> {
+        });
+        parse(handler, "<TEI><facsimile><surface n=\"1\" ulx=\"0.0\" uly=\"0.0\" lrx=\"612.0\" lry=\"792.0\"/>" +
+            "<surface n=\"2\" ulx=\"0.0\" uly=\"0.0\" lrx=\"612.0\"/>" +
+            "<surface ulx=\"0.0\" uly=\"0.0\" lrx=\"612.0\" lry=\"792.0\"/>" +
+            "<surface n=\"4\" ulx=\"0.0\" uly=\"0.0\" lrx=\"wide\" lry=\"792.0\"/></facsimile></TEI>");
+
+        assertThat(handler.getPages(), hasSize(1));
+        assertThat(handler.getPages().get(0).getNumber(), is(1));
+    }
+
+    @Test
+    public void testOffsets_afterAnEntityReference_shouldReferToTheTei() throws Exception {
+        String tei = "<TEI><text><body><div><p>Salt &amp; water: 10 km &#8804; 12 km</p></div></body></text></TEI>";
+        List<TeiChunkStaxHandler.TeiChunk> parsed = new ArrayList<>();
+        TeiChunkStaxHandler handler = new TeiChunkStaxHandler(parsed::add);
+        RawXmlReader rawXml = new RawXmlReader(new StringReader(tei));
+        handler.setRawXml(rawXml);
+        StaxUtils.traverse((XMLStreamReader2) inputFactory.createXMLStreamReader(rawXml), handler);
+
+        TeiChunkStaxHandler.TeiChunk paragraph = parsed.get(0);
+        int start = paragraph.getText().indexOf("10 km");
+        assertThat(paragraph.toXmlOffset(start), is(tei.indexOf("10 km")));
+        assertThat(tei.substring(paragraph.toXmlOffset(start), paragraph.toXmlEndOffset(start + 5)), is("10 km"));
+        start = paragraph.getText().indexOf("12 km");
+        assertThat(tei.substring(paragraph.toXmlOffset(start), paragraph.toXmlEndOffset(start + 5)), is("12 km"));
+    }
+
+    @Test
+    public void testLayoutTokens_shouldDistributeTheCoordinates() throws Exception {
+        List<LayoutToken> title = chunks.get(0).getLayoutTokens();
+        LayoutToken first = title.get(0);
+        LayoutToken last = title.get(title.size() - 1);
+
+        assertThat(first.getText(), is("Heating"));
+        assertThat(first.getPage(), is(1));
+        assertThat(first.getX(), is(100.0));
+        assertThat(first.getY(), is(50.0));
+        assertThat(first.getHeight(), is(12.0));
+        assertThat(last.getText(), is("K"));
+        assertThat(last.getX() + last.getWidth(), closeTo(300.0, 0.01));
+
+        // the sentence spans two lines
+        List<LayoutToken> paragraph = chunks.get(4).getLayoutTokens();
+        LayoutToken it = paragraph.get(0);
+        LayoutToken longToken = paragraph.stream().filter(t -> t.getText().equals("long")).findFirst().get();
+        LayoutToken dot = paragraph.get(paragraph.size() - 1);
+
+        assertThat(it.getY(), is(100.0));
+        assertThat(longToken.getY(), is(112.0));
+        assertThat(dot.getText(), is("."));
+    }
+
+    private List<String> parseTexts(String tei) throws Exception {
+        List<TeiChunkStaxHandler.TeiChunk> parsed = new ArrayList<>();
+        parse(new TeiChunkStaxHandler(parsed::add), tei);
+        List<String> texts = new ArrayList<>();
+        parsed.forEach(c -> texts.add(c.getText()));
+        return texts;
+    }
+
+    private void parse(TeiChunkStaxHandler handler, String tei) throws Exception {
+        StaxUtils.traverse((XMLStreamReader2) inputFactory.createXMLStreamReader(new StringReader(tei)), handler);
+    }
+}
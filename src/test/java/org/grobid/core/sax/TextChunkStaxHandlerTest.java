@@ -0,0 +1,157 @@
+package org.grobid.core.sax;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+import org.codehaus.stax2.XMLStreamReader2;
+import org.grobid.trainer.stax.StaxParserContentHandler;
+import org.grobid.trainer.stax.StaxUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+public class TextChunkStaxHandlerTest {
+
+    private WstxInputFactory inputFactory = new WstxInputFactory();
+
+    private List<TextChunkStaxHandler.TextChunk> chunks;
+    private TextChunkStaxHandler target;
+
+    @Before
+    public void setUp() throws Exception {
+        chunks = new ArrayList<>();
+        target = new TextChunkStaxHandler(chunks::add);
+    }
+
+    @Test
+    public void testParagraphs_shouldMapOffsetsToTheXml() throws Exception {
+        String xml = "<doc><title>Not a paragraph</title><p>The sample\nweighs <b>10 kg</b>.</p>" +
+            "<paragraph>It is 3 m long.</paragraph></doc>";
+
+        parse(xml);
+
+        assertThat(chunks, hasSize(2));
+        TextChunkStaxHandler.TextChunk first = chunks.get(0);
+        assertThat(first.getText(), is("The sample weighs 10 kg."));
+
+        int start = first.getText().indexOf("10 kg");
+        int end = start + "10 kg".length();
+        assertThat(xml.substring(first.toXmlOffset(start), first.toXmlEndOffset(end)), is("10 kg"));
+
+        start = first.getText().indexOf("weighs");
+        assertThat(xml.substring(first.toXmlOffset(start), first.toXmlEndOffset(start + 6)), is("weighs"));
+
+        TextChunkStaxHandler.TextChunk second = chunks.get(1);
+        start = second.getText().indexOf("3 m");
+        assertThat(xml.substring(second.toXmlOffset(start), second.toXmlEndOffset(start + 3)), is("3 m"));
+    }
+
+    @Test
+    public void testOffsets_afterAnEntityReference_shouldReferToTheXml() throws Exception {
+        String xml = "<doc><p>a &amp; 10 km here</p></doc>";
+
+        parseRaw(xml);
+
+        TextChunkStaxHandler.TextChunk chunk = chunks.get(0);
+        assertThat(chunk.getText(), is("a & 10 km here"));
+        int start = chunk.getText().indexOf("km");
+        assertThat(chunk.toXmlOffset(start), is(xml.indexOf("km")));
+        assertThat(xml.substring(chunk.toXmlOffset(start), chunk.toXmlEndOffset(start + 2)), is("km"));
+        start = chunk.getText().indexOf("&");
+        assertThat(xml.substring(chunk.toXmlOffset(start), chunk.toXmlEndOffset(start + 1)), is("&amp;"));
+    }
+
+    @Test
+    public void testOffsets_afterCharacterReferencesAndLineBreaks_shouldReferToTheXml() throws Exception {
+        String xml = "<doc><p>At 20 &#176;C &lt; 25 &#x1D706;\r\nit weighs <b>10 kg</b> &gt; 5 kg.</p></doc>";
+
+        parseRaw(xml);
+
+        TextChunkStaxHandler.TextChunk chunk = chunks.get(0);
+        assertThat(chunk.getText(), is("At 20 \u00B0C < 25 \uD835\uDF06 it weighs 10 kg > 5 kg."));
+        for (String expected : new String[]{"20", "it weighs", "10 kg", "5 kg"}) {
+            int start = chunk.getText().indexOf(expected);
+            int end = start + expected.length();
+            assertThat(xml.substring(chunk.toXmlOffset(start), chunk.toXmlEndOffset(end)), is(expected));
+        }
+        int start = chunk.getText().indexOf("\u00B0C");
+        assertThat(xml.substring(chunk.toXmlOffset(start), chunk.toXmlEndOffset(start + 2)), is("&#176;C"));
+        start = chunk.getText().indexOf("\uD835");
+        assertThat(xml.substring(chunk.toXmlOffset(start), chunk.toXmlEndOffset(start + 2)), is("&#x1D706;"));
+    }
+
+    @Test
+    public void testRawXml_withoutParagraph_shouldNotBeKeptInMemory() throws Exception {
+        StringBuilder xml = new StringBuilder("<patent><claims>");
+        for (int i = 0; i < 50000; i++) {
+            xml.append("<claim num=\"").append(i).append("\"><claim-text>A layer of 10 &#181;m.</claim-text></claim>\n");
+        }
+        xml.append("</claims><p>It weighs 5 &amp; 10 kg.</p></patent>");
+
+        RawXmlReader rawXml = new RawXmlReader(new StringReader(xml.toString()));
+        target.setRawXml(rawXml);
+        AtomicInteger maxBuffered = new AtomicInteger();
+        StaxParserContentHandler recorder = new StaxParserContentHandler() {
+            @Override
+            public void onStartDocument(XMLStreamReader2 reader) {
+            }
+
+            @Override
+            public void onEndDocument(XMLStreamReader2 reader) {
+            }
+
+            @Override
+            public void onStartElement(XMLStreamReader2 reader) {
+                target.onStartElement(reader);
+                maxBuffered.accumulateAndGet(rawXml.getBufferedLength(), Math::max);
+            }
+
+            @Override
+            public void onEndElement(XMLStreamReader2 reader) {
+                target.onEndElement(reader);
+                maxBuffered.accumulateAndGet(rawXml.getBufferedLength(), Math::max);
+            }
+
+            @Override
+            public void onCharacter(XMLStreamReader2 reader) {
+                target.onCharacter(reader);
+                maxBuffered.accumulateAndGet(rawXml.getBufferedLength(), Math::max);
+            }
+        };
+        StaxUtils.traverse((XMLStreamReader2) inputFactory.createXMLStreamReader(rawXml), recorder);
+
+        // the document is more than 3 MB, only the parser buffer and the current element are kept
+        assertThat(maxBuffered.get(), is(lessThan(64 * 1024)));
+        TextChunkStaxHandler.TextChunk chunk = chunks.get(0);
+        int start = chunk.getText().indexOf("10 kg");
+        assertThat(xml.substring(chunk.toXmlOffset(start), chunk.toXmlEndOffset(start + 5)), is("10 kg"));
+    }
+
+    @Test
+    public void testFilteredTags_shouldBeIgnored() throws Exception {
+        target.addFilteredTag("formula");
+        parse("<doc><p>A length of <formula>x = 2</formula> 5 cm.</p></doc>");
+
+        assertThat(chunks, hasSize(1));
+        assertThat(chunks.get(0).getText(), is("A length of  5 cm."));
+    }
+
+    private void parse(String xml) throws Exception {
+        XMLStreamReader2 reader = (XMLStreamReader2) inputFactory.createXMLStreamReader(new StringReader(xml));
+        StaxUtils.traverse(reader, target);
+    }
+
+    private void parseRaw(String xml) throws Exception {
+        RawXmlReader rawXml = new RawXmlReader(new StringReader(xml));
+        target.setRawXml(rawXml);
+        XMLStreamReader2 reader = (XMLStreamReader2) inputFactory.createXMLStreamReader(rawXml);
+        StaxUtils.traverse(reader, target);
+    }
+}